@@ -34,12 +34,16 @@ import org.traccar.config.Config;
 import org.traccar.config.Keys;
 import org.traccar.database.LdapProvider;
 import org.traccar.database.OpenIdProvider;
+import org.traccar.database.RecentPositionManager;
 import org.traccar.database.StatisticsManager;
+import org.traccar.forward.EventData;
 import org.traccar.forward.EventForwarder;
 import org.traccar.forward.EventForwarderJson;
 import org.traccar.forward.EventForwarderAmqp;
 import org.traccar.forward.EventForwarderKafka;
 import org.traccar.forward.EventForwarderMqtt;
+import org.traccar.forward.ForwardingOutbox;
+import org.traccar.forward.PositionData;
 import org.traccar.forward.PositionForwarder;
 import org.traccar.forward.PositionForwarderJson;
 import org.traccar.forward.PositionForwarderAmqp;
@@ -58,6 +62,7 @@ import org.traccar.geocoder.Geocoder;
 import org.traccar.geocoder.GisgraphyGeocoder;
 import org.traccar.geocoder.GoogleGeocoder;
 import org.traccar.geocoder.HereGeocoder;
+import org.traccar.geocoder.LocalGeocoder;
 import org.traccar.geocoder.LocationIqGeocoder;
 import org.traccar.geocoder.MapQuestGeocoder;
 import org.traccar.geocoder.MapTilerGeocoder;
@@ -67,6 +72,7 @@ import org.traccar.geocoder.NominatimGeocoder;
 import org.traccar.geocoder.OpenCageGeocoder;
 import org.traccar.geocoder.PositionStackGeocoder;
 import org.traccar.geocoder.PlusCodesGeocoder;
+import org.traccar.geocoder.ThrottledGeocoder;
 import org.traccar.geocoder.TomTomGeocoder;
 import org.traccar.geocoder.GeocodeJsonGeocoder;
 import org.traccar.geolocation.GeolocationProvider;
@@ -88,6 +94,7 @@ import org.traccar.session.cache.CacheManager;
 import org.traccar.sms.HttpSmsClient;
 import org.traccar.sms.SmsManager;
 import org.traccar.sms.SnsSmsClient;
+import org.traccar.speedlimit.LocalSpeedLimitProvider;
 import org.traccar.speedlimit.OverpassSpeedLimitProvider;
 import org.traccar.speedlimit.SpeedLimitProvider;
 import org.traccar.storage.DatabaseStorage;
@@ -103,6 +110,7 @@ import jakarta.ws.rs.client.ClientBuilder;
 import java.io.IOException;
 import java.net.URISyntaxException;
 import java.net.http.HttpClient;
+import java.nio.file.Paths;
 import java.util.Properties;
 
 public class MainModule extends AbstractModule {
@@ -158,11 +166,11 @@ public class MainModule extends AbstractModule {
 
     @Singleton
     @Provides
-    public static MailManager provideMailManager(Config config, StatisticsManager statisticsManager) {
+    public static MailManager provideMailManager(Config config, StatisticsManager statisticsManager, Timer timer) {
         if (config.getBoolean(Keys.MAIL_DEBUG)) {
             return new LogMailManager();
         } else {
-            return new SmtpMailManager(config, statisticsManager);
+            return new SmtpMailManager(config, statisticsManager, timer);
         }
     }
 
@@ -196,7 +204,8 @@ public class MainModule extends AbstractModule {
 
     @Singleton
     @Provides
-    public static Geocoder provideGeocoder(Config config, Client client, StatisticsManager statisticsManager) {
+    public static Geocoder provideGeocoder(
+            Config config, Client client, Timer timer, StatisticsManager statisticsManager) throws IOException {
         if (config.getBoolean(Keys.GEOCODER_ENABLE)) {
             String type = config.getString(Keys.GEOCODER_TYPE);
             String url = config.getString(Keys.GEOCODER_URL);
@@ -208,6 +217,9 @@ public class MainModule extends AbstractModule {
             int cacheSize = config.getInteger(Keys.GEOCODER_CACHE_SIZE);
             Geocoder geocoder = switch (type) {
                 case "pluscodes" -> new PlusCodesGeocoder();
+                case "local" -> new LocalGeocoder(
+                        Paths.get(config.getString(Keys.GEOCODER_FILE)),
+                        config.getDouble(Keys.GEOCODER_MAX_DISTANCE), addressFormat);
                 case "nominatim" -> new NominatimGeocoder(client, url, key, language, cacheSize, addressFormat);
                 case "locationiq" -> new LocationIqGeocoder(client, url, key, language, cacheSize, addressFormat);
                 case "gisgraphy" -> new GisgraphyGeocoder(client, url, cacheSize, addressFormat);
@@ -228,6 +240,14 @@ public class MainModule extends AbstractModule {
                 case "geocodejson" -> new GeocodeJsonGeocoder(client, url, key, language, cacheSize, addressFormat);
                 default -> new GoogleGeocoder(client, key, language, cacheSize, addressFormat);
             };
+            if (config.hasKey(Keys.GEOCODER_COALESCE_PRECISION) || config.hasKey(Keys.GEOCODER_RATE_LIMIT)) {
+                geocoder = new ThrottledGeocoder(
+                        geocoder, timer,
+                        config.getInteger(Keys.GEOCODER_COALESCE_PRECISION, 6),
+                        config.getDouble(Keys.GEOCODER_RATE_LIMIT),
+                        config.getInteger(Keys.GEOCODER_RATE_BURST),
+                        config.getInteger(Keys.GEOCODER_QUEUE_SIZE));
+            }
             geocoder.setStatisticsManager(statisticsManager);
             return geocoder;
         }
@@ -252,12 +272,13 @@ public class MainModule extends AbstractModule {
 
     @Singleton
     @Provides
-    public static SpeedLimitProvider provideSpeedLimitProvider(Config config, Client client) {
+    public static SpeedLimitProvider provideSpeedLimitProvider(Config config, Client client) throws IOException {
         if (config.getBoolean(Keys.SPEED_LIMIT_ENABLE)) {
             String type = config.getString(Keys.SPEED_LIMIT_TYPE, "overpass");
             String url = config.getString(Keys.SPEED_LIMIT_URL);
             return switch (type) {
                 case "overpass" -> new OverpassSpeedLimitProvider(config, client, url);
+                case "local" -> new LocalSpeedLimitProvider(config);
                 default -> throw new IllegalArgumentException("Unknown speed limit provider");
             };
         }
@@ -306,9 +327,10 @@ public class MainModule extends AbstractModule {
     @Singleton
     @Provides
     public static FilterHandler provideFilterHandler(
-            Config config, CacheManager cacheManager, Storage storage, StatisticsManager statisticsManager) {
+            Config config, CacheManager cacheManager, Storage storage, StatisticsManager statisticsManager,
+            RecentPositionManager recentPositionManager) {
         if (config.getBoolean(Keys.FILTER_ENABLE)) {
-            return new FilterHandler(config, cacheManager, storage, statisticsManager);
+            return new FilterHandler(config, cacheManager, storage, statisticsManager, recentPositionManager);
         }
         return null;
     }
@@ -338,31 +360,58 @@ public class MainModule extends AbstractModule {
 
     @Singleton
     @Provides
-    public static EventForwarder provideEventForwarder(Config config, Client client, ObjectMapper objectMapper) {
+    public static EventForwarder provideEventForwarder(
+            Config config, Client client, ObjectMapper objectMapper, Timer timer) throws IOException {
         if (config.hasKey(Keys.EVENT_FORWARD_URL)) {
             String forwardType = config.getString(Keys.EVENT_FORWARD_TYPE);
-            return switch (forwardType) {
+            EventForwarder eventForwarder = switch (forwardType) {
                 case "amqp" -> new EventForwarderAmqp(config, objectMapper);
                 case "kafka" -> new EventForwarderKafka(config, objectMapper);
                 case "mqtt" -> new EventForwarderMqtt(config, objectMapper);
                 default -> new EventForwarderJson(config, client);
             };
+            if (config.hasKey(Keys.FORWARD_OUTBOX_PATH)) {
+                ForwardingOutbox<EventData> outbox = createOutbox(
+                        config, timer, objectMapper, "events", EventData.class, eventForwarder::forward);
+                return outbox::forward;
+            }
+            return eventForwarder;
         }
         return null;
     }
 
+    private static <T> ForwardingOutbox<T> createOutbox(
+            Config config, Timer timer, ObjectMapper objectMapper, String name, Class<T> type,
+            ForwardingOutbox.Sender<T> sender) throws IOException {
+        return new ForwardingOutbox<>(
+                Paths.get(config.getString(Keys.FORWARD_OUTBOX_PATH), name),
+                config.getLong(Keys.FORWARD_OUTBOX_SIZE) * 1024 * 1024,
+                config.getInteger(Keys.FORWARD_OUTBOX_PARALLELISM),
+                config.getInteger(Keys.FORWARD_RETRY_DELAY),
+                config.getInteger(Keys.FORWARD_OUTBOX_MAX_ATTEMPTS),
+                config.getLong(Keys.FORWARD_OUTBOX_SYNC_INTERVAL),
+                timer, objectMapper, type, sender);
+    }
+
     @Singleton
     @Provides
-    public static PositionForwarder providePositionForwarder(Config config, Client client, ObjectMapper objectMapper) {
+    public static PositionForwarder providePositionForwarder(
+            Config config, Client client, ObjectMapper objectMapper, Timer timer) throws IOException {
         if (config.hasKey(Keys.FORWARD_URL)) {
-            return switch (config.getString(Keys.FORWARD_TYPE)) {
+            PositionForwarder positionForwarder = switch (config.getString(Keys.FORWARD_TYPE)) {
                 case "json" -> new PositionForwarderJson(config, client, objectMapper);
                 case "amqp" -> new PositionForwarderAmqp(config, objectMapper);
                 case "kafka" -> new PositionForwarderKafka(config, objectMapper);
                 case "mqtt" -> new PositionForwarderMqtt(config, objectMapper);
                 case "redis" -> new PositionForwarderRedis(config, objectMapper);
-                default -> new PositionForwarderUrl(config, client, objectMapper);
+                default -> new PositionForwarderUrl(config, client, objectMapper, timer);
             };
+            if (config.hasKey(Keys.FORWARD_OUTBOX_PATH)) {
+                ForwardingOutbox<PositionData> outbox = createOutbox(
+                        config, timer, objectMapper, "positions", PositionData.class, positionForwarder::forward);
+                return outbox::forward;
+            }
+            return positionForwarder;
         }
         return null;
     }
@@ -372,6 +421,11 @@ public class MainModule extends AbstractModule {
     public static VelocityEngine provideVelocityEngine(Config config) {
         Properties properties = new Properties();
         properties.setProperty("resource.loader.file.path", config.getString(Keys.TEMPLATES_ROOT) + "/");
+        int checkInterval = config.getInteger(Keys.TEMPLATES_CHECK_INTERVAL);
+        if (checkInterval > 0) {
+            properties.setProperty("resource.loader.file.cache", "true");
+            properties.setProperty("resource.loader.file.modification_check_interval", String.valueOf(checkInterval));
+        }
         properties.setProperty("web.url", WebHelper.retrieveWebUrl(config));
 
         VelocityEngine velocityEngine = new VelocityEngine();
@@ -19,11 +19,15 @@ import com.google.inject.Injector;
 import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.util.Timer;
 import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
 import org.traccar.config.Config;
+import org.traccar.config.ConfigKey;
+import org.traccar.config.Keys;
 import org.traccar.database.BufferingManager;
 import org.traccar.database.NotificationManager;
+import org.traccar.database.ProcessingStatisticsManager;
 import org.traccar.handler.BasePositionHandler;
 import org.traccar.handler.ComputedAttributesHandler;
 import org.traccar.handler.CopyAttributesHandler;
@@ -34,9 +38,11 @@ import org.traccar.handler.FilterHandler;
 import org.traccar.handler.GeocoderHandler;
 import org.traccar.handler.GeofenceHandler;
 import org.traccar.handler.GeolocationHandler;
+import org.traccar.handler.GuardedPositionHandler;
 import org.traccar.handler.HemisphereHandler;
 import org.traccar.handler.MotionHandler;
 import org.traccar.handler.OutdatedHandler;
+import org.traccar.handler.ParallelPositionHandler;
 import org.traccar.handler.PositionForwardingHandler;
 import org.traccar.handler.PostProcessHandler;
 import org.traccar.handler.SpeedLimitHandler;
@@ -54,15 +60,22 @@ import org.traccar.handler.events.MediaEventHandler;
 import org.traccar.handler.events.MotionEventHandler;
 import org.traccar.handler.events.OverspeedEventHandler;
 import org.traccar.handler.network.AcknowledgementHandler;
+import org.traccar.helper.CircuitBreaker;
 import org.traccar.helper.PositionLogger;
+import org.traccar.model.Event;
 import org.traccar.model.Position;
 
 import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -71,11 +84,13 @@ import java.util.stream.Stream;
 public class ProcessingHandler extends ChannelInboundHandlerAdapter implements BufferingManager.Callback {
 
     private final NotificationManager notificationManager;
+    private final ProcessingStatisticsManager processingStatisticsManager;
     private final PositionLogger positionLogger;
     private final BufferingManager bufferingManager;
     private final List<BasePositionHandler> positionHandlers;
     private final List<BaseEventHandler> eventHandlers;
     private final PostProcessHandler postProcessHandler;
+    private final Map<Object, String> stageNames = new IdentityHashMap<>();
 
     private final Map<Long, Queue<Position>> queues = new HashMap<>();
 
@@ -85,12 +100,14 @@ public class ProcessingHandler extends ChannelInboundHandlerAdapter implements B
 
     @Inject
     public ProcessingHandler(
-            Injector injector, Config config, NotificationManager notificationManager, PositionLogger positionLogger) {
+            Injector injector, Config config, NotificationManager notificationManager, PositionLogger positionLogger,
+            ProcessingStatisticsManager processingStatisticsManager) {
         this.notificationManager = notificationManager;
+        this.processingStatisticsManager = processingStatisticsManager;
         this.positionLogger = positionLogger;
         bufferingManager = new BufferingManager(config, this);
 
-        positionHandlers = Stream.of(
+        List<BasePositionHandler> handlers = Stream.of(
                 OutdatedHandler.class,
                 TimeHandler.class,
                 GeolocationHandler.class,
@@ -108,7 +125,13 @@ public class ProcessingHandler extends ChannelInboundHandlerAdapter implements B
                 DatabaseHandler.class)
                 .map((clazz) -> (BasePositionHandler) injector.getInstance(clazz))
                 .filter(Objects::nonNull)
+                .map((handler) -> guardHandler(injector, config, processingStatisticsManager, handler))
                 .collect(Collectors.toUnmodifiableList());
+        if (config.getBoolean(Keys.PROCESSING_PARALLEL_HANDLERS)) {
+            positionHandlers = List.copyOf(ParallelPositionHandler.group(handlers));
+        } else {
+            positionHandlers = handlers;
+        }
 
         eventHandlers = Stream.of(
                 MediaEventHandler.class,
@@ -127,6 +150,47 @@ public class ProcessingHandler extends ChannelInboundHandlerAdapter implements B
                 .collect(Collectors.toUnmodifiableList());
 
         postProcessHandler = injector.getInstance(PostProcessHandler.class);
+
+        positionHandlers.forEach(handler -> stageNames.put(handler, getStageName(handler)));
+        eventHandlers.forEach(handler -> stageNames.put(handler, handler.getClass().getSimpleName()));
+        stageNames.put(postProcessHandler, postProcessHandler.getClass().getSimpleName());
+    }
+
+    private static String getStageName(BasePositionHandler handler) {
+        if (handler instanceof GuardedPositionHandler guardedHandler) {
+            return getStageName(guardedHandler.getHandler());
+        } else if (handler instanceof ParallelPositionHandler parallelHandler) {
+            return parallelHandler.getHandlers().stream()
+                    .map(ProcessingHandler::getStageName)
+                    .collect(Collectors.joining("+"));
+        } else {
+            return handler.getClass().getSimpleName();
+        }
+    }
+
+    private static BasePositionHandler guardHandler(
+            Injector injector, Config config, ProcessingStatisticsManager processingStatisticsManager,
+            BasePositionHandler handler) {
+        ConfigKey<Long> timeoutKey;
+        if (handler instanceof GeocoderHandler) {
+            timeoutKey = Keys.GEOCODER_TIMEOUT;
+        } else if (handler instanceof GeolocationHandler) {
+            timeoutKey = Keys.GEOLOCATION_TIMEOUT;
+        } else if (handler instanceof SpeedLimitHandler) {
+            timeoutKey = Keys.SPEED_LIMIT_TIMEOUT;
+        } else {
+            return handler;
+        }
+        if (!config.hasKey(timeoutKey)) {
+            return handler;
+        }
+        CircuitBreaker circuitBreaker = new CircuitBreaker(
+                config.getInteger(Keys.PROCESSING_BREAKER_FAILURES),
+                TimeUnit.SECONDS.toMillis(config.getLong(Keys.PROCESSING_BREAKER_DURATION)));
+        GuardedPositionHandler guardedHandler = new GuardedPositionHandler(
+                handler, injector.getInstance(Timer.class), config.getLong(timeoutKey), circuitBreaker);
+        processingStatisticsManager.registerGuardedHandler(handler.getClass().getSimpleName(), guardedHandler);
+        return guardedHandler;
     }
 
     @Override
@@ -151,38 +215,84 @@ public class ProcessingHandler extends ChannelInboundHandlerAdapter implements B
         }
     }
 
-    private void processPositionHandlers(ChannelHandlerContext ctx, Position position) {
-        var iterator = positionHandlers.iterator();
-        iterator.next().handlePosition(position, new BasePositionHandler.Callback() {
-            @Override
-            public void processed(boolean filtered) {
-                if (!filtered) {
-                    if (iterator.hasNext()) {
-                        iterator.next().handlePosition(position, this);
-                    } else {
-                        processEventHandlers(ctx, position);
-                    }
+    private final class PositionProcessing implements BasePositionHandler.Callback {
+
+        private final ChannelHandlerContext ctx;
+        private final Position position;
+        private final Map<String, Long> trace = processingStatisticsManager.createTrace();
+        private final Iterator<BasePositionHandler> iterator = positionHandlers.iterator();
+
+        private String stage;
+        private long startTime;
+
+        private PositionProcessing(ChannelHandlerContext ctx, Position position) {
+            this.ctx = ctx;
+            this.position = position;
+        }
+
+        private void processNext() {
+            BasePositionHandler handler = iterator.next();
+            stage = stageNames.get(handler);
+            startTime = System.nanoTime();
+            handler.handlePosition(position, this);
+        }
+
+        @Override
+        public void processed(boolean filtered) {
+            processingStatisticsManager.registerStage(stage, position, System.nanoTime() - startTime, trace);
+            if (!filtered) {
+                if (iterator.hasNext()) {
+                    processNext();
                 } else {
-                    finishedProcessing(ctx, position, true);
+                    processEventHandlers(ctx, position, trace);
                 }
+            } else {
+                finishedProcessing(ctx, position, true, trace);
             }
-        });
+        }
+
+        @Override
+        public Executor executor() {
+            return ctx.executor();
+        }
+
     }
 
-    private void processEventHandlers(ChannelHandlerContext ctx, Position position) {
-        eventHandlers.forEach(handler -> handler.analyzePosition(
-                position, (event) -> notificationManager.updateEvents(Map.of(event, position))));
-        finishedProcessing(ctx, position, false);
+    private void processPositionHandlers(ChannelHandlerContext ctx, Position position) {
+        new PositionProcessing(ctx, position).processNext();
+    }
+
+    private void processEventHandlers(ChannelHandlerContext ctx, Position position, Map<String, Long> trace) {
+        Map<Event, Position> events = new LinkedHashMap<>();
+        eventHandlers.forEach(handler -> {
+            long startTime = System.nanoTime();
+            handler.analyzePosition(position, (event) -> events.put(event, position));
+            processingStatisticsManager.registerStage(
+                    stageNames.get(handler), position, System.nanoTime() - startTime, trace);
+        });
+        if (!events.isEmpty()) {
+            long startTime = System.nanoTime();
+            notificationManager.updateEvents(events);
+            processingStatisticsManager.registerStage(
+                    "NotificationManager", position, System.nanoTime() - startTime, trace);
+        }
+        finishedProcessing(ctx, position, false, trace);
     }
 
-    private void finishedProcessing(ChannelHandlerContext ctx, Position position, boolean filtered) {
+    private void finishedProcessing(
+            ChannelHandlerContext ctx, Position position, boolean filtered, Map<String, Long> trace) {
         if (!filtered) {
+            long startTime = System.nanoTime();
             postProcessHandler.handlePosition(position, ignore -> {
+                processingStatisticsManager.registerStage(
+                        stageNames.get(postProcessHandler), position, System.nanoTime() - startTime, trace);
+                processingStatisticsManager.logTrace(position, trace);
                 positionLogger.log(ctx, position);
                 ctx.writeAndFlush(new AcknowledgementHandler.EventHandled(position));
                 processNextPosition(ctx, position.getDeviceId());
             });
         } else {
+            processingStatisticsManager.logTrace(position, trace);
             ctx.writeAndFlush(new AcknowledgementHandler.EventHandled(position));
             processNextPosition(ctx, position.getDeviceId());
         }
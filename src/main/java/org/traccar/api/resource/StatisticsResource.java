@@ -1,5 +1,5 @@
 /*
- * Copyright 2016 - 2022 Anton Tananaev (anton@traccar.org)
+ * Copyright 2016 - 2024 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -15,7 +15,10 @@
  */
 package org.traccar.api.resource;
 
+import jakarta.inject.Inject;
 import org.traccar.api.BaseResource;
+import org.traccar.database.ProcessingStatisticsManager;
+import org.traccar.notification.NotificationDispatcher;
 import org.traccar.model.Statistics;
 import org.traccar.storage.StorageException;
 import org.traccar.storage.query.Columns;
@@ -28,6 +31,7 @@ import jakarta.ws.rs.GET;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.Produces;
 import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.WebApplicationException;
 import jakarta.ws.rs.core.MediaType;
 import java.util.Collection;
 import java.util.Date;
@@ -37,6 +41,12 @@ import java.util.Date;
 @Consumes(MediaType.APPLICATION_JSON)
 public class StatisticsResource extends BaseResource {
 
+    @Inject
+    private ProcessingStatisticsManager processingStatisticsManager;
+
+    @Inject
+    private NotificationDispatcher notificationDispatcher;
+
     @GET
     public Collection<Statistics> get(
             @QueryParam("from") Date from, @QueryParam("to") Date to) throws StorageException {
@@ -47,4 +57,33 @@ public class StatisticsResource extends BaseResource {
                 new Order("captureTime")));
     }
 
+    private void checkAdmin() {
+        try {
+            permissionsService.checkAdmin(getUserId());
+        } catch (StorageException e) {
+            throw new WebApplicationException(e);
+        }
+    }
+
+    @Path("processing")
+    @GET
+    public Collection<ProcessingStatisticsManager.StageStatistics> getProcessing() {
+        checkAdmin();
+        return processingStatisticsManager.getStatistics();
+    }
+
+    @Path("processing/guards")
+    @GET
+    public Collection<ProcessingStatisticsManager.GuardStatistics> getProcessingGuards() {
+        checkAdmin();
+        return processingStatisticsManager.getGuardStatistics();
+    }
+
+    @Path("notifications")
+    @GET
+    public NotificationDispatcher.Statistics getNotifications() {
+        checkAdmin();
+        return notificationDispatcher.getStatistics();
+    }
+
 }
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2024 Anton Tananaev (anton@traccar.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.traccar.broadcast;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.traccar.helper.ProtobufConverter;
+import org.traccar.model.ObjectOperation;
+import org.traccar.protobuf.v1.TraccarMessages;
+
+import java.io.IOException;
+
+/**
+ * Wire format of broadcast messages. Protobuf keeps datagrams small, so larger objects fit into a single packet.
+ */
+public class BroadcastSerializer {
+
+    private final ObjectMapper objectMapper;
+    private final boolean binary;
+
+    public BroadcastSerializer(String type, ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        this.binary = "protobuf".equalsIgnoreCase(type);
+    }
+
+    public byte[] serialize(BroadcastMessage message) throws IOException {
+        if (!binary) {
+            return objectMapper.writeValueAsBytes(message);
+        }
+        var builder = TraccarMessages.BroadcastMessage.newBuilder();
+        if (message.getDevice() != null) {
+            builder.setDevice(ProtobufConverter.toProto(message.getDevice()));
+        } else if (message.getPosition() != null) {
+            builder.setPosition(ProtobufConverter.toProto(message.getPosition()));
+        } else if (message.getUserId() != null && message.getEvent() != null) {
+            builder.setUserEvent(TraccarMessages.BroadcastMessage.UserEvent.newBuilder()
+                    .setUserId(message.getUserId())
+                    .setEvent(ProtobufConverter.toProto(message.getEvent())));
+        } else if (message.getCommandDeviceId() != null) {
+            builder.setCommandDeviceId(message.getCommandDeviceId());
+        } else if (message.getInvalidateObject() != null) {
+            var invalidateObject = message.getInvalidateObject();
+            builder.setInvalidateObject(TraccarMessages.BroadcastMessage.InvalidateObject.newBuilder()
+                    .setClazz(invalidateObject.getClazz())
+                    .setId(invalidateObject.getId())
+                    .setOperation(invalidateObject.getOperation().name()));
+        } else if (message.getInvalidatePermission() != null) {
+            var invalidatePermission = message.getInvalidatePermission();
+            builder.setInvalidatePermission(TraccarMessages.BroadcastMessage.InvalidatePermission.newBuilder()
+                    .setClazz1(invalidatePermission.getClazz1())
+                    .setId1(invalidatePermission.getId1())
+                    .setClazz2(invalidatePermission.getClazz2())
+                    .setId2(invalidatePermission.getId2())
+                    .setLink(invalidatePermission.getLink()));
+        }
+        return builder.build().toByteArray();
+    }
+
+    public BroadcastMessage deserialize(byte[] data, int offset, int length) throws IOException {
+        if (!binary) {
+            return objectMapper.readValue(data, offset, length, BroadcastMessage.class);
+        }
+        var proto = TraccarMessages.BroadcastMessage.parser().parseFrom(data, offset, length);
+        BroadcastMessage message = new BroadcastMessage();
+        switch (proto.getMessageCase()) {
+            case DEVICE -> message.setDevice(ProtobufConverter.fromProto(proto.getDevice()));
+            case POSITION -> message.setPosition(ProtobufConverter.fromProto(proto.getPosition()));
+            case USER_EVENT -> {
+                message.setUserId(proto.getUserEvent().getUserId());
+                message.setEvent(ProtobufConverter.fromProto(proto.getUserEvent().getEvent()));
+            }
+            case COMMAND_DEVICE_ID -> message.setCommandDeviceId(proto.getCommandDeviceId());
+            case INVALIDATE_OBJECT -> {
+                var invalidateObject = new BroadcastMessage.InvalidateObject();
+                invalidateObject.setClazz(proto.getInvalidateObject().getClazz());
+                invalidateObject.setId(proto.getInvalidateObject().getId());
+                invalidateObject.setOperation(ObjectOperation.valueOf(proto.getInvalidateObject().getOperation()));
+                message.setInvalidateObject(invalidateObject);
+            }
+            case INVALIDATE_PERMISSION -> {
+                var invalidatePermission = new BroadcastMessage.InvalidatePermission();
+                invalidatePermission.setClazz1(proto.getInvalidatePermission().getClazz1());
+                invalidatePermission.setId1(proto.getInvalidatePermission().getId1());
+                invalidatePermission.setClazz2(proto.getInvalidatePermission().getClazz2());
+                invalidatePermission.setId2(proto.getInvalidatePermission().getId2());
+                invalidatePermission.setLink(proto.getInvalidatePermission().getLink());
+                message.setInvalidatePermission(invalidatePermission);
+            }
+            default -> throw new IOException("Empty broadcast message");
+        }
+        return message;
+    }
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2022 Anton Tananaev (anton@traccar.org)
+ * Copyright 2022 - 2024 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -28,7 +28,6 @@ import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.net.MulticastSocket;
 import java.net.NetworkInterface;
-import java.nio.charset.StandardCharsets;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
@@ -36,7 +35,7 @@ public class MulticastBroadcastService extends BaseBroadcastService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(MulticastBroadcastService.class);
 
-    private final ObjectMapper objectMapper;
+    private final BroadcastSerializer serializer;
 
     private final NetworkInterface networkInterface;
     private final int port;
@@ -48,7 +47,7 @@ public class MulticastBroadcastService extends BaseBroadcastService {
     private final byte[] receiverBuffer = new byte[4096];
 
     public MulticastBroadcastService(Config config, ObjectMapper objectMapper) throws IOException {
-        this.objectMapper = objectMapper;
+        serializer = new BroadcastSerializer(config.getString(Keys.BROADCAST_SERIALIZER), objectMapper);
         port = config.getInteger(Keys.BROADCAST_PORT);
         String interfaceName = config.getString(Keys.BROADCAST_INTERFACE);
         if (interfaceName.indexOf('.') >= 0 || interfaceName.indexOf(':') >= 0) {
@@ -68,7 +67,7 @@ public class MulticastBroadcastService extends BaseBroadcastService {
     @Override
     protected void sendMessage(BroadcastMessage message) {
         try {
-            byte[] buffer = objectMapper.writeValueAsString(message).getBytes(StandardCharsets.UTF_8);
+            byte[] buffer = serializer.serialize(message);
             DatagramPacket packet = new DatagramPacket(buffer, buffer.length, group);
             publisherSocket.send(packet);
         } catch (IOException e) {
@@ -97,8 +96,7 @@ public class MulticastBroadcastService extends BaseBroadcastService {
                     DatagramPacket packet = new DatagramPacket(receiverBuffer, receiverBuffer.length);
                     socket.receive(packet);
                     if (networkInterface.inetAddresses().noneMatch(a -> a.equals(packet.getAddress()))) {
-                        String data = new String(packet.getData(), 0, packet.getLength(), StandardCharsets.UTF_8);
-                        handleMessage(objectMapper.readValue(data, BroadcastMessage.class));
+                        handleMessage(serializer.deserialize(packet.getData(), 0, packet.getLength()));
                     }
                 }
                 publisherSocket = null;
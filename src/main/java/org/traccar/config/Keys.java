@@ -542,6 +542,23 @@ public final class Keys {
             "database.saveEmpty",
             List.of(KeyType.CONFIG));
 
+    /**
+     * Delay in milliseconds for collecting events from all devices into a single database batch. By default events
+     * are stored right away. When enabled, forwarding and notifications for an event happen after its batch is stored,
+     * and events still waiting for the batch are lost if the server stops.
+     */
+    public static final ConfigKey<Long> DATABASE_EVENT_BATCH_DELAY = new LongConfigKey(
+            "database.eventBatchDelay",
+            List.of(KeyType.CONFIG));
+
+    /**
+     * Maximum number of events in a single database batch. A batch is stored immediately when it reaches the size.
+     */
+    public static final ConfigKey<Integer> DATABASE_EVENT_BATCH_SIZE = new IntegerConfigKey(
+            "database.eventBatchSize",
+            List.of(KeyType.CONFIG),
+            100);
+
     /**
      * Device limit for self registered users. Default value is -1, which indicates no limit.
      */
@@ -888,6 +905,15 @@ public final class Keys {
             List.of(KeyType.CONFIG),
             "positions");
 
+    /**
+     * Position forwarding payload format for Kafka, AMQP, MQTT and Redis forwarders. Available options are "json" and
+     * "protobuf". Protobuf schema is in TraccarMessages.proto.
+     */
+    public static final ConfigKey<String> FORWARD_SERIALIZER = new StringConfigKey(
+            "forward.serializer",
+            List.of(KeyType.CONFIG),
+            "json");
+
     /**
      * URL to forward positions. Data is passed through URL parameters. For example, {uniqueId} for device identifier,
      * {latitude} and {longitude} for coordinates.
@@ -941,6 +967,177 @@ public final class Keys {
             List.of(KeyType.CONFIG),
             100);
 
+    /**
+     * Maximum number of positions sent in a single request by the URL forwarder. If set, positions are collected and
+     * posted to 'forward.url' as a JSON array instead of sending a separate request for each position. In this mode the
+     * URL can't contain placeholders. For the Redis forwarder it limits the number of commands in one pipeline and
+     * defaults to 100.
+     */
+    public static final ConfigKey<Integer> FORWARD_BATCH_SIZE = new IntegerConfigKey(
+            "forward.batch.size",
+            List.of(KeyType.CONFIG));
+
+    /**
+     * Maximum time in milliseconds positions wait in a batch before it's sent. Defaults to 1000 milliseconds.
+     */
+    public static final ConfigKey<Long> FORWARD_BATCH_INTERVAL = new LongConfigKey(
+            "forward.batch.interval",
+            List.of(KeyType.CONFIG),
+            1000L);
+
+    /**
+     * Time in milliseconds the Kafka producer waits to collect records into a batch. Used for both position and event
+     * forwarding. Defaults to 5 milliseconds.
+     */
+    public static final ConfigKey<Integer> FORWARD_KAFKA_LINGER = new IntegerConfigKey(
+            "forward.kafka.linger",
+            List.of(KeyType.CONFIG),
+            5);
+
+    /**
+     * Maximum Kafka producer batch size in bytes for each partition. Defaults to 65536 bytes.
+     */
+    public static final ConfigKey<Integer> FORWARD_KAFKA_BATCH_SIZE = new IntegerConfigKey(
+            "forward.kafka.batchSize",
+            List.of(KeyType.CONFIG),
+            65536);
+
+    /**
+     * Kafka producer compression type. Available options are "none", "gzip", "snappy", "lz4" and "zstd".
+     */
+    public static final ConfigKey<String> FORWARD_KAFKA_COMPRESSION = new StringConfigKey(
+            "forward.kafka.compression",
+            List.of(KeyType.CONFIG));
+
+    /**
+     * Enable idempotent Kafka producer, so retried records are not duplicated. Enabled by default.
+     */
+    public static final ConfigKey<Boolean> FORWARD_KAFKA_IDEMPOTENCE = new BooleanConfigKey(
+            "forward.kafka.idempotence",
+            List.of(KeyType.CONFIG),
+            true);
+
+    /**
+     * MQTT forwarding QoS level. Available options are 0, 1 and 2. Default value is 1.
+     */
+    public static final ConfigKey<Integer> FORWARD_MQTT_QOS = new IntegerConfigKey(
+            "forward.mqtt.qos",
+            List.of(KeyType.CONFIG),
+            1);
+
+    /**
+     * Maximum number of MQTT publishes sent to the broker and not yet acknowledged. Broker can lower the limit.
+     */
+    public static final ConfigKey<Integer> FORWARD_MQTT_INFLIGHT = new IntegerConfigKey(
+            "forward.mqtt.inflight",
+            List.of(KeyType.CONFIG),
+            1000);
+
+    /**
+     * Maximum number of MQTT forwarding messages queued or in flight. Messages over the limit fail immediately.
+     */
+    public static final ConfigKey<Integer> FORWARD_MQTT_QUEUE = new IntegerConfigKey(
+            "forward.mqtt.queue",
+            List.of(KeyType.CONFIG),
+            10000);
+
+    /**
+     * MQTT aggregation interval in milliseconds. If set, messages for the same topic are collected and published as
+     * one payload. JSON messages are combined into an array, protobuf messages are length delimited.
+     */
+    public static final ConfigKey<Long> FORWARD_MQTT_AGGREGATE = new LongConfigKey(
+            "forward.mqtt.aggregate",
+            List.of(KeyType.CONFIG));
+
+    /**
+     * Maximum size of an aggregated MQTT payload in bytes. Payload is published before the end of the aggregation
+     * interval once it reaches the limit. Single messages larger than the limit are published on their own. Default
+     * value is 128 KB, which is accepted by most brokers.
+     */
+    public static final ConfigKey<Integer> FORWARD_MQTT_AGGREGATE_SIZE = new IntegerConfigKey(
+            "forward.mqtt.aggregateSize",
+            List.of(KeyType.CONFIG),
+            128 * 1024);
+
+    /**
+     * Number of channels used by each AMQP forwarder to publish messages. Default value is 4.
+     */
+    public static final ConfigKey<Integer> FORWARD_AMQP_CHANNELS = new IntegerConfigKey(
+            "forward.amqp.channels",
+            List.of(KeyType.CONFIG),
+            4);
+
+    /**
+     * Time in milliseconds the Redis forwarder collects positions before writing them in a single pipeline.
+     */
+    public static final ConfigKey<Long> FORWARD_REDIS_DELAY = new LongConfigKey(
+            "forward.redis.delay",
+            List.of(KeyType.CONFIG),
+            5L);
+
+    /**
+     * Write positions to Redis streams using XADD instead of pushing them to lists.
+     */
+    public static final ConfigKey<Boolean> FORWARD_REDIS_STREAM = new BooleanConfigKey(
+            "forward.redis.stream",
+            List.of(KeyType.CONFIG));
+
+    /**
+     * Maximum number of positions kept for each device in Redis. Streams are trimmed approximately, lists exactly. No
+     * limit by default.
+     */
+    public static final ConfigKey<Long> FORWARD_REDIS_MAX_LENGTH = new LongConfigKey(
+            "forward.redis.maxLength",
+            List.of(KeyType.CONFIG));
+
+    /**
+     * Directory for forwarding outbox. If set, forwarded positions and events are first stored on disk and
+     * then delivered from there, so pending data survives restarts. Delivery is retried up to
+     * 'forward.outbox.maxAttempts' times.
+     */
+    public static final ConfigKey<String> FORWARD_OUTBOX_PATH = new StringConfigKey(
+            "forward.outbox.path",
+            List.of(KeyType.CONFIG));
+
+    /**
+     * Maximum disk space used by each forwarding outbox in megabytes. New data is rejected when the outbox is full.
+     * Defaults to 256 megabytes.
+     */
+    public static final ConfigKey<Long> FORWARD_OUTBOX_SIZE = new LongConfigKey(
+            "forward.outbox.size",
+            List.of(KeyType.CONFIG),
+            256L);
+
+    /**
+     * Maximum number of outbox requests in flight for each forwarder. Defaults to 1, which keeps the original order.
+     * Higher values improve throughput for slow destinations, but data can arrive out of order, and more of it is
+     * delivered again after a restart.
+     */
+    public static final ConfigKey<Integer> FORWARD_OUTBOX_PARALLELISM = new IntegerConfigKey(
+            "forward.outbox.parallelism",
+            List.of(KeyType.CONFIG),
+            1);
+
+    /**
+     * Maximum number of delivery attempts for a forwarding outbox record. Once reached, the record is logged, counted
+     * and skipped, so a record that is always rejected doesn't block the outbox. With the default retry delay 20
+     * attempts take about 10 minutes. Set to 0 to retry until delivery succeeds.
+     */
+    public static final ConfigKey<Integer> FORWARD_OUTBOX_MAX_ATTEMPTS = new IntegerConfigKey(
+            "forward.outbox.maxAttempts",
+            List.of(KeyType.CONFIG),
+            20);
+
+    /**
+     * Interval in milliseconds for flushing outbox data to disk. Defaults to 1000 milliseconds. Data written within the
+     * last interval can be lost on operating system crash or power loss. Setting it to 0 flushes each record before
+     * it's reported as stored, which is much slower.
+     */
+    public static final ConfigKey<Long> FORWARD_OUTBOX_SYNC_INTERVAL = new LongConfigKey(
+            "forward.outbox.syncInterval",
+            List.of(KeyType.CONFIG),
+            1000L);
+
     /**
      * Events forwarding format. Available options are "json" and "kafka". Default is "json".
      */
@@ -965,6 +1162,15 @@ public final class Keys {
             List.of(KeyType.CONFIG),
             "events");
 
+    /**
+     * Events forwarding payload format for Kafka, AMQP and MQTT forwarders. Available options are "json" and
+     * "protobuf".
+     */
+    public static final ConfigKey<String> EVENT_FORWARD_SERIALIZER = new StringConfigKey(
+            "event.forward.serializer",
+            List.of(KeyType.CONFIG),
+            "json");
+
     /**
      * Events forwarding URL.
      */
@@ -989,6 +1195,15 @@ public final class Keys {
             List.of(KeyType.CONFIG),
             "templates");
 
+    /**
+     * Interval in seconds for checking template files for changes. Parsed templates are cached between checks. Zero
+     * or negative value disables template caching. Default value is 60 seconds.
+     */
+    public static final ConfigKey<Integer> TEMPLATES_CHECK_INTERVAL = new IntegerConfigKey(
+            "templates.checkInterval",
+            List.of(KeyType.CONFIG),
+            60);
+
     /**
      * Log emails instead of sending them via SMTP. Intended for testing purposes only.
      */
@@ -1099,6 +1314,23 @@ public final class Keys {
             "mail.smtp.fromName",
             List.of(KeyType.CONFIG, KeyType.USER));
 
+    /**
+     * Maximum number of idle SMTP connections kept open for each set of SMTP settings. Reusing connections avoids TLS
+     * handshake and authentication for every email. Zero disables connection reuse. Default value is 4.
+     */
+    public static final ConfigKey<Integer> MAIL_SMTP_POOL_SIZE = new IntegerConfigKey(
+            "mail.smtp.poolSize",
+            List.of(KeyType.CONFIG),
+            4);
+
+    /**
+     * Time in seconds after which an idle SMTP connection is closed. Default value is 30 seconds.
+     */
+    public static final ConfigKey<Long> MAIL_SMTP_POOL_IDLE_TIMEOUT = new LongConfigKey(
+            "mail.smtp.poolIdleTimeout",
+            List.of(KeyType.CONFIG),
+            30L);
+
     /**
      * SMS API service full URL. Enables SMS commands and notifications.
      */
@@ -1183,6 +1415,74 @@ public final class Keys {
             List.of(KeyType.CONFIG),
             15 * 60 * 1000L);
 
+    /**
+     * Number of threads used to deliver notifications through external services. Messages are delivered on the
+     * processing thread if the value is zero. Default value is 4.
+     */
+    public static final ConfigKey<Integer> NOTIFICATOR_THREADS = new IntegerConfigKey(
+            "notificator.threads",
+            List.of(KeyType.CONFIG),
+            4);
+
+    /**
+     * Maximum number of concurrent deliveries for each notificator type. Default value is 2.
+     */
+    public static final ConfigKey<Integer> NOTIFICATOR_CONCURRENCY = new IntegerConfigKey(
+            "notificator.concurrency",
+            List.of(KeyType.CONFIG),
+            2);
+
+    /**
+     * Maximum number of notifications waiting for delivery for each notificator type. New notifications are dropped
+     * when the queue is full. Default value is 1000.
+     */
+    public static final ConfigKey<Integer> NOTIFICATOR_QUEUE_SIZE = new IntegerConfigKey(
+            "notificator.queueSize",
+            List.of(KeyType.CONFIG),
+            1000);
+
+    /**
+     * Number of delivery retries for failed notifications. Retries are disabled by default, because most channels
+     * (mail, SMS, push) can't tell whether a failed request was actually delivered, so a retry can send a duplicate.
+     */
+    public static final ConfigKey<Integer> NOTIFICATOR_RETRIES = new IntegerConfigKey(
+            "notificator.retries",
+            List.of(KeyType.CONFIG),
+            0);
+
+    /**
+     * Delay in milliseconds before the first notification retry. Delay doubles with each subsequent retry. Default
+     * value is 5 seconds.
+     */
+    public static final ConfigKey<Long> NOTIFICATOR_RETRY_DELAY = new LongConfigKey(
+            "notificator.retryDelay",
+            List.of(KeyType.CONFIG),
+            5000L);
+
+    /**
+     * Maximum number of notifications per minute for each user and notificator type. Notifications above the limit
+     * are suppressed or collected into a digest. Limit is disabled by default.
+     */
+    public static final ConfigKey<Double> NOTIFICATOR_RATE_LIMIT = new DoubleConfigKey(
+            "notificator.rateLimit",
+            List.of(KeyType.CONFIG));
+
+    /**
+     * Maximum number of notifications each user can receive through a notificator type in a burst. Default value is 5.
+     */
+    public static final ConfigKey<Integer> NOTIFICATOR_RATE_BURST = new IntegerConfigKey(
+            "notificator.rateBurst",
+            List.of(KeyType.CONFIG),
+            5);
+
+    /**
+     * Digest window in seconds. If set, notifications above the rate limit are collected over the window and delivered
+     * as a single summary message. Otherwise they are suppressed.
+     */
+    public static final ConfigKey<Long> NOTIFICATOR_DIGEST_WINDOW = new LongConfigKey(
+            "notificator.digestWindow",
+            List.of(KeyType.CONFIG));
+
     /**
      * Traccar notification API key.
      */
@@ -1197,6 +1497,15 @@ public final class Keys {
             "notificator.firebase.serviceAccount",
             List.of(KeyType.CONFIG));
 
+    /**
+     * Time in milliseconds to collect Firebase tokens of different users for the same message before sending them
+     * in a single multicast request. Messages are sent immediately if the value is zero. Default value is 100.
+     */
+    public static final ConfigKey<Long> NOTIFICATOR_FIREBASE_BATCH_DELAY = new LongConfigKey(
+            "notificator.firebase.batchDelay",
+            List.of(KeyType.CONFIG),
+            100L);
+
     /**
      * Pushover notification user name.
      */
@@ -1459,6 +1768,15 @@ public final class Keys {
             "filter.relative",
             List.of(KeyType.CONFIG));
 
+    /**
+     * Number of recently stored positions kept in memory for each device when relative filtering is enabled. Preceding
+     * positions within this window are found without querying the database. Default value is 20.
+     */
+    public static final ConfigKey<Integer> FILTER_RELATIVE_BUFFER_SIZE = new IntegerConfigKey(
+            "filter.relativeBufferSize",
+            List.of(KeyType.CONFIG),
+            20);
+
     /**
      * Time limit for the filtering in seconds. If the time difference between the last position was received by server
      * and a new position is received by server is more than this limit, the new position will not be filtered out.
@@ -1532,6 +1850,40 @@ public final class Keys {
             "coordinates.maxError",
             List.of(KeyType.CONFIG));
 
+    /**
+     * Start independent position handlers, like geofence matching, reverse geocoding and speed limit lookup, at the
+     * same time instead of one after another. Processing of the next handler waits until all of them are finished, so
+     * per-device ordering is preserved. Disabled by default.
+     */
+    public static final ConfigKey<Boolean> PROCESSING_PARALLEL_HANDLERS = new BooleanConfigKey(
+            "processing.parallelHandlers",
+            List.of(KeyType.CONFIG));
+
+    /**
+     * Number of consecutive failures or timeouts of a guarded handler (geocoder, geolocation or speed limit) that opens
+     * its circuit breaker. While the breaker is open the handler is skipped. Default value is 5.
+     */
+    public static final ConfigKey<Integer> PROCESSING_BREAKER_FAILURES = new IntegerConfigKey(
+            "processing.breaker.failures",
+            List.of(KeyType.CONFIG),
+            5);
+
+    /**
+     * Time in seconds the circuit breaker stays open before a probe request is allowed. Default value is 60 seconds.
+     */
+    public static final ConfigKey<Long> PROCESSING_BREAKER_DURATION = new LongConfigKey(
+            "processing.breaker.duration",
+            List.of(KeyType.CONFIG),
+            60L);
+
+    /**
+     * Fraction of positions, from 0 to 1, for which durations of all processing stages are logged. Latency
+     * statistics of each stage are collected for all positions regardless of this value. Disabled by default.
+     */
+    public static final ConfigKey<Double> PROCESSING_TRACE_RATE = new DoubleConfigKey(
+            "processing.traceRate",
+            List.of(KeyType.CONFIG));
+
     /**
      * Enable to save device IP addresses information. Disabled by default.
      */
@@ -1614,6 +1966,24 @@ public final class Keys {
             "geocoder.url",
             List.of(KeyType.CONFIG));
 
+    /**
+     * Path to the dataset file for the local geocoder. The file can be generated from GeoNames or OpenStreetMap data
+     * using tools/geocoder-import.py script.
+     */
+    public static final ConfigKey<String> GEOCODER_FILE = new StringConfigKey(
+            "geocoder.file",
+            List.of(KeyType.CONFIG));
+
+    /**
+     * Maximum distance in meters from a position to the nearest place for the local geocoder. If the nearest place is
+     * further away, for example in the middle of an ocean, no address is returned. Zero disables the limit. Default
+     * value is 50 km.
+     */
+    public static final ConfigKey<Double> GEOCODER_MAX_DISTANCE = new DoubleConfigKey(
+            "geocoder.maxDistance",
+            List.of(KeyType.CONFIG),
+            50000.0);
+
     /**
      * Provider API key. Most providers require API keys.
      */
@@ -1643,6 +2013,46 @@ public final class Keys {
             "geocoder.cacheSize",
             List.of(KeyType.CONFIG));
 
+    /**
+     * Number of decimal places used to group concurrent geocoding requests. Requests for coordinates that are equal
+     * after rounding share a single provider call. For example, value 4 merges requests within roughly 10 meters.
+     */
+    public static final ConfigKey<Integer> GEOCODER_COALESCE_PRECISION = new IntegerConfigKey(
+            "geocoder.coalescePrecision",
+            List.of(KeyType.CONFIG));
+
+    /**
+     * Maximum number of geocoding provider requests per second. Requests above the limit are queued.
+     */
+    public static final ConfigKey<Double> GEOCODER_RATE_LIMIT = new DoubleConfigKey(
+            "geocoder.rateLimit",
+            List.of(KeyType.CONFIG));
+
+    /**
+     * Maximum number of geocoding requests that can be sent in a burst. Default value is 1.
+     */
+    public static final ConfigKey<Integer> GEOCODER_RATE_BURST = new IntegerConfigKey(
+            "geocoder.rateBurst",
+            List.of(KeyType.CONFIG),
+            1);
+
+    /**
+     * Maximum number of geocoding requests waiting for the rate limit. When the queue is full, positions are
+     * processed without an address.
+     */
+    public static final ConfigKey<Integer> GEOCODER_QUEUE_SIZE = new IntegerConfigKey(
+            "geocoder.queueSize",
+            List.of(KeyType.CONFIG),
+            1000);
+
+    /**
+     * Maximum time in milliseconds to wait for a geocoder response. After that position processing continues without
+     * an address. By default there is no limit.
+     */
+    public static final ConfigKey<Long> GEOCODER_TIMEOUT = new LongConfigKey(
+            "geocoder.timeout",
+            List.of(KeyType.CONFIG));
+
     /**
      * Disable automatic reverse geocoding requests for all positions.
      */
@@ -1727,6 +2137,47 @@ public final class Keys {
             "geolocation.requireWifi",
             List.of(KeyType.CONFIG));
 
+    /**
+     * Number of geolocation results to keep in the server-wide cache. Results are shared between all devices and
+     * looked up by the strongest cell towers and Wi-Fi access points. By default caching is disabled.
+     */
+    public static final ConfigKey<Integer> GEOLOCATION_CACHE_SIZE = new IntegerConfigKey(
+            "geolocation.cacheSize",
+            List.of(KeyType.CONFIG));
+
+    /**
+     * Geolocation cache entry expiration time in seconds. Default value is one day.
+     */
+    public static final ConfigKey<Long> GEOLOCATION_CACHE_TIMEOUT = new LongConfigKey(
+            "geolocation.cacheTimeout",
+            List.of(KeyType.CONFIG),
+            86400L);
+
+    /**
+     * Number of the strongest cell towers and Wi-Fi access points used to match cached geolocation results. Default
+     * value is 3.
+     */
+    public static final ConfigKey<Integer> GEOLOCATION_FINGERPRINT_SIZE = new IntegerConfigKey(
+            "geolocation.fingerprintSize",
+            List.of(KeyType.CONFIG),
+            3);
+
+    /**
+     * Learn cell tower and Wi-Fi access point locations from valid GPS positions that include network information.
+     * Learned locations are used before sending requests to the geolocation provider. Requires cache to be enabled.
+     */
+    public static final ConfigKey<Boolean> GEOLOCATION_LEARN = new BooleanConfigKey(
+            "geolocation.learn",
+            List.of(KeyType.CONFIG));
+
+    /**
+     * Maximum time in milliseconds to wait for a geolocation response. After that position processing continues
+     * without a location. By default there is no limit.
+     */
+    public static final ConfigKey<Long> GEOLOCATION_TIMEOUT = new LongConfigKey(
+            "geolocation.timeout",
+            List.of(KeyType.CONFIG));
+
     /**
      * Default MCC value to use if device doesn't report MCC.
      */
@@ -1749,7 +2200,7 @@ public final class Keys {
             List.of(KeyType.CONFIG));
 
     /**
-     * Provider to use for speed limit. Available options: overpass. By default overpass is used.
+     * Provider to use for speed limit. Available options: overpass, local. By default overpass is used.
      */
     public static final ConfigKey<String> SPEED_LIMIT_TYPE = new StringConfigKey(
             "speedLimit.type",
@@ -1770,6 +2221,38 @@ public final class Keys {
             List.of(KeyType.CONFIG),
             100);
 
+    /**
+     * Number of map tiles with road geometry to keep in memory for the overpass provider. When enabled, roads for the
+     * whole tile are requested once and following positions are matched locally. By default caching is disabled.
+     */
+    public static final ConfigKey<Integer> SPEED_LIMIT_CACHE_SIZE = new IntegerConfigKey(
+            "speedLimit.cacheSize",
+            List.of(KeyType.CONFIG));
+
+    /**
+     * Size of the cached speed limit tile in degrees. Default value is 0.01.
+     */
+    public static final ConfigKey<Double> SPEED_LIMIT_TILE_SIZE = new DoubleConfigKey(
+            "speedLimit.tileSize",
+            List.of(KeyType.CONFIG),
+            0.01);
+
+    /**
+     * Path to the road dataset for the local speed limit provider. The file can be generated from OpenStreetMap data
+     * using tools/speedlimit-import.py script.
+     */
+    public static final ConfigKey<String> SPEED_LIMIT_FILE = new StringConfigKey(
+            "speedLimit.file",
+            List.of(KeyType.CONFIG));
+
+    /**
+     * Maximum time in milliseconds to wait for a speed limit response. After that position processing continues
+     * without a speed limit. By default there is no limit.
+     */
+    public static final ConfigKey<Long> SPEED_LIMIT_TIMEOUT = new LongConfigKey(
+            "speedLimit.timeout",
+            List.of(KeyType.CONFIG));
+
     /**
      * Override latitude sign / hemisphere. Useful in cases where value is incorrect because of device bug. Value can be
      * N for North or S for South.
@@ -1944,6 +2427,15 @@ public final class Keys {
             "broadcast.type",
             List.of(KeyType.CONFIG));
 
+    /**
+     * Multicast broadcast message format. Available options are "json" and "protobuf". All servers in the cluster
+     * must use the same format.
+     */
+    public static final ConfigKey<String> BROADCAST_SERIALIZER = new StringConfigKey(
+            "broadcast.serializer",
+            List.of(KeyType.CONFIG),
+            "json");
+
     /**
      * Multicast interface. It can be either an IP address or an interface name.
      */
@@ -1,5 +1,5 @@
 /*
- * Copyright 2016 - 2022 Anton Tananaev (anton@traccar.org)
+ * Copyright 2016 - 2024 Anton Tananaev (anton@traccar.org)
  * Copyright 2016 - 2018 Andrey Kunitsyn (andrey@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
@@ -24,13 +24,13 @@ import org.traccar.forward.EventData;
 import org.traccar.forward.EventForwarder;
 import org.traccar.geocoder.Geocoder;
 import org.traccar.helper.DateUtil;
-import org.traccar.model.Calendar;
 import org.traccar.model.Device;
 import org.traccar.model.Event;
 import org.traccar.model.Geofence;
 import org.traccar.model.Maintenance;
 import org.traccar.model.Position;
 import org.traccar.notification.MessageException;
+import org.traccar.notification.NotificationDispatcher;
 import org.traccar.notification.NotificatorManager;
 import org.traccar.session.cache.CacheManager;
 import org.traccar.storage.Storage;
@@ -41,12 +41,15 @@ import org.traccar.storage.query.Request;
 import jakarta.annotation.Nullable;
 import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
-import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 @Singleton
 public class NotificationManager {
@@ -57,23 +60,39 @@ public class NotificationManager {
     private final CacheManager cacheManager;
     private final EventForwarder eventForwarder;
     private final NotificatorManager notificatorManager;
+    private final NotificationDispatcher notificationDispatcher;
     private final Geocoder geocoder;
 
     private final boolean geocodeOnRequest;
     private final long timeThreshold;
     private final Set<Long> blockedUsers = new HashSet<>();
 
+    private final long batchDelay;
+    private final int batchSize;
+    private final ScheduledExecutorService executor;
+    private Map<Event, Position> batch = new LinkedHashMap<>();
+    private boolean scheduled;
+
     @Inject
     public NotificationManager(
             Config config, Storage storage, CacheManager cacheManager, @Nullable EventForwarder eventForwarder,
-            NotificatorManager notificatorManager, @Nullable Geocoder geocoder) {
+            NotificatorManager notificatorManager, NotificationDispatcher notificationDispatcher,
+            @Nullable Geocoder geocoder) {
         this.storage = storage;
         this.cacheManager = cacheManager;
         this.eventForwarder = eventForwarder;
         this.notificatorManager = notificatorManager;
+        this.notificationDispatcher = notificationDispatcher;
         this.geocoder = geocoder;
         geocodeOnRequest = config.getBoolean(Keys.GEOCODER_ON_REQUEST);
         timeThreshold = config.getLong(Keys.NOTIFICATOR_TIME_THRESHOLD);
+        batchDelay = config.getLong(Keys.DATABASE_EVENT_BATCH_DELAY);
+        batchSize = Math.max(1, config.getInteger(Keys.DATABASE_EVENT_BATCH_SIZE));
+        executor = batchDelay > 0 ? Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "event-batch");
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
         String blockedUsersString = config.getString(Keys.NOTIFICATION_BLOCK_USERS);
         if (blockedUsersString != null) {
             for (String userIdString : blockedUsersString.split(",")) {
@@ -82,13 +101,18 @@ public class NotificationManager {
         }
     }
 
-    private void updateEvent(Event event, Position position) {
+    private void saveEvents(List<Event> events) {
         try {
-            event.setId(storage.addObject(event, new Request(new Columns.Exclude("id"))));
+            List<Long> ids = storage.addObjects(events, new Request(new Columns.Exclude("id")));
+            for (int i = 0; i < events.size() && i < ids.size(); i++) {
+                events.get(i).setId(ids.get(i));
+            }
         } catch (StorageException error) {
             LOGGER.warn("Event save error", error);
         }
+    }
 
+    private void updateEvent(Event event, Position position) {
         forwardEvent(event, position);
 
         if (System.currentTimeMillis() - event.getEventTime().getTime() > timeThreshold) {
@@ -96,25 +120,13 @@ public class NotificationManager {
             return;
         }
 
-        var notifications = cacheManager.getDeviceNotifications(event.getDeviceId()).stream()
-                .filter(notification -> notification.getType().equals(event.getType()))
-                .filter(notification -> {
-                    if (event.getType().equals(Event.TYPE_ALARM)) {
-                        String alarmsAttribute = notification.getString("alarms");
-                        if (alarmsAttribute != null) {
-                            return Arrays.asList(alarmsAttribute.split(","))
-                                    .contains(event.getString(Position.KEY_ALARM));
-                        }
-                        return false;
-                    }
-                    return true;
-                })
-                .filter(notification -> {
-                    long calendarId = notification.getCalendarId();
-                    Calendar calendar = calendarId != 0 ? cacheManager.getObject(Calendar.class, calendarId) : null;
-                    return calendar == null || calendar.checkMoment(event.getEventTime());
-                })
-                .collect(Collectors.toUnmodifiableList());
+        String alarm = event.getString(Position.KEY_ALARM);
+        var notifications = cacheManager.getDeviceNotifications(event.getDeviceId(), event.getType()).stream()
+                .filter(notification -> notification.alarms() == null
+                        || alarm != null && notification.alarms().contains(alarm))
+                .filter(notification -> notification.calendar() == null
+                        || notification.calendar().checkMoment(event.getEventTime()))
+                .toList();
 
         Device device = cacheManager.getObject(Device.class, event.getDeviceId());
         LOGGER.info(
@@ -130,14 +142,16 @@ public class NotificationManager {
             }
 
             notifications.forEach(notification -> {
-                cacheManager.getNotificationUsers(notification.getId(), event.getDeviceId()).forEach(user -> {
+                notification.users().forEach(user -> {
                     if (blockedUsers.contains(user.getId())) {
                         LOGGER.info("User {} notification blocked", user.getId());
                         return;
                     }
-                    for (String notificator : notification.getNotificatorsTypes()) {
+                    for (String notificator : notification.notificators()) {
                         try {
-                            notificatorManager.getNotificator(notificator).send(notification, user, event, position);
+                            notificationDispatcher.send(
+                                    notificator, notificatorManager.getNotificator(notificator),
+                                    notification.notification(), user, event, position);
                         } catch (MessageException exception) {
                             LOGGER.warn("Notification failed", exception);
                         }
@@ -167,17 +181,61 @@ public class NotificationManager {
         }
     }
 
+    /**
+     * Store events and run forwarding and notifications for them. With a batch delay configured, events from all
+     * callers are collected and stored together on a background thread once the batch is full or the delay expires.
+     */
     public void updateEvents(Map<Event, Position> events) {
-        for (Entry<Event, Position> entry : events.entrySet()) {
-            Event event = entry.getKey();
-            Position position = entry.getValue();
+        if (executor == null) {
+            writeEvents(events);
+            return;
+        }
+        synchronized (this) {
+            batch.putAll(events);
+            if (batch.size() >= batchSize) {
+                Map<Event, Position> entries = batch;
+                batch = new LinkedHashMap<>();
+                executor.execute(() -> writeBatch(entries));
+            } else if (!scheduled) {
+                scheduled = true;
+                executor.schedule(this::flush, batchDelay, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    private void flush() {
+        Map<Event, Position> entries;
+        synchronized (this) {
+            scheduled = false;
+            entries = batch;
+            batch = new LinkedHashMap<>();
+        }
+        if (!entries.isEmpty()) {
+            writeBatch(entries);
+        }
+    }
+
+    private void writeBatch(Map<Event, Position> events) {
+        try {
+            writeEvents(events);
+        } catch (RuntimeException e) {
+            LOGGER.warn("Event batch processing error", e);
+        }
+    }
+
+    private void writeEvents(Map<Event, Position> events) {
+        List<Event> eventList = new ArrayList<>(events.keySet());
+        saveEvents(eventList);
+        for (Event event : eventList) {
             try {
-                cacheManager.addDevice(event.getDeviceId());
-                updateEvent(event, position);
+                if (!cacheManager.retainDevice(event.getDeviceId())) {
+                    cacheManager.addDevice(event.getDeviceId());
+                }
+                updateEvent(event, events.get(event));
             } catch (Exception e) {
-                throw new RuntimeException(e);
+                LOGGER.warn("Event {} processing error", event.getType(), e);
             } finally {
-                cacheManager.removeDevice(event.getDeviceId());
+                cacheManager.releaseDevice(event.getDeviceId());
             }
         }
     }
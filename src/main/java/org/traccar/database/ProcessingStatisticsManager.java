@@ -0,0 +1,128 @@
+/*
+ * Copyright 2024 Anton Tananaev (anton@traccar.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.traccar.database;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.traccar.config.Config;
+import org.traccar.config.Keys;
+import org.traccar.helper.GuardMetrics;
+import org.traccar.helper.LatencyHistogram;
+import org.traccar.model.Position;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects latency of each processing stage per protocol and optionally logs a trace of stage durations for a
+ * sample of positions. Also reports timeouts and circuit breaker state of the guarded handlers.
+ */
+@Singleton
+public class ProcessingStatisticsManager {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ProcessingStatisticsManager.class);
+
+    public record StageStatistics(
+            String stage, String protocol, long count, double mean, double p50, double p90, double p99, double max) {
+    }
+
+    public record GuardStatistics(
+            String handler, String state, long trips, long timeouts, long failures, long skipped) {
+    }
+
+    private final double traceRate;
+
+    private final Map<String, Map<String, LatencyHistogram>> histograms = new ConcurrentHashMap<>();
+    private final Map<String, GuardMetrics> guardedHandlers = new ConcurrentHashMap<>();
+
+    @Inject
+    public ProcessingStatisticsManager(Config config) {
+        traceRate = config.getDouble(Keys.PROCESSING_TRACE_RATE);
+    }
+
+    /**
+     * @return trace to be filled with stage durations or {@code null} if the position is not sampled
+     */
+    public Map<String, Long> createTrace() {
+        if (traceRate > 0 && ThreadLocalRandom.current().nextDouble() < traceRate) {
+            return new LinkedHashMap<>();
+        }
+        return null;
+    }
+
+    public void registerStage(String stage, Position position, long duration, Map<String, Long> trace) {
+        String protocol = position.getProtocol() != null ? position.getProtocol() : "unknown";
+        histograms.computeIfAbsent(stage, k -> new ConcurrentHashMap<>())
+                .computeIfAbsent(protocol, k -> new LatencyHistogram())
+                .record(TimeUnit.NANOSECONDS.toMicros(duration));
+        if (trace != null) {
+            synchronized (trace) {
+                trace.merge(stage, duration, Long::sum);
+            }
+        }
+    }
+
+    public void logTrace(Position position, Map<String, Long> trace) {
+        if (trace != null) {
+            StringBuilder builder = new StringBuilder();
+            builder.append("[").append(position.getDeviceId()).append("] trace");
+            synchronized (trace) {
+                trace.forEach((stage, duration) -> builder
+                        .append(", ").append(stage).append(": ")
+                        .append(String.format("%.3f", duration / 1e6)).append(" ms"));
+            }
+            LOGGER.info(builder.toString());
+        }
+    }
+
+    private static double toMillis(double micros) {
+        return micros / 1000;
+    }
+
+    public void registerGuardedHandler(String name, GuardMetrics handler) {
+        guardedHandlers.put(name, handler);
+    }
+
+    public Collection<GuardStatistics> getGuardStatistics() {
+        List<GuardStatistics> result = new ArrayList<>();
+        guardedHandlers.forEach((name, handler) -> result.add(new GuardStatistics(
+                name, handler.getCircuitBreaker().getState().name(), handler.getCircuitBreaker().getTrips(),
+                handler.getTimeouts(), handler.getFailures(), handler.getSkipped())));
+        result.sort(Comparator.comparing(GuardStatistics::handler));
+        return result;
+    }
+
+    public Collection<StageStatistics> getStatistics() {
+        List<StageStatistics> result = new ArrayList<>();
+        histograms.forEach((stage, protocols) -> protocols.forEach((protocol, histogram) -> result.add(
+                new StageStatistics(
+                        stage, protocol, histogram.getCount(), toMillis(histogram.getMean()),
+                        toMillis(histogram.getPercentile(50)), toMillis(histogram.getPercentile(90)),
+                        toMillis(histogram.getPercentile(99)), toMillis(histogram.getMax())))));
+        result.sort(Comparator.comparing(StageStatistics::stage).thenComparing(StageStatistics::protocol));
+        return result;
+    }
+
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2024 Anton Tananaev (anton@traccar.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.traccar.database;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import org.traccar.config.Config;
+import org.traccar.config.Keys;
+import org.traccar.model.Device;
+import org.traccar.model.Position;
+import org.traccar.session.cache.CacheManager;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps a small window of the most recent stored positions for each device ordered by fix time.
+ * <p>
+ * Window always contains every stored position with fix time not earlier than the oldest buffered one, so lookups of
+ * the preceding position can be answered without the database as long as requested time falls within the window.
+ * Buffers are kept only for cached devices and dropped when a device is removed from the cache.
+ */
+@Singleton
+public class RecentPositionManager {
+
+    private final CacheManager cacheManager;
+    private final boolean enabled;
+    private final int size;
+
+    private final Map<Long, List<Position>> buffers = new ConcurrentHashMap<>();
+
+    @Inject
+    public RecentPositionManager(Config config, CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+        enabled = config.getBoolean(Keys.FILTER_ENABLE) && config.getBoolean(Keys.FILTER_RELATIVE);
+        size = config.getInteger(Keys.FILTER_RELATIVE_BUFFER_SIZE);
+        if (enabled) {
+            cacheManager.addRemovalListener(buffers::remove);
+        }
+    }
+
+    private List<Position> createBuffer(long deviceId) {
+        if (cacheManager.getObject(Device.class, deviceId) == null) {
+            return null; // buffer would never be evicted
+        }
+        List<Position> buffer = new ArrayList<>(size + 1);
+        Position last = cacheManager.getPosition(deviceId);
+        if (last != null && last.getFixTime() != null) {
+            buffer.add(last);
+        }
+        return buffer;
+    }
+
+    public void addPosition(Position position) {
+        if (!enabled || position.getFixTime() == null) {
+            return;
+        }
+        List<Position> buffer = buffers.computeIfAbsent(position.getDeviceId(), this::createBuffer);
+        if (buffer == null) {
+            return;
+        }
+        synchronized (buffer) {
+            int index = buffer.size();
+            while (index > 0 && buffer.get(index - 1).getFixTime().after(position.getFixTime())) {
+                index -= 1;
+            }
+            if (index == 0 && !buffer.isEmpty()) {
+                return; // older than the window, nothing can be said about neighbours
+            }
+            buffer.add(index, position);
+            if (buffer.size() > size) {
+                buffer.remove(0);
+            }
+        }
+    }
+
+    /**
+     * Find the latest stored position with fix time not after the given time.
+     *
+     * @return position or {@code null} if the time is outside of the buffered window
+     */
+    public Position getPrecedingPosition(long deviceId, Date time) {
+        List<Position> buffer = buffers.get(deviceId);
+        if (buffer != null) {
+            synchronized (buffer) {
+                for (int i = buffer.size() - 1; i >= 0; i--) {
+                    Position position = buffer.get(i);
+                    if (!position.getFixTime().after(time)) {
+                        return position;
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2023 Anton Tananaev (anton@traccar.org)
+ * Copyright 2023 - 2024 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -15,24 +15,89 @@
  */
 package org.traccar.forward;
 
+import com.rabbitmq.client.AMQP;
 import com.rabbitmq.client.BuiltinExchangeType;
 import com.rabbitmq.client.Channel;
 import com.rabbitmq.client.Connection;
 import com.rabbitmq.client.ConnectionFactory;
 import com.rabbitmq.client.MessageProperties;
+import org.traccar.config.Config;
+import org.traccar.config.Keys;
 
 import java.io.IOException;
 import java.net.URISyntaxException;
 import java.security.KeyManagementException;
 import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.TimeoutException;
 
+/**
+ * AMQP publisher with a small pool of channels in confirm mode. Result is reported when the broker confirms the
+ * message. Broker can confirm several messages at once, in which case all of them are completed together.
+ * <p>
+ * Messages of a device always go through the same channel, so they keep their order.
+ */
 public class AmqpClient {
-    private final Channel channel;
+
+    private final class PooledChannel {
+
+        private final Channel channel;
+        private final ConcurrentNavigableMap<Long, ResultHandler> outstanding = new ConcurrentSkipListMap<>();
+
+        private PooledChannel(Channel channel) throws IOException {
+            this.channel = channel;
+            channel.confirmSelect();
+            channel.addConfirmListener(
+                    (deliveryTag, multiple) -> complete(deliveryTag, multiple, true),
+                    (deliveryTag, multiple) -> complete(deliveryTag, multiple, false));
+            channel.addShutdownListener(cause -> {
+                for (var iterator = outstanding.values().iterator(); iterator.hasNext();) {
+                    iterator.next().onResult(false, cause);
+                    iterator.remove();
+                }
+            });
+        }
+
+        private void complete(long deliveryTag, boolean multiple, boolean success) {
+            Throwable error = success ? null : new IOException("Message rejected by broker");
+            if (multiple) {
+                var confirmed = outstanding.headMap(deliveryTag, true);
+                for (var iterator = confirmed.values().iterator(); iterator.hasNext();) {
+                    iterator.next().onResult(success, error);
+                    iterator.remove();
+                }
+            } else {
+                ResultHandler resultHandler = outstanding.remove(deliveryTag);
+                if (resultHandler != null) {
+                    resultHandler.onResult(success, error);
+                }
+            }
+        }
+
+        private synchronized void publish(
+                AMQP.BasicProperties properties, byte[] message, ResultHandler resultHandler) {
+            long deliveryTag = channel.getNextPublishSeqNo();
+            outstanding.put(deliveryTag, resultHandler);
+            try {
+                channel.basicPublish(exchange, topic, properties, message);
+            } catch (IOException | RuntimeException e) {
+                if (outstanding.remove(deliveryTag) != null) {
+                    resultHandler.onResult(false, e);
+                }
+            }
+        }
+
+    }
+
     private final String exchange;
     private final String topic;
+    private final List<PooledChannel> channels = new ArrayList<>();
 
-    AmqpClient(String connectionUrl, String exchange, String topic) {
+    AmqpClient(Config config, String connectionUrl, String exchange, String topic) {
         this.exchange = exchange;
         this.topic = topic;
 
@@ -45,14 +110,37 @@ public class AmqpClient {
 
         try {
             Connection connection = factory.newConnection();
-            channel = connection.createChannel();
-            channel.exchangeDeclare(exchange, BuiltinExchangeType.TOPIC, true);
+            int size = Math.max(1, config.getInteger(Keys.FORWARD_AMQP_CHANNELS));
+            for (int i = 0; i < size; i++) {
+                Channel channel = connection.createChannel();
+                if (i == 0) {
+                    channel.exchangeDeclare(exchange, BuiltinExchangeType.TOPIC, true);
+                }
+                channels.add(new PooledChannel(channel));
+            }
         } catch (IOException | TimeoutException e) {
             throw new RuntimeException("Error while creating and configuring RabbitMQ channel", e);
         }
     }
 
-    public void publishMessage(String message) throws IOException {
-        channel.basicPublish(exchange, topic, MessageProperties.PERSISTENT_TEXT_PLAIN, message.getBytes());
+    AmqpClient(List<Channel> channels, String exchange, String topic) throws IOException {
+        this.exchange = exchange;
+        this.topic = topic;
+        for (Channel channel : channels) {
+            this.channels.add(new PooledChannel(channel));
+        }
+    }
+
+    public void publishMessage(long deviceId, byte[] message, String contentType, ResultHandler resultHandler) {
+        AMQP.BasicProperties properties = MessageProperties.PERSISTENT_BASIC.builder()
+                .contentType(contentType)
+                .build();
+        int index = Math.floorMod(deviceId, channels.size());
+        channels.get(index).publish(properties, message, resultHandler);
     }
+
+    int getOutstanding() {
+        return channels.stream().map(channel -> channel.outstanding).mapToInt(Map::size).sum();
+    }
+
 }
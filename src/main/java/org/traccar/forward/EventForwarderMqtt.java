@@ -1,5 +1,5 @@
 /*
- * Copyright 2022 - 2023 Anton Tananaev (anton@traccar.org)
+ * Copyright 2022 - 2024 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -24,21 +24,21 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 public class EventForwarderMqtt implements EventForwarder {
 
     private final MqttClient mqttClient;
-    private final ObjectMapper objectMapper;
+    private final ForwardSerializer serializer;
 
     private final String topic;
 
     public EventForwarderMqtt(Config config, ObjectMapper objectMapper) {
         this.topic = config.getString(Keys.EVENT_FORWARD_TOPIC);
-        mqttClient = new MqttClient(config.getString(Keys.EVENT_FORWARD_URL));
-        this.objectMapper = objectMapper;
+        this.serializer = new ForwardSerializer(config.getString(Keys.EVENT_FORWARD_SERIALIZER), objectMapper);
+        mqttClient = new MqttClient(config, config.getString(Keys.EVENT_FORWARD_URL), serializer.isBinary());
     }
 
     @Override
     public void forward(EventData eventData, ResultHandler resultHandler) {
         try {
-            String payload = objectMapper.writeValueAsString(eventData);
-            mqttClient.publish(topic, payload, (message, e) -> resultHandler.onResult(e == null, e));
+            byte[] payload = serializer.serialize(eventData);
+            mqttClient.publish(topic, payload, resultHandler);
         } catch (JsonProcessingException e) {
             resultHandler.onResult(false, e);
         }
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2024 Anton Tananaev (anton@traccar.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.traccar.forward;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.traccar.helper.ProtobufConverter;
+import org.traccar.model.Position;
+import org.traccar.protobuf.v1.TraccarMessages;
+
+/**
+ * Payload format for message broker forwarders. JSON is the default, protobuf is a compact binary alternative.
+ */
+public class ForwardSerializer {
+
+    public static final String CONTENT_TYPE_JSON = "application/json";
+    public static final String CONTENT_TYPE_PROTOBUF = "application/x-protobuf";
+
+    private final ObjectMapper objectMapper;
+    private final boolean binary;
+
+    public ForwardSerializer(String type, ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        this.binary = "protobuf".equalsIgnoreCase(type);
+    }
+
+    public boolean isBinary() {
+        return binary;
+    }
+
+    public String getContentType() {
+        return binary ? CONTENT_TYPE_PROTOBUF : CONTENT_TYPE_JSON;
+    }
+
+    public byte[] serialize(Position position) throws JsonProcessingException {
+        if (binary) {
+            return ProtobufConverter.toProto(position).toByteArray();
+        }
+        return objectMapper.writeValueAsBytes(position);
+    }
+
+    public byte[] serialize(PositionData positionData) throws JsonProcessingException {
+        if (binary) {
+            var builder = TraccarMessages.PositionData.newBuilder();
+            if (positionData.getPosition() != null) {
+                builder.setPosition(ProtobufConverter.toProto(positionData.getPosition()));
+            }
+            if (positionData.getDevice() != null) {
+                builder.setDevice(ProtobufConverter.toProto(positionData.getDevice()));
+            }
+            return builder.build().toByteArray();
+        }
+        return objectMapper.writeValueAsBytes(positionData);
+    }
+
+    public byte[] serialize(EventData eventData) throws JsonProcessingException {
+        if (binary) {
+            var builder = TraccarMessages.EventData.newBuilder();
+            if (eventData.getEvent() != null) {
+                builder.setEvent(ProtobufConverter.toProto(eventData.getEvent()));
+            }
+            if (eventData.getPosition() != null) {
+                builder.setPosition(ProtobufConverter.toProto(eventData.getPosition()));
+            }
+            if (eventData.getDevice() != null) {
+                builder.setDevice(ProtobufConverter.toProto(eventData.getDevice()));
+            }
+            if (eventData.getGeofence() != null) {
+                builder.setGeofence(ProtobufConverter.toProto(eventData.getGeofence()));
+            }
+            if (eventData.getMaintenance() != null) {
+                builder.setMaintenance(ProtobufConverter.toProto(eventData.getMaintenance()));
+            }
+            return builder.build().toByteArray();
+        }
+        return objectMapper.writeValueAsBytes(eventData);
+    }
+
+}
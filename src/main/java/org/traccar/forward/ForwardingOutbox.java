@@ -0,0 +1,381 @@
+/*
+ * Copyright 2024 Anton Tananaev (anton@traccar.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.traccar.forward;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import io.netty.util.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Disk-backed queue in front of a forwarder. Data is appended to a log of memory-mapped segment files and delivered
+ * from the log with a limited number of requests in flight. Acknowledged offset is stored next to the segments, so
+ * data that was not delivered is replayed after restart. Delivery is at least once.
+ * <p>
+ * Written data survives a process crash right away, because mapped pages belong to the operating system. To survive
+ * an operating system crash or power loss, pages have to be flushed to disk. Flushes are batched by the sync interval
+ * and done outside of the lock, so appends never wait for the disk, but data written within the last interval can be
+ * lost. With zero sync interval each record is flushed before it's reported as stored instead. Acknowledged offset is
+ * flushed the same way; losing it only causes some data to be delivered again.
+ * <p>
+ * Failed deliveries are retried with exponential backoff. A record that still fails after the maximum number of
+ * attempts is logged, counted as skipped and acknowledged, so it can't block the outbox, even across restarts.
+ * <p>
+ * Each record is a length followed by JSON data. Offsets are global positions in the log, so a segment with index
+ * {@code i} holds offsets starting at {@code i * segmentSize}. Segments are deleted once fully acknowledged.
+ */
+public class ForwardingOutbox<T> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ForwardingOutbox.class);
+
+    public static final int SEGMENT_SIZE = 4 * 1024 * 1024;
+
+    private static final long MAX_RETRY_DELAY = TimeUnit.MINUTES.toMillis(1);
+
+    public interface Sender<T> {
+        void send(T data, ResultHandler resultHandler);
+    }
+
+    private static final class Delivery<T> {
+
+        private final long offset;
+        private final T data;
+        private int retries;
+        private boolean done;
+
+        private Delivery(long offset, T data) {
+            this.offset = offset;
+            this.data = data;
+        }
+
+    }
+
+    private final Path directory;
+    private final int segmentSize;
+    private final int maxSegments;
+    private final int parallelism;
+    private final long retryDelay;
+    private final int maxAttempts;
+    private final long syncInterval;
+    private final Timer timer;
+    private final ObjectMapper objectMapper;
+    private final ObjectReader objectReader;
+    private final Sender<T> sender;
+
+    private final TreeMap<Long, MappedByteBuffer> segments = new TreeMap<>();
+    private final MappedByteBuffer ackBuffer;
+    private final TreeMap<Long, Delivery<T>> inFlight = new TreeMap<>();
+
+    private long ackOffset;
+    private long readOffset;
+    private long writeOffset;
+
+    private boolean delivering;
+    private boolean redeliver;
+    private boolean syncScheduled;
+
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+
+    public ForwardingOutbox(
+            Path directory, long maxSize, int parallelism, long retryDelay, int maxAttempts, long syncInterval,
+            Timer timer, ObjectMapper objectMapper, Class<T> type, Sender<T> sender) throws IOException {
+        this(
+                directory, SEGMENT_SIZE, maxSize, parallelism, retryDelay, maxAttempts, syncInterval,
+                timer, objectMapper, type, sender);
+    }
+
+    ForwardingOutbox(
+            Path directory, int segmentSize, long maxSize, int parallelism, long retryDelay, int maxAttempts,
+            long syncInterval, Timer timer, ObjectMapper objectMapper, Class<T> type, Sender<T> sender)
+            throws IOException {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.maxSegments = (int) Math.max(2, maxSize / segmentSize);
+        this.parallelism = Math.max(1, parallelism);
+        this.retryDelay = Math.max(1, retryDelay);
+        this.maxAttempts = maxAttempts;
+        this.syncInterval = syncInterval;
+        this.timer = timer;
+        this.objectMapper = objectMapper;
+        this.objectReader = objectMapper.readerFor(type).without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        this.sender = sender;
+
+        Files.createDirectories(directory);
+        ackBuffer = map(directory.resolve("ack"), Long.BYTES);
+        ackOffset = ackBuffer.getLong(0);
+        recover();
+        readOffset = ackOffset;
+        deliver();
+    }
+
+    private static MappedByteBuffer map(Path file, int size) throws IOException {
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file.toFile(), "rw")) {
+            if (randomAccessFile.length() < size) {
+                randomAccessFile.setLength(size);
+            }
+            return randomAccessFile.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+    }
+
+    private Path segmentPath(long index) {
+        return directory.resolve(String.format("%020d.log", index));
+    }
+
+    private void recover() throws IOException {
+        List<Long> indexes = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.endsWith(".log"))
+                    .forEach(name -> indexes.add(Long.parseLong(name.substring(0, name.length() - 4))));
+        }
+        indexes.sort(null);
+
+        long ackIndex = ackOffset / segmentSize;
+        for (long index : indexes) {
+            if (index < ackIndex) {
+                Files.delete(segmentPath(index));
+            } else {
+                segments.put(index, map(segmentPath(index), segmentSize));
+            }
+        }
+
+        if (segments.isEmpty()) {
+            long index = ackIndex + (ackOffset % segmentSize != 0 ? 1 : 0);
+            segments.put(index, map(segmentPath(index), segmentSize));
+            ackOffset = index * segmentSize;
+            writeOffset = ackOffset;
+        } else {
+            long index = segments.lastKey();
+            ackOffset = Math.max(ackOffset, segments.firstKey() * segmentSize);
+            MappedByteBuffer segment = segments.get(index);
+            int position = 0;
+            int length;
+            while (position + Integer.BYTES <= segmentSize && (length = segment.getInt(position)) > 0
+                    && position + Integer.BYTES + length <= segmentSize) {
+                position += Integer.BYTES + length;
+            }
+            writeOffset = index * segmentSize + position;
+        }
+        ackBuffer.putLong(0, ackOffset);
+        ackBuffer.force();
+    }
+
+    /**
+     * Append data to the log. Result handler is called once the data is stored, not when it's delivered.
+     */
+    public void forward(T data, ResultHandler resultHandler) {
+        try {
+            if (append(objectMapper.writeValueAsBytes(data))) {
+                resultHandler.onResult(true, null);
+                deliver();
+            } else {
+                dropped.incrementAndGet();
+                resultHandler.onResult(false, new IOException("Forwarding outbox is full"));
+            }
+        } catch (IOException e) {
+            resultHandler.onResult(false, e);
+        }
+    }
+
+    private synchronized boolean append(byte[] data) throws IOException {
+        int size = Integer.BYTES + data.length;
+        if (size > segmentSize) {
+            throw new IOException("Record is larger than outbox segment");
+        }
+        long index = writeOffset / segmentSize;
+        int position = (int) (writeOffset % segmentSize);
+        if (position + size > segmentSize) {
+            if (index + 1 - ackOffset / segmentSize >= maxSegments) {
+                return false;
+            }
+            index += 1;
+            position = 0;
+            segments.put(index, map(segmentPath(index), segmentSize));
+        }
+        MappedByteBuffer segment = segments.get(index);
+        segment.put(position + Integer.BYTES, data);
+        segment.putInt(position, data.length);
+        writeOffset = index * segmentSize + position + size;
+        if (syncInterval > 0) {
+            scheduleSync();
+        } else {
+            segment.force(position, size);
+        }
+        return true;
+    }
+
+    private void scheduleSync() {
+        if (!syncScheduled) {
+            syncScheduled = true;
+            timer.newTimeout(timeout -> sync(), syncInterval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Flush pending changes of all segments and the acknowledged offset. Only dirty pages are written, so clean and
+     * fully written segments are cheap to flush.
+     */
+    void sync() {
+        List<MappedByteBuffer> buffers;
+        synchronized (this) {
+            syncScheduled = false;
+            buffers = new ArrayList<>(segments.values());
+        }
+        buffers.forEach(MappedByteBuffer::force);
+        ackBuffer.force();
+    }
+
+    private synchronized byte[] read() {
+        while (readOffset < writeOffset) {
+            long index = readOffset / segmentSize;
+            int position = (int) (readOffset % segmentSize);
+            MappedByteBuffer segment = segments.get(index);
+            int length = position + Integer.BYTES <= segmentSize ? segment.getInt(position) : 0;
+            if (length > 0) {
+                byte[] data = new byte[length];
+                segment.get(position + Integer.BYTES, data);
+                return data;
+            }
+            readOffset = (index + 1) * segmentSize;
+        }
+        return null;
+    }
+
+    /**
+     * Start deliveries up to the parallelism limit. Senders can complete synchronously, so nested calls only mark that
+     * another pass is needed instead of recursing.
+     */
+    private void deliver() {
+        synchronized (this) {
+            if (delivering) {
+                redeliver = true;
+                return;
+            }
+            delivering = true;
+        }
+        while (true) {
+            startDeliveries().forEach(this::send);
+            synchronized (this) {
+                if (!redeliver) {
+                    delivering = false;
+                    return;
+                }
+                redeliver = false;
+            }
+        }
+    }
+
+    private synchronized List<Delivery<T>> startDeliveries() {
+        List<Delivery<T>> deliveries = new ArrayList<>();
+        byte[] data;
+        while (inFlight.size() < parallelism && (data = read()) != null) {
+            long offset = readOffset;
+            readOffset += Integer.BYTES + data.length;
+            try {
+                Delivery<T> delivery = new Delivery<>(offset, objectReader.readValue(data));
+                inFlight.put(offset, delivery);
+                deliveries.add(delivery);
+            } catch (IOException e) {
+                LOGGER.warn("Forwarding outbox record skipped", e);
+                inFlight.put(offset, new Delivery<>(offset, null));
+                acknowledge(offset);
+            }
+        }
+        return deliveries;
+    }
+
+    private void send(Delivery<T> delivery) {
+        sender.send(delivery.data, (success, throwable) -> {
+            if (success) {
+                synchronized (this) {
+                    acknowledge(delivery.offset);
+                }
+                deliver();
+            } else if (maxAttempts > 0 && delivery.retries + 1 >= maxAttempts) {
+                skipped.incrementAndGet();
+                LOGGER.warn("Outbox forwarding failed after {} attempts, record skipped", maxAttempts, throwable);
+                synchronized (this) {
+                    acknowledge(delivery.offset);
+                }
+                deliver();
+            } else {
+                long delay = Math.min(MAX_RETRY_DELAY, retryDelay << Math.min(delivery.retries++, 16));
+                LOGGER.warn("Outbox forwarding failed, retrying in {} ms", delay, throwable);
+                timer.newTimeout(timeout -> send(delivery), delay, TimeUnit.MILLISECONDS);
+            }
+        });
+    }
+
+    private void acknowledge(long offset) {
+        inFlight.get(offset).done = true;
+        while (!inFlight.isEmpty() && inFlight.firstEntry().getValue().done) {
+            inFlight.pollFirstEntry();
+        }
+        long acknowledged = inFlight.isEmpty() ? readOffset : inFlight.firstKey();
+        if (acknowledged > ackOffset) {
+            ackOffset = acknowledged;
+            ackBuffer.putLong(0, ackOffset);
+            if (syncInterval > 0) {
+                scheduleSync();
+            } else {
+                ackBuffer.force();
+            }
+            long ackIndex = ackOffset / segmentSize;
+            var iterator = segments.keySet().iterator();
+            while (iterator.hasNext()) {
+                long index = iterator.next();
+                if (index >= ackIndex) {
+                    break;
+                }
+                iterator.remove();
+                try {
+                    Files.deleteIfExists(segmentPath(index));
+                } catch (IOException e) {
+                    LOGGER.warn("Forwarding outbox segment delete error", e);
+                }
+            }
+        }
+    }
+
+    public synchronized long getPending() {
+        return writeOffset - ackOffset;
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    public long getSkipped() {
+        return skipped.get();
+    }
+
+}
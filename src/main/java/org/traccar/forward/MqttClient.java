@@ -15,23 +15,67 @@
  */
 package org.traccar.forward;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
-import java.util.function.BiConsumer;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 
+import com.google.protobuf.CodedOutputStream;
 import com.hivemq.client.mqtt.datatypes.MqttQos;
 import com.hivemq.client.mqtt.mqtt5.Mqtt5AsyncClient;
 import com.hivemq.client.mqtt.mqtt5.Mqtt5Client;
 import com.hivemq.client.mqtt.mqtt5.Mqtt5ClientBuilder;
 import com.hivemq.client.mqtt.mqtt5.message.auth.Mqtt5SimpleAuth;
-import com.hivemq.client.mqtt.mqtt5.message.publish.Mqtt5PublishResult;
+import com.hivemq.client.mqtt.mqtt5.message.connect.connack.Mqtt5ConnAck;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.traccar.config.Config;
+import org.traccar.config.Keys;
 
+/**
+ * MQTT publisher shared by position and event forwarders. Number of publishes waiting for acknowledgement is limited,
+ * and publishes over the limit fail immediately instead of piling up in memory.
+ * <p>
+ * In aggregation mode messages for the same topic are collected for an interval and published as a single payload.
+ * JSON messages are packed into an array, binary messages are written one after another, each with a varint length
+ * prefix, which is the standard protobuf delimited format. Payload size is limited, so a batch that would exceed the
+ * limit is published early and the rest goes into the next batch.
+ */
 public class MqttClient {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(MqttClient.class);
+
+    private record Message(byte[] payload, ResultHandler resultHandler) {
+    }
+
+    private final class Batch {
+        private final List<Message> messages = new ArrayList<>();
+        private int size = binary ? 0 : 1;
+        private boolean sent;
+    }
+
     private final Mqtt5AsyncClient client;
+    private final CompletableFuture<Mqtt5ConnAck> connection;
+    private final MqttQos qos;
+    private final Semaphore queue;
+    private final boolean binary;
+    private final long aggregateInterval;
+    private final int aggregateSize;
+
+    private final Map<String, Batch> pending = new HashMap<>();
+    private final ScheduledExecutorService executor;
 
-    MqttClient(String url) {
+    MqttClient(Config config, String url, boolean binary) {
         URI uri;
         try {
             uri = new URI(url);
@@ -47,9 +91,28 @@ public class MqttClient {
                 .serverHost(host).serverPort(port).simpleAuth(simpleAuth).automaticReconnectWithDefaultConfig();
 
         client = builder.buildAsync();
-        client.connectWith().send().whenComplete((message, e) -> {
-            throw new RuntimeException(e);
+        connection = client.connectWith()
+                .restrictions().sendMaximum(config.getInteger(Keys.FORWARD_MQTT_INFLIGHT)).applyRestrictions()
+                .send();
+        connection.whenComplete((message, e) -> {
+            if (e != null) {
+                LOGGER.warn("MQTT connection error", e);
+            }
         });
+
+        qos = MqttQos.fromCode(config.getInteger(Keys.FORWARD_MQTT_QOS));
+        if (qos == null) {
+            throw new IllegalArgumentException("Wrong MQTT QoS level");
+        }
+        queue = new Semaphore(config.getInteger(Keys.FORWARD_MQTT_QUEUE));
+        this.binary = binary;
+        aggregateInterval = config.getLong(Keys.FORWARD_MQTT_AGGREGATE);
+        aggregateSize = config.getInteger(Keys.FORWARD_MQTT_AGGREGATE_SIZE);
+        executor = aggregateInterval > 0 ? Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "forward-mqtt");
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
     }
 
     private Mqtt5SimpleAuth getSimpleAuth(URI uri) {
@@ -67,10 +130,97 @@ public class MqttClient {
         return simpleAuth;
     }
 
-    public void publish(
-            String pubTopic, String payload, BiConsumer<? super Mqtt5PublishResult, ? super Throwable> whenComplete) {
-        client.publishWith().topic(pubTopic).qos(MqttQos.AT_LEAST_ONCE).payload(payload.getBytes()).send()
-                .whenComplete(whenComplete);
+    CompletableFuture<Mqtt5ConnAck> getConnection() {
+        return connection;
+    }
+
+    public void publish(String topic, byte[] payload, ResultHandler resultHandler) {
+        if (!queue.tryAcquire()) {
+            resultHandler.onResult(false, new IOException("MQTT publish queue is full"));
+            return;
+        }
+        if (aggregateInterval > 0) {
+            int size = binary ? CodedOutputStream.computeUInt32SizeNoTag(payload.length) + payload.length
+                    : payload.length + 1;
+            synchronized (pending) {
+                Batch batch = pending.get(topic);
+                if (batch != null && batch.size + size > aggregateSize) {
+                    flushEarly(topic, batch);
+                    batch = null;
+                }
+                if (batch == null) {
+                    Batch created = new Batch();
+                    pending.put(topic, created);
+                    executor.schedule(() -> flush(topic, created), aggregateInterval, TimeUnit.MILLISECONDS);
+                    batch = created;
+                }
+                batch.messages.add(new Message(payload, resultHandler));
+                batch.size += size;
+                if (batch.size >= aggregateSize) {
+                    flushEarly(topic, batch);
+                }
+            }
+        } else {
+            send(topic, payload, List.of(new Message(payload, resultHandler)));
+        }
+    }
+
+    private void flushEarly(String topic, Batch batch) {
+        pending.remove(topic);
+        executor.execute(() -> flush(topic, batch));
+    }
+
+    private void flush(String topic, Batch batch) {
+        synchronized (pending) {
+            if (batch.sent) {
+                return;
+            }
+            batch.sent = true;
+            pending.remove(topic, batch);
+        }
+        List<Message> messages = batch.messages;
+        try {
+            send(topic, pack(messages), messages);
+        } catch (IOException e) {
+            complete(messages, e);
+        }
+    }
+
+    private byte[] pack(List<Message> messages) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        if (binary) {
+            CodedOutputStream codedOutput = CodedOutputStream.newInstance(output);
+            for (Message message : messages) {
+                codedOutput.writeByteArrayNoTag(message.payload());
+            }
+            codedOutput.flush();
+        } else {
+            output.write('[');
+            for (int i = 0; i < messages.size(); i++) {
+                if (i > 0) {
+                    output.write(',');
+                }
+                output.write(messages.get(i).payload());
+            }
+            output.write(']');
+        }
+        return output.toByteArray();
+    }
+
+    private void send(String topic, byte[] payload, List<Message> messages) {
+        try {
+            client.publishWith().topic(topic).qos(qos).payload(payload).send()
+                    .whenComplete((result, e) -> complete(messages, e));
+        } catch (RuntimeException e) {
+            complete(messages, e);
+        }
+    }
+
+    private void complete(List<Message> messages, Throwable error) {
+        queue.release(messages.size());
+        for (Message message : messages) {
+            message.resultHandler().onResult(error == null, error);
+        }
     }
 
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2023 Anton Tananaev (anton@traccar.org)
+ * Copyright 2023 - 2024 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -15,63 +15,204 @@
  */
 package org.traccar.forward;
 
+import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.WriteBufferWaterMark;
+import io.netty.channel.socket.DatagramPacket;
+import io.netty.channel.socket.nio.NioDatagramChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.util.AttributeKey;
+import io.netty.util.ReferenceCountUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.traccar.EventLoopGroupFactory;
 import org.traccar.config.Config;
 import org.traccar.config.Keys;
 
 import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
 import java.io.IOException;
-import java.net.DatagramPacket;
-import java.net.DatagramSocket;
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
-import java.net.Socket;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Forwards raw data to another server. Each TCP source gets its own persistent connection, so the destination sees
+ * the same sessions as this server. All I/O runs on the shared event loop group, so callers are never blocked.
+ * <p>
+ * Connections are opened on demand and reopened with the next data if the destination closes them. TCP data is never
+ * silently dropped, since that would corrupt the stream. Instead, reading from the source is paused while the
+ * connection is being opened or the destination can't keep up, and resumed once the destination is writable again.
+ * If the connection can't be opened or data can't be written, the source channel is closed, so the device reconnects
+ * and both servers start a new session. UDP data is dropped instead of buffered without limit.
+ */
 @Singleton
 public class NetworkForwarder {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(NetworkForwarder.class);
 
+    private static final WriteBufferWaterMark WATER_MARK = new WriteBufferWaterMark(32 * 1024, 256 * 1024);
+
+    private static final AttributeKey<Channel> SOURCE = AttributeKey.valueOf("forwardSource");
+
+    private static final ChannelHandler DISCARD_HANDLER = new DiscardHandler();
+
     private final InetAddress destination;
-    private final DatagramSocket connectionUdp;
-    private final Map<InetSocketAddress, Socket> connectionsTcp = new HashMap<>();
+    private final Bootstrap bootstrapTcp;
+    private final Channel channelUdp;
+    private final Map<Channel, Connection> connectionsTcp = new ConcurrentHashMap<>();
+
+    private final AtomicLong dropped = new AtomicLong();
+
+    @ChannelHandler.Sharable
+    private static final class DiscardHandler extends ChannelInboundHandlerAdapter {
+
+        @Override
+        public void channelRead(ChannelHandlerContext ctx, Object msg) {
+            ReferenceCountUtil.release(msg);
+        }
+
+        @Override
+        public void channelWritabilityChanged(ChannelHandlerContext ctx) {
+            resume(ctx.channel());
+            ctx.fireChannelWritabilityChanged();
+        }
+
+        @Override
+        public void channelInactive(ChannelHandlerContext ctx) {
+            resume(ctx.channel());
+            ctx.fireChannelInactive();
+        }
+
+        private static void resume(Channel channel) {
+            Channel source = channel.attr(SOURCE).get();
+            if (source != null && (channel.isWritable() || !channel.isActive())) {
+                source.config().setAutoRead(true);
+            }
+        }
+
+    }
+
+    private final class Connection {
+
+        private final Channel source;
+        private final int port;
+        private ChannelFuture future;
+        private boolean closed;
+
+        private Connection(Channel source, int port) {
+            this.source = source;
+            this.port = port;
+        }
+
+        /**
+         * Listeners run on the destination event loop, same as writability events, so the final decision to pause or
+         * resume the source is always made there.
+         */
+        private synchronized void write(ByteBuf data) {
+            if (closed) {
+                data.release();
+                return;
+            }
+            if (future == null || (future.isDone() && !future.channel().isActive())) {
+                future = bootstrapTcp.connect(destination, port);
+                future.channel().attr(SOURCE).set(source);
+            }
+            if (!future.isDone()) {
+                source.config().setAutoRead(false);
+            }
+            future.addListener((ChannelFutureListener) connectFuture -> {
+                Channel channel = connectFuture.channel();
+                if (!connectFuture.isSuccess()) {
+                    data.release();
+                    source.close();
+                    LOGGER.warn("Network forwarding connection error", connectFuture.cause());
+                } else {
+                    channel.writeAndFlush(data).addListener((ChannelFutureListener) writeFuture -> {
+                        if (!writeFuture.isSuccess()) {
+                            writeFuture.channel().close();
+                            source.close();
+                            LOGGER.warn("Network forwarding write error", writeFuture.cause());
+                        }
+                    });
+                    source.config().setAutoRead(channel.isWritable() || !channel.isActive());
+                }
+            });
+        }
+
+        private synchronized void close() {
+            closed = true;
+            if (future != null) {
+                future.addListener((ChannelFutureListener) connectFuture -> {
+                    if (connectFuture.isSuccess()) {
+                        connectFuture.channel().writeAndFlush(Unpooled.EMPTY_BUFFER)
+                                .addListener(ChannelFutureListener.CLOSE);
+                    }
+                });
+            }
+        }
+
+    }
 
     @Inject
     public NetworkForwarder(Config config) throws IOException {
+        this(config, EventLoopGroupFactory.getWorkerGroup());
+    }
+
+    NetworkForwarder(Config config, EventLoopGroup group) throws IOException {
         destination = InetAddress.getByName(config.getString(Keys.SERVER_FORWARD));
-        connectionUdp = new DatagramSocket();
+        bootstrapTcp = new Bootstrap()
+                .group(group)
+                .channel(NioSocketChannel.class)
+                .option(ChannelOption.TCP_NODELAY, true)
+                .option(ChannelOption.SO_KEEPALIVE, true)
+                .option(ChannelOption.WRITE_BUFFER_WATER_MARK, WATER_MARK)
+                .handler(DISCARD_HANDLER);
+        channelUdp = new Bootstrap()
+                .group(group)
+                .channel(NioDatagramChannel.class)
+                .option(ChannelOption.WRITE_BUFFER_WATER_MARK, WATER_MARK)
+                .handler(DISCARD_HANDLER)
+                .bind(0).syncUninterruptibly().channel();
     }
 
-    public void forward(InetSocketAddress source, int port, boolean datagram, byte[] data) {
-        try {
-            if (datagram) {
-                connectionUdp.send(new DatagramPacket(data, data.length, destination, port));
+    /**
+     * Forward data asynchronously. Ownership of the buffer is transferred to the forwarder. For TCP, reading from the
+     * source channel can be paused until the destination catches up.
+     */
+    public void forward(Channel source, int port, boolean datagram, ByteBuf data) {
+        if (datagram) {
+            if (channelUdp.isWritable()) {
+                channelUdp.writeAndFlush(new DatagramPacket(data, new InetSocketAddress(destination, port)));
             } else {
-                Socket connectionTcp = connectionsTcp.get(source);
-                if (connectionTcp == null || connectionTcp.isClosed()) {
-                    connectionTcp = new Socket(destination, port);
-                    connectionsTcp.put(source, connectionTcp);
-                }
-                connectionTcp.getOutputStream().write(data);
+                data.release();
+                dropped.incrementAndGet();
             }
-        } catch (IOException e) {
-            LOGGER.warn("Network forwarding error", e);
+        } else {
+            connectionsTcp.computeIfAbsent(source, key -> new Connection(source, port)).write(data);
         }
     }
 
-    public void disconnect(InetSocketAddress source) {
-        Socket connectionTcp = connectionsTcp.remove(source);
-        if (connectionTcp != null) {
-            try {
-                connectionTcp.close();
-            } catch (IOException e) {
-                LOGGER.warn("Connection close error", e);
-            }
+    public void disconnect(Channel source) {
+        Connection connection = connectionsTcp.remove(source);
+        if (connection != null) {
+            connection.close();
         }
     }
 
+    public long getDropped() {
+        return dropped.get();
+    }
+
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2023 Anton Tananaev (anton@traccar.org)
+ * Copyright 2023 - 2024 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -15,33 +15,32 @@
  */
 package org.traccar.forward;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import org.traccar.config.Config;
 import org.traccar.config.Keys;
 
-import java.io.IOException;
-
 public class PositionForwarderAmqp implements PositionForwarder {
 
     private final AmqpClient amqpClient;
-    private final ObjectMapper objectMapper;
+    private final ForwardSerializer serializer;
 
     public PositionForwarderAmqp(Config config, ObjectMapper objectMapper) {
         String connectionUrl = config.getString(Keys.FORWARD_URL);
         String exchange = config.getString(Keys.FORWARD_EXCHANGE);
         String topic = config.getString(Keys.FORWARD_TOPIC);
-        amqpClient = new AmqpClient(connectionUrl, exchange, topic);
-        this.objectMapper = objectMapper;
+        amqpClient = new AmqpClient(config, connectionUrl, exchange, topic);
+        this.serializer = new ForwardSerializer(config.getString(Keys.FORWARD_SERIALIZER), objectMapper);
     }
 
     @Override
     public void forward(PositionData positionData, ResultHandler resultHandler) {
         try {
-            String value = objectMapper.writeValueAsString(positionData);
-            amqpClient.publishMessage(value);
-            resultHandler.onResult(true, null);
-        } catch (IOException e) {
+            amqpClient.publishMessage(
+                    positionData.getPosition().getDeviceId(), serializer.serialize(positionData),
+                    serializer.getContentType(), resultHandler);
+        } catch (JsonProcessingException e) {
             resultHandler.onResult(false, e);
         }
     }
@@ -24,21 +24,21 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 public class PositionForwarderMqtt implements PositionForwarder {
 
     private final MqttClient mqttClient;
-    private final ObjectMapper objectMapper;
+    private final ForwardSerializer serializer;
 
     private final String topic;
 
     public PositionForwarderMqtt(final Config config, final ObjectMapper objectMapper) {
         this.topic = config.getString(Keys.FORWARD_TOPIC);
-        mqttClient = new MqttClient(config.getString(Keys.FORWARD_URL));
-        this.objectMapper = objectMapper;
+        this.serializer = new ForwardSerializer(config.getString(Keys.FORWARD_SERIALIZER), objectMapper);
+        mqttClient = new MqttClient(config, config.getString(Keys.FORWARD_URL), serializer.isBinary());
     }
 
     @Override
     public void forward(PositionData positionData, ResultHandler resultHandler) {
         try {
-            String payload = objectMapper.writeValueAsString(positionData);
-            mqttClient.publish(topic, payload, (message, e) -> resultHandler.onResult(e == null, e));
+            byte[] payload = serializer.serialize(positionData);
+            mqttClient.publish(topic, payload, resultHandler);
         } catch (JsonProcessingException e) {
             resultHandler.onResult(false, e);
         }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2023 Anton Tananaev (anton@traccar.org)
+ * Copyright 2023 - 2024 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -20,30 +20,126 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import org.traccar.config.Config;
 import org.traccar.config.Keys;
 import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
+import redis.clients.jedis.exceptions.JedisException;
+import redis.clients.jedis.params.XAddParams;
 
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes positions to Redis using pooled connections. Positions are collected for a short time and written in a
+ * single pipeline, either to a list or to a stream for each device.
+ */
 public class PositionForwarderRedis implements PositionForwarder {
 
-    private final String url;
+    private static final byte[] STREAM_FIELD = "position".getBytes(StandardCharsets.UTF_8);
+
+    private record Entry(byte[] key, byte[] value, ResultHandler resultHandler) {
+    }
+
+    private final JedisPool pool;
+    private final ForwardSerializer serializer;
+    private final boolean stream;
+    private final long maxLength;
+    private final int batchSize;
+    private final long delay;
+
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "forward-redis");
+        thread.setDaemon(true);
+        return thread;
+    });
 
-    private final ObjectMapper objectMapper;
+    private List<Entry> batch = new ArrayList<>();
+    private boolean scheduled;
 
     public PositionForwarderRedis(Config config, ObjectMapper objectMapper) {
-        this.objectMapper = objectMapper;
-        this.url = config.getString(Keys.FORWARD_URL);
+        this.serializer = new ForwardSerializer(config.getString(Keys.FORWARD_SERIALIZER), objectMapper);
+        this.pool = new JedisPool(URI.create(config.getString(Keys.FORWARD_URL)));
+        this.stream = config.getBoolean(Keys.FORWARD_REDIS_STREAM);
+        this.maxLength = config.getLong(Keys.FORWARD_REDIS_MAX_LENGTH);
+        this.batchSize = Math.max(1, config.getInteger(Keys.FORWARD_BATCH_SIZE, 100));
+        this.delay = config.getLong(Keys.FORWARD_REDIS_DELAY);
     }
 
     @Override
     public void forward(PositionData positionData, ResultHandler resultHandler) {
-
+        Entry entry;
         try {
             String key = "positions." + positionData.getDevice().getUniqueId();
-            String value = objectMapper.writeValueAsString(positionData.getPosition());
-            try (Jedis jedis = new Jedis(url)) {
-                jedis.lpush(key, value);
-            }
-            resultHandler.onResult(true, null);
+            entry = new Entry(
+                    key.getBytes(StandardCharsets.UTF_8), serializer.serialize(positionData.getPosition()),
+                    resultHandler);
         } catch (JsonProcessingException e) {
             resultHandler.onResult(false, e);
+            return;
+        }
+
+        synchronized (this) {
+            batch.add(entry);
+            if (batch.size() >= batchSize) {
+                List<Entry> entries = batch;
+                batch = new ArrayList<>();
+                executor.execute(() -> write(entries));
+            } else if (!scheduled) {
+                scheduled = true;
+                executor.schedule(this::flush, delay, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    private void flush() {
+        List<Entry> entries;
+        synchronized (this) {
+            scheduled = false;
+            entries = batch;
+            batch = new ArrayList<>();
+        }
+        if (!entries.isEmpty()) {
+            write(entries);
+        }
+    }
+
+    private void write(List<Entry> entries) {
+        List<Response<?>> responses = new ArrayList<>(entries.size());
+        try (Jedis jedis = pool.getResource()) {
+            Pipeline pipeline = jedis.pipelined();
+            for (Entry entry : entries) {
+                if (stream) {
+                    XAddParams params = XAddParams.xAddParams();
+                    if (maxLength > 0) {
+                        params.maxLen(maxLength).approximateTrimming();
+                    }
+                    responses.add(pipeline.xadd(entry.key(), params, Map.of(STREAM_FIELD, entry.value())));
+                } else {
+                    responses.add(pipeline.lpush(entry.key(), entry.value()));
+                    if (maxLength > 0) {
+                        pipeline.ltrim(entry.key(), 0, maxLength - 1);
+                    }
+                }
+            }
+            pipeline.sync();
+        } catch (JedisException e) {
+            entries.forEach(entry -> entry.resultHandler().onResult(false, e));
+            return;
+        }
+
+        for (int i = 0; i < entries.size(); i++) {
+            try {
+                responses.get(i).get();
+                entries.get(i).resultHandler().onResult(true, null);
+            } catch (JedisException e) {
+                entries.get(i).resultHandler().onResult(false, e);
+            }
         }
     }
 
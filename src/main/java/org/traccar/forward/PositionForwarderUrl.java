@@ -1,5 +1,5 @@
 /*
- * Copyright 2022 Anton Tananaev (anton@traccar.org)
+ * Copyright 2022 - 2024 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,6 +17,7 @@ package org.traccar.forward;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.netty.util.Timer;
 import org.traccar.config.Config;
 import org.traccar.config.Keys;
 import org.traccar.helper.Checksum;
@@ -24,111 +25,245 @@ import org.traccar.model.Device;
 import org.traccar.model.Position;
 
 import jakarta.ws.rs.client.Client;
+import jakarta.ws.rs.client.Entity;
+import jakarta.ws.rs.client.Invocation;
 import jakarta.ws.rs.client.InvocationCallback;
+import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
-import java.io.UnsupportedEncodingException;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Formatter;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Forwards positions using URL template. Template is parsed once into a list of segments, so formatting a request
+ * is a single pass over the segments.
+ * <p>
+ * In batch mode positions are collected and posted to the URL as a JSON array instead. The URL is shared by all
+ * positions in a batch, so it can't contain placeholders.
+ */
 public class PositionForwarderUrl implements PositionForwarder {
 
+    private interface Segment {
+        void append(StringBuilder builder, Position position, Device device) throws JsonProcessingException;
+    }
+
+    private record Header(String name, String value) {
+    }
+
+    private record Pending(PositionData positionData, ResultHandler resultHandler) {
+    }
+
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(StringBuilder::new);
+
     private final String url;
-    private final String header;
+    private final List<Segment> segments;
+    private final List<Header> headers = new ArrayList<>();
 
     private final Client client;
     private final ObjectMapper objectMapper;
+    private final Timer timer;
+
+    private final int batchSize;
+    private final long batchInterval;
+    private List<Pending> batch = new ArrayList<>();
 
     public PositionForwarderUrl(Config config, Client client, ObjectMapper objectMapper) {
+        this(config, client, objectMapper, null);
+    }
+
+    public PositionForwarderUrl(Config config, Client client, ObjectMapper objectMapper, Timer timer) {
         this.client = client;
         this.objectMapper = objectMapper;
+        this.timer = timer;
         this.url = config.getString(Keys.FORWARD_URL);
-        this.header = config.getString(Keys.FORWARD_HEADER);
+        this.segments = parseTemplate(url);
+
+        String header = config.getString(Keys.FORWARD_HEADER);
+        if (header != null && !header.isEmpty()) {
+            for (String line: header.split("\\r?\\n")) {
+                String[] values = line.split(":", 2);
+                headers.add(new Header(values[0].trim(), values[1].trim()));
+            }
+        }
+
+        batchSize = timer != null ? config.getInteger(Keys.FORWARD_BATCH_SIZE) : 0;
+        batchInterval = config.getLong(Keys.FORWARD_BATCH_INTERVAL);
+        if (batchSize > 0 && url.indexOf('{') >= 0) {
+            throw new IllegalArgumentException("Forwarding URL placeholders are not supported in batch mode");
+        }
     }
 
-    @Override
-    public void forward(PositionData positionData, ResultHandler resultHandler) {
-        try {
-            String url = formatRequest(positionData);
-            var requestBuilder = client.target(url).request();
-
-            if (header != null && !header.isEmpty()) {
-                for (String line: header.split("\\r?\\n")) {
-                    String[] values = line.split(":", 2);
-                    String headerName = values[0].trim();
-                    String headerValue = values[1].trim();
-                    requestBuilder.header(headerName, headerValue);
-                }
+    private Map<String, Segment> createPlaceholders() {
+        Map<String, Segment> placeholders = new HashMap<>();
+        placeholders.put("name", (builder, position, device) ->
+                builder.append(URLEncoder.encode(device.getName(), StandardCharsets.UTF_8)));
+        placeholders.put("uniqueId", (builder, position, device) -> builder.append(device.getUniqueId()));
+        placeholders.put("status", (builder, position, device) -> builder.append(device.getStatus()));
+        placeholders.put("deviceId", (builder, position, device) -> builder.append(position.getDeviceId()));
+        placeholders.put("protocol", (builder, position, device) -> builder.append(position.getProtocol()));
+        placeholders.put("deviceTime", (builder, position, device) ->
+                builder.append(position.getDeviceTime().getTime()));
+        placeholders.put("fixTime", (builder, position, device) -> builder.append(position.getFixTime().getTime()));
+        placeholders.put("valid", (builder, position, device) -> builder.append(position.getValid()));
+        placeholders.put("latitude", (builder, position, device) -> builder.append(position.getLatitude()));
+        placeholders.put("longitude", (builder, position, device) -> builder.append(position.getLongitude()));
+        placeholders.put("altitude", (builder, position, device) -> builder.append(position.getAltitude()));
+        placeholders.put("speed", (builder, position, device) -> builder.append(position.getSpeed()));
+        placeholders.put("course", (builder, position, device) -> builder.append(position.getCourse()));
+        placeholders.put("accuracy", (builder, position, device) -> builder.append(position.getAccuracy()));
+        placeholders.put("statusCode", (builder, position, device) -> builder.append(calculateStatus(position)));
+        placeholders.put("address", (builder, position, device) -> {
+            if (position.getAddress() != null) {
+                builder.append(URLEncoder.encode(position.getAddress(), StandardCharsets.UTF_8));
+            } else {
+                builder.append("{address}");
             }
+        });
+        placeholders.put("attributes", (builder, position, device) -> {
+            String attributes = objectMapper.writeValueAsString(position.getAttributes());
+            builder.append(URLEncoder.encode(attributes, StandardCharsets.UTF_8));
+        });
+        placeholders.put("gprmc", (builder, position, device) -> formatSentence(builder, position));
+        return placeholders;
+    }
 
-            requestBuilder.async().get(new InvocationCallback<Response>() {
-                @Override
-                public void completed(Response response) {
-                    if (response.getStatusInfo().getFamily() == Response.Status.Family.SUCCESSFUL) {
-                        resultHandler.onResult(true, null);
-                    } else {
-                        int code = response.getStatusInfo().getStatusCode();
-                        resultHandler.onResult(false, new RuntimeException("HTTP code " + code));
-                    }
+    private List<Segment> parseTemplate(String template) {
+        Map<String, Segment> placeholders = createPlaceholders();
+        List<Segment> result = new ArrayList<>();
+        int literalStart = 0;
+        int index = 0;
+        while (index < template.length()) {
+            int start = template.indexOf('{', index);
+            int end = start >= 0 ? template.indexOf('}', start) : -1;
+            if (end < 0) {
+                break;
+            }
+            Segment placeholder = placeholders.get(template.substring(start + 1, end));
+            if (placeholder != null) {
+                if (start > literalStart) {
+                    String literal = template.substring(literalStart, start);
+                    result.add((builder, position, device) -> builder.append(literal));
                 }
+                result.add(placeholder);
+                literalStart = end + 1;
+                index = end + 1;
+            } else {
+                index = start + 1;
+            }
+        }
+        if (literalStart < template.length()) {
+            String literal = template.substring(literalStart);
+            result.add((builder, position, device) -> builder.append(literal));
+        }
+        return result;
+    }
 
-                @Override
-                public void failed(Throwable throwable) {
-                    resultHandler.onResult(false, throwable);
-                }
-            });
-        } catch (UnsupportedEncodingException | JsonProcessingException e) {
-            resultHandler.onResult(false, e);
+    private Invocation.Builder createRequest(String target) {
+        var requestBuilder = client.target(target).request();
+        for (Header header : headers) {
+            requestBuilder.header(header.name(), header.value());
         }
+        return requestBuilder;
     }
 
-    public String formatRequest(
-            PositionData positionData) throws UnsupportedEncodingException, JsonProcessingException {
+    private static InvocationCallback<Response> createCallback(ResultHandler resultHandler) {
+        return new InvocationCallback<>() {
+            @Override
+            public void completed(Response response) {
+                if (response.getStatusInfo().getFamily() == Response.Status.Family.SUCCESSFUL) {
+                    resultHandler.onResult(true, null);
+                } else {
+                    int code = response.getStatusInfo().getStatusCode();
+                    resultHandler.onResult(false, new RuntimeException("HTTP code " + code));
+                }
+            }
 
-        Position position = positionData.getPosition();
-        Device device = positionData.getDevice();
+            @Override
+            public void failed(Throwable throwable) {
+                resultHandler.onResult(false, throwable);
+            }
+        };
+    }
 
-        String request = url
-                .replace("{name}", URLEncoder.encode(device.getName(), StandardCharsets.UTF_8))
-                .replace("{uniqueId}", device.getUniqueId())
-                .replace("{status}", device.getStatus())
-                .replace("{deviceId}", String.valueOf(position.getDeviceId()))
-                .replace("{protocol}", String.valueOf(position.getProtocol()))
-                .replace("{deviceTime}", String.valueOf(position.getDeviceTime().getTime()))
-                .replace("{fixTime}", String.valueOf(position.getFixTime().getTime()))
-                .replace("{valid}", String.valueOf(position.getValid()))
-                .replace("{latitude}", String.valueOf(position.getLatitude()))
-                .replace("{longitude}", String.valueOf(position.getLongitude()))
-                .replace("{altitude}", String.valueOf(position.getAltitude()))
-                .replace("{speed}", String.valueOf(position.getSpeed()))
-                .replace("{course}", String.valueOf(position.getCourse()))
-                .replace("{accuracy}", String.valueOf(position.getAccuracy()))
-                .replace("{statusCode}", calculateStatus(position));
-
-        if (position.getAddress() != null) {
-            request = request.replace(
-                    "{address}", URLEncoder.encode(position.getAddress(), StandardCharsets.UTF_8));
+    @Override
+    public void forward(PositionData positionData, ResultHandler resultHandler) {
+        if (batchSize > 0) {
+            addToBatch(new Pending(positionData, resultHandler));
+            return;
         }
+        try {
+            createRequest(formatRequest(positionData)).async().get(createCallback(resultHandler));
+        } catch (JsonProcessingException | RuntimeException e) {
+            resultHandler.onResult(false, e);
+        }
+    }
 
-        if (request.contains("{attributes}")) {
-            String attributes = objectMapper.writeValueAsString(position.getAttributes());
-            request = request.replace(
-                    "{attributes}", URLEncoder.encode(attributes, StandardCharsets.UTF_8));
+    private void addToBatch(Pending pending) {
+        List<Pending> full = null;
+        synchronized (this) {
+            if (batch.isEmpty()) {
+                List<Pending> current = batch;
+                timer.newTimeout(timeout -> flush(current), batchInterval, TimeUnit.MILLISECONDS);
+            }
+            batch.add(pending);
+            if (batch.size() >= batchSize) {
+                full = batch;
+                batch = new ArrayList<>();
+            }
         }
+        if (full != null) {
+            sendBatch(full);
+        }
+    }
 
-        if (request.contains("{gprmc}")) {
-            request = request.replace("{gprmc}", formatSentence(position));
+    private void flush(List<Pending> current) {
+        synchronized (this) {
+            if (batch != current) {
+                return;
+            }
+            batch = new ArrayList<>();
+        }
+        sendBatch(current);
+    }
+
+    private void sendBatch(List<Pending> pendingList) {
+        ResultHandler resultHandler = (success, throwable) -> {
+            for (Pending pending : pendingList) {
+                pending.resultHandler().onResult(success, throwable);
+            }
+        };
+        try {
+            List<PositionData> positions = pendingList.stream().map(Pending::positionData).toList();
+            var entity = Entity.entity(objectMapper.writeValueAsString(positions), MediaType.APPLICATION_JSON_TYPE);
+            createRequest(url).async().post(entity, createCallback(resultHandler));
+        } catch (JsonProcessingException | RuntimeException e) {
+            resultHandler.onResult(false, e);
         }
+    }
 
-        return request;
+    public String formatRequest(PositionData positionData) throws JsonProcessingException {
+        Position position = positionData.getPosition();
+        Device device = positionData.getDevice();
+        StringBuilder builder = BUFFER.get();
+        builder.setLength(0);
+        for (Segment segment : segments) {
+            segment.append(builder, position, device);
+        }
+        return builder.toString();
     }
 
-    private static String formatSentence(Position position) {
+    private static void formatSentence(StringBuilder s, Position position) {
 
-        StringBuilder s = new StringBuilder("$GPRMC,");
+        int start = s.length();
+        s.append("$GPRMC,");
 
         try (Formatter f = new Formatter(s, Locale.ENGLISH)) {
 
@@ -147,13 +282,11 @@ public class PositionForwarderUrl implements PositionForwarder {
             f.format("%1$td%1$tm%1$ty,,", calendar);
         }
 
-        s.append(Checksum.nmea(s.substring(1)));
-
-        return s.toString();
+        s.append(Checksum.nmea(s.substring(start + 1)));
     }
 
     // OpenGTS status code
-    private String calculateStatus(Position position) {
+    private static String calculateStatus(Position position) {
         if (position.hasAttribute(Position.KEY_ALARM)) {
             return "0xF841"; // STATUS_PANIC_ON
         } else if (position.getSpeed() < 1.0) {
@@ -0,0 +1,310 @@
+/*
+ * Copyright 2024 Anton Tananaev (anton@traccar.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.traccar.geocoder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.traccar.database.StatisticsManager;
+import org.traccar.helper.DistanceCalculator;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Offline reverse geocoder that resolves the nearest known place from a local dataset.
+ * <p>
+ * Dataset is a tab separated file with the following columns (see tools/geocoder-import.py):
+ * latitude, longitude, house, street, suburb, settlement, district, state, country, postcode.
+ * <p>
+ * Places are kept in a static k-d tree stored in primitive arrays with deduplicated address strings, so the
+ * footprint stays small and lookups take logarithmic time. Search wraps around the antimeridian, and no address is
+ * returned if the nearest place is further than the maximum distance.
+ */
+public class LocalGeocoder implements Geocoder {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LocalGeocoder.class);
+
+    private static final int FIELD_COUNT = 8;
+    private static final double COORDINATE_SCALE = 1e6;
+
+    private final double maxDistance;
+    private final AddressFormat addressFormat;
+
+    private final int size;
+    private final int[] latitudes;
+    private final int[] longitudes;
+    private final int[] fields;
+    private final String[] strings;
+
+    private final long memoryUsage;
+
+    /**
+     * @param maxDistance maximum distance to the nearest place in meters, zero for no limit
+     */
+    public LocalGeocoder(Path file, double maxDistance, AddressFormat addressFormat) throws IOException {
+        this.maxDistance = maxDistance;
+        this.addressFormat = addressFormat;
+
+        IntList latitudeList = new IntList();
+        IntList longitudeList = new IntList();
+        IntList fieldList = new IntList();
+        Map<String, Integer> stringIndex = new HashMap<>();
+        List<String> stringList = new ArrayList<>();
+        stringList.add(null);
+
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] values = line.split("\t", -1);
+                if (values.length < 2) {
+                    continue;
+                }
+                latitudeList.add((int) Math.round(Double.parseDouble(values[0]) * COORDINATE_SCALE));
+                longitudeList.add((int) Math.round(Double.parseDouble(values[1]) * COORDINATE_SCALE));
+                for (int i = 0; i < FIELD_COUNT; i++) {
+                    String value = i + 2 < values.length ? values[i + 2] : "";
+                    if (value.isEmpty()) {
+                        fieldList.add(0);
+                    } else {
+                        fieldList.add(stringIndex.computeIfAbsent(value, key -> {
+                            stringList.add(key);
+                            return stringList.size() - 1;
+                        }));
+                    }
+                }
+            }
+        }
+
+        size = latitudeList.size();
+        strings = stringList.toArray(new String[0]);
+
+        int[] order = new int[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        build(order, latitudeList.values(), longitudeList.values(), 0, size, 0);
+
+        latitudes = new int[size];
+        longitudes = new int[size];
+        fields = new int[size * FIELD_COUNT];
+        for (int i = 0; i < size; i++) {
+            latitudes[i] = latitudeList.values()[order[i]];
+            longitudes[i] = longitudeList.values()[order[i]];
+            System.arraycopy(fieldList.values(), order[i] * FIELD_COUNT, fields, i * FIELD_COUNT, FIELD_COUNT);
+        }
+
+        long stringBytes = 0;
+        for (String string : strings) {
+            if (string != null) {
+                stringBytes += 40 + string.length();
+            }
+        }
+        memoryUsage = (long) size * (Integer.BYTES * (2 + FIELD_COUNT)) + stringBytes;
+
+        LOGGER.info("Local geocoder loaded {} places, {} unique strings, approximate memory usage {} KB",
+                size, strings.length - 1, memoryUsage / 1024);
+    }
+
+    private static final class IntList {
+
+        private int[] values = new int[1024];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                int[] expanded = new int[values.length * 2];
+                System.arraycopy(values, 0, expanded, 0, size);
+                values = expanded;
+            }
+            values[size++] = value;
+        }
+
+        int size() {
+            return size;
+        }
+
+        int[] values() {
+            return values;
+        }
+
+    }
+
+    private static int key(int[] latitudes, int[] longitudes, int index, int axis) {
+        return axis == 0 ? latitudes[index] : longitudes[index];
+    }
+
+    private static void swap(int[] order, int i, int j) {
+        int value = order[i];
+        order[i] = order[j];
+        order[j] = value;
+    }
+
+    private static void select(int[] order, int[] latitudes, int[] longitudes, int from, int to, int k, int axis) {
+        while (to - from > 1) {
+            int pivot = key(latitudes, longitudes, order[(from + to) >>> 1], axis);
+            int lower = from;
+            int upper = to;
+            int i = from;
+            while (i < upper) {
+                int value = key(latitudes, longitudes, order[i], axis);
+                if (value < pivot) {
+                    swap(order, lower++, i++);
+                } else if (value > pivot) {
+                    swap(order, i, --upper);
+                } else {
+                    i++;
+                }
+            }
+            if (k < lower) {
+                to = lower;
+            } else if (k >= upper) {
+                from = upper;
+            } else {
+                return;
+            }
+        }
+    }
+
+    private static void build(int[] order, int[] latitudes, int[] longitudes, int from, int to, int axis) {
+        if (to - from > 1) {
+            int middle = (from + to) >>> 1;
+            select(order, latitudes, longitudes, from, to, middle, axis);
+            build(order, latitudes, longitudes, from, middle, 1 - axis);
+            build(order, latitudes, longitudes, middle + 1, to, 1 - axis);
+        }
+    }
+
+    private final class Search {
+
+        private final double latitude;
+        private final double longitudeScale;
+        private double longitude;
+
+        private int best = -1;
+        private double bestDistance = Double.MAX_VALUE;
+
+        Search(double latitude, double longitude) {
+            this.latitude = latitude * COORDINATE_SCALE;
+            this.longitude = longitude * COORDINATE_SCALE;
+            this.longitudeScale = Math.cos(Math.toRadians(latitude));
+        }
+
+        void run(int from, int to, int axis) {
+            if (from >= to) {
+                return;
+            }
+            int middle = (from + to) >>> 1;
+
+            double deltaLatitude = latitude - latitudes[middle];
+            double deltaLongitude = (longitude - longitudes[middle]) * longitudeScale;
+            double distance = deltaLatitude * deltaLatitude + deltaLongitude * deltaLongitude;
+            if (distance < bestDistance) {
+                bestDistance = distance;
+                best = middle;
+            }
+
+            double delta = axis == 0 ? deltaLatitude : deltaLongitude;
+            if (delta < 0) {
+                run(from, middle, 1 - axis);
+                if (delta * delta < bestDistance) {
+                    run(middle + 1, to, 1 - axis);
+                }
+            } else {
+                run(middle + 1, to, 1 - axis);
+                if (delta * delta < bestDistance) {
+                    run(from, middle, 1 - axis);
+                }
+            }
+        }
+
+        /**
+         * Search the tree, then repeat with the query shifted by a full turn if places on the other side of the
+         * antimeridian can be closer than the best match.
+         */
+        void run() {
+            run(0, size, 0);
+            double antimeridian = (180 * COORDINATE_SCALE - Math.abs(longitude)) * longitudeScale;
+            if (antimeridian * antimeridian < bestDistance) {
+                longitude -= Math.signum(longitude) * 360 * COORDINATE_SCALE;
+                run(0, size, 0);
+            }
+        }
+
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public long getMemoryUsage() {
+        return memoryUsage;
+    }
+
+    @Override
+    public void setStatisticsManager(StatisticsManager statisticsManager) {
+    }
+
+    @Override
+    public String getAddress(double latitude, double longitude, ReverseGeocoderCallback callback) {
+        Search search = new Search(latitude, longitude);
+        search.run();
+
+        if (search.best < 0) {
+            if (callback != null) {
+                callback.onFailure(new GeocoderException("Local geocoder dataset is empty"));
+            }
+            return null;
+        }
+
+        if (maxDistance > 0 && DistanceCalculator.distance(
+                latitude, longitude, latitudes[search.best] / COORDINATE_SCALE,
+                longitudes[search.best] / COORDINATE_SCALE) > maxDistance) {
+            if (callback != null) {
+                callback.onFailure(new GeocoderException("No local geocoder place within maximum distance"));
+            }
+            return null;
+        }
+
+        int offset = search.best * FIELD_COUNT;
+        Address address = new Address();
+        address.setHouse(strings[fields[offset]]);
+        address.setStreet(strings[fields[offset + 1]]);
+        address.setSuburb(strings[fields[offset + 2]]);
+        address.setSettlement(strings[fields[offset + 3]]);
+        address.setDistrict(strings[fields[offset + 4]]);
+        address.setState(strings[fields[offset + 5]]);
+        address.setCountry(strings[fields[offset + 6]]);
+        address.setPostcode(strings[fields[offset + 7]]);
+
+        String formattedAddress = addressFormat.format(address);
+        if (callback != null) {
+            callback.onSuccess(formattedAddress);
+            return null;
+        }
+        return formattedAddress;
+    }
+
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright 2024 Anton Tananaev (anton@traccar.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.traccar.geocoder;
+
+import io.netty.util.Timeout;
+import io.netty.util.Timer;
+import org.traccar.database.StatisticsManager;
+import org.traccar.helper.TokenBucket;
+import org.traccar.model.Pair;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Geocoder wrapper that merges concurrent requests for the same location into a single provider call and limits
+ * the rate of provider calls. Requests exceeding the rate are queued and completed asynchronously. If the queue is
+ * full, new requests fail immediately instead of waiting. Synchronous requests block until the rate allows them.
+ */
+public class ThrottledGeocoder implements Geocoder {
+
+    private record PendingRequest(Pair<Long, Long> key, double latitude, double longitude) {
+    }
+
+    private final Geocoder geocoder;
+    private final Timer timer;
+    private final double scale;
+    private final TokenBucket tokenBucket;
+    private final int queueSize;
+
+    private final Map<Pair<Long, Long>, List<ReverseGeocoderCallback>> pending = new HashMap<>();
+    private final Queue<PendingRequest> queue = new ArrayDeque<>();
+    private boolean drainScheduled;
+
+    public ThrottledGeocoder(
+            Geocoder geocoder, Timer timer, int precision, double rateLimit, int rateBurst, int queueSize) {
+        this.geocoder = geocoder;
+        this.timer = timer;
+        this.scale = Math.pow(10, precision);
+        this.tokenBucket = rateLimit > 0 ? new TokenBucket(rateLimit, rateBurst) : null;
+        this.queueSize = queueSize;
+    }
+
+    @Override
+    public void setStatisticsManager(StatisticsManager statisticsManager) {
+        geocoder.setStatisticsManager(statisticsManager);
+    }
+
+    private Pair<Long, Long> quantize(double latitude, double longitude) {
+        return new Pair<>(Math.round(latitude * scale), Math.round(longitude * scale));
+    }
+
+    @Override
+    public String getAddress(double latitude, double longitude, ReverseGeocoderCallback callback) {
+
+        if (callback == null) {
+            if (tokenBucket != null && !acquireBlocking()) {
+                return null;
+            }
+            return geocoder.getAddress(latitude, longitude, null);
+        }
+
+        Pair<Long, Long> key = quantize(latitude, longitude);
+        boolean rejected = false;
+        synchronized (this) {
+            List<ReverseGeocoderCallback> callbacks = pending.get(key);
+            if (callbacks != null) {
+                callbacks.add(callback);
+                return null;
+            }
+            if (tokenBucket != null && (!queue.isEmpty() || !tokenBucket.tryAcquire())) {
+                if (queue.size() < queueSize) {
+                    pending.put(key, new LinkedList<>(List.of(callback)));
+                    queue.add(new PendingRequest(key, latitude, longitude));
+                    scheduleDrain();
+                    return null;
+                }
+                rejected = true;
+            } else {
+                pending.put(key, new LinkedList<>(List.of(callback)));
+            }
+        }
+
+        if (rejected) {
+            callback.onFailure(new GeocoderException("Geocoder request queue is full"));
+        } else {
+            send(key, latitude, longitude);
+        }
+        return null;
+    }
+
+    /**
+     * Synchronous requests come from API and report threads, so they wait for a token instead of failing.
+     */
+    private boolean acquireBlocking() {
+        while (!tokenBucket.tryAcquire()) {
+            try {
+                Thread.sleep(Math.max(1, tokenBucket.getDelay(TimeUnit.MILLISECONDS)));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void send(Pair<Long, Long> key, double latitude, double longitude) {
+        geocoder.getAddress(latitude, longitude, new ReverseGeocoderCallback() {
+            @Override
+            public void onSuccess(String address) {
+                complete(key).forEach(callback -> callback.onSuccess(address));
+            }
+
+            @Override
+            public void onFailure(Throwable e) {
+                complete(key).forEach(callback -> callback.onFailure(e));
+            }
+        });
+    }
+
+    private synchronized List<ReverseGeocoderCallback> complete(Pair<Long, Long> key) {
+        List<ReverseGeocoderCallback> callbacks = pending.remove(key);
+        return callbacks != null ? callbacks : List.of();
+    }
+
+    private void scheduleDrain() {
+        if (!drainScheduled) {
+            drainScheduled = true;
+            long delay = Math.max(1, tokenBucket.getDelay(TimeUnit.MILLISECONDS));
+            timer.newTimeout(this::drain, delay, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void drain(Timeout timeout) {
+        List<PendingRequest> requests = new ArrayList<>();
+        synchronized (this) {
+            drainScheduled = false;
+            while (!queue.isEmpty() && tokenBucket.tryAcquire()) {
+                requests.add(queue.poll());
+            }
+            if (!queue.isEmpty()) {
+                scheduleDrain();
+            }
+        }
+        requests.forEach(request -> send(request.key(), request.latitude(), request.longitude()));
+    }
+
+    public synchronized int getQueueSize() {
+        return queue.size();
+    }
+
+}
@@ -0,0 +1,194 @@
+/*
+ * Copyright 2024 Anton Tananaev (anton@traccar.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.traccar.geolocation;
+
+import org.traccar.config.Config;
+import org.traccar.config.Keys;
+import org.traccar.model.CellTower;
+import org.traccar.model.Network;
+import org.traccar.model.WifiAccessPoint;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Server-wide geolocation cache shared by all devices. Results are stored by a fingerprint of the strongest cell
+ * towers and Wi-Fi access points, so small changes in signal strength or ordering don't cause new requests.
+ * Optionally, locations of individual towers and access points are learned from valid GPS positions.
+ */
+public class GeolocationCache {
+
+    private static final double CELL_ACCURACY = 1000;
+    private static final double WIFI_ACCURACY = 100;
+
+    public record Location(double latitude, double longitude, double accuracy) {
+    }
+
+    private record CachedLocation(Location location, long time) {
+    }
+
+    private static final class LearnedLocation {
+
+        private double latitude;
+        private double longitude;
+        private int count;
+
+        void add(double latitude, double longitude) {
+            count += 1;
+            this.latitude += (latitude - this.latitude) / count;
+            this.longitude += (longitude - this.longitude) / count;
+        }
+
+    }
+
+    private final long timeout;
+    private final int fingerprintSize;
+
+    private final Map<String, CachedLocation> results;
+    private final Map<String, LearnedLocation> learned;
+
+    public GeolocationCache(Config config) {
+        int cacheSize = config.getInteger(Keys.GEOLOCATION_CACHE_SIZE);
+        timeout = TimeUnit.SECONDS.toMillis(config.getLong(Keys.GEOLOCATION_CACHE_TIMEOUT));
+        fingerprintSize = config.getInteger(Keys.GEOLOCATION_FINGERPRINT_SIZE);
+        results = createMap(cacheSize);
+        learned = config.getBoolean(Keys.GEOLOCATION_LEARN) ? createMap(cacheSize) : null;
+    }
+
+    private static <V> Map<String, V> createMap(int size) {
+        return Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry eldest) {
+                return size() > size;
+            }
+        });
+    }
+
+    private static String cellKey(CellTower cellTower) {
+        return "c" + cellTower.getMobileCountryCode() + ":" + cellTower.getMobileNetworkCode()
+                + ":" + cellTower.getLocationAreaCode() + ":" + cellTower.getCellId();
+    }
+
+    private static String wifiKey(WifiAccessPoint wifiAccessPoint) {
+        return "w" + wifiAccessPoint.getMacAddress().toLowerCase();
+    }
+
+    private static int signal(Integer signalStrength) {
+        return signalStrength != null ? signalStrength : Integer.MIN_VALUE;
+    }
+
+    private List<String> strongestCells(Network network) {
+        if (network.getCellTowers() == null) {
+            return List.of();
+        }
+        return network.getCellTowers().stream()
+                .filter(cellTower -> cellTower.getCellId() != null)
+                .sorted(Comparator.comparingInt((CellTower cellTower) -> signal(cellTower.getSignalStrength()))
+                        .reversed())
+                .limit(fingerprintSize)
+                .map(GeolocationCache::cellKey)
+                .toList();
+    }
+
+    private List<String> strongestAccessPoints(Network network) {
+        if (network.getWifiAccessPoints() == null) {
+            return List.of();
+        }
+        return network.getWifiAccessPoints().stream()
+                .filter(wifiAccessPoint -> wifiAccessPoint.getMacAddress() != null)
+                .sorted(Comparator.comparingInt(
+                        (WifiAccessPoint wifiAccessPoint) -> signal(wifiAccessPoint.getSignalStrength())).reversed())
+                .limit(fingerprintSize)
+                .map(GeolocationCache::wifiKey)
+                .toList();
+    }
+
+    public String fingerprint(Network network) {
+        List<String> keys = new ArrayList<>(strongestCells(network));
+        keys.addAll(strongestAccessPoints(network));
+        if (keys.isEmpty()) {
+            return null;
+        }
+        Collections.sort(keys);
+        return String.join(",", keys);
+    }
+
+    public Location get(Network network) {
+        String fingerprint = fingerprint(network);
+        if (fingerprint != null) {
+            CachedLocation cachedLocation = results.get(fingerprint);
+            if (cachedLocation != null) {
+                if (System.currentTimeMillis() - cachedLocation.time() <= timeout) {
+                    return cachedLocation.location();
+                }
+                results.remove(fingerprint);
+            }
+        }
+        return learned != null ? getLearned(network) : null;
+    }
+
+    public void put(Network network, double latitude, double longitude, double accuracy) {
+        String fingerprint = fingerprint(network);
+        if (fingerprint != null) {
+            results.put(fingerprint, new CachedLocation(
+                    new Location(latitude, longitude, accuracy), System.currentTimeMillis()));
+        }
+    }
+
+    private Location average(Collection<String> keys, double accuracy) {
+        double latitude = 0;
+        double longitude = 0;
+        int count = 0;
+        synchronized (learned) {
+            for (String key : keys) {
+                LearnedLocation location = learned.get(key);
+                if (location != null) {
+                    latitude += location.latitude;
+                    longitude += location.longitude;
+                    count += 1;
+                }
+            }
+        }
+        return count > 0 ? new Location(latitude / count, longitude / count, accuracy) : null;
+    }
+
+    private Location getLearned(Network network) {
+        Location location = average(strongestAccessPoints(network), WIFI_ACCURACY);
+        if (location == null) {
+            location = average(strongestCells(network), CELL_ACCURACY);
+        }
+        return location;
+    }
+
+    public void learn(Network network, double latitude, double longitude) {
+        if (learned != null) {
+            List<String> keys = new ArrayList<>(strongestCells(network));
+            keys.addAll(strongestAccessPoints(network));
+            synchronized (learned) {
+                for (String key : keys) {
+                    learned.computeIfAbsent(key, k -> new LearnedLocation()).add(latitude, longitude);
+                }
+            }
+        }
+    }
+
+}
@@ -17,11 +17,56 @@ package org.traccar.handler;
 
 import org.traccar.model.Position;
 
+import java.util.Set;
+import java.util.concurrent.Executor;
+
 public abstract class BasePositionHandler {
 
     public interface Callback {
         void processed(boolean filtered);
+
+        /**
+         * Report that an external provider used by the handler returned a result. Position processing continues as
+         * usual. Results produced without calling the provider are reported with {@link #processed(boolean)}.
+         */
+        default void succeeded() {
+            processed(false);
+        }
+
+        /**
+         * Report that an external provider used by the handler failed. Position processing continues as usual.
+         */
+        default void failed(Throwable error) {
+            processed(false);
+        }
+
+        /**
+         * Executor that processing should continue on if completion happens on a thread that must not block, like a
+         * timer thread.
+         */
+        default Executor executor() {
+            return Runnable::run;
+        }
     }
 
     public abstract void handlePosition(Position position, Callback callback);
+
+    /**
+     * Names of position fields read by the handler, for example "latitude" or "attributes".
+     *
+     * @return field names or {@code null} if the handler can access any field
+     */
+    public Set<String> getReadFields() {
+        return null;
+    }
+
+    /**
+     * Names of position fields modified by the handler.
+     *
+     * @return field names or {@code null} if the handler can modify any field
+     */
+    public Set<String> getWriteFields() {
+        return null;
+    }
+
 }
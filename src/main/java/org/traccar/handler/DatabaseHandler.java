@@ -18,6 +18,7 @@ package org.traccar.handler;
 import jakarta.inject.Inject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.traccar.database.RecentPositionManager;
 import org.traccar.database.StatisticsManager;
 import org.traccar.model.Position;
 import org.traccar.storage.Storage;
@@ -30,11 +31,14 @@ public class DatabaseHandler extends BasePositionHandler {
 
     private final Storage storage;
     private final StatisticsManager statisticsManager;
+    private final RecentPositionManager recentPositionManager;
 
     @Inject
-    public DatabaseHandler(Storage storage, StatisticsManager statisticsManager) {
+    public DatabaseHandler(
+            Storage storage, StatisticsManager statisticsManager, RecentPositionManager recentPositionManager) {
         this.storage = storage;
         this.statisticsManager = statisticsManager;
+        this.recentPositionManager = recentPositionManager;
     }
 
     @Override
@@ -43,6 +47,7 @@ public class DatabaseHandler extends BasePositionHandler {
         try {
             position.setId(storage.addObject(position, new Request(new Columns.Exclude("id"))));
             statisticsManager.registerMessageStored(position.getDeviceId(), position.getProtocol());
+            recentPositionManager.addPosition(position);
         } catch (Exception error) {
             LOGGER.warn("Failed to store position", error);
         }
@@ -20,12 +20,15 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.traccar.config.Config;
 import org.traccar.config.Keys;
+import org.traccar.database.RecentPositionManager;
 import org.traccar.database.StatisticsManager;
 import org.traccar.helper.UnitsConverter;
 import org.traccar.helper.model.AttributeUtil;
 import org.traccar.model.Calendar;
 import org.traccar.model.Device;
+import org.traccar.model.Group;
 import org.traccar.model.Position;
+import org.traccar.model.Server;
 import org.traccar.session.cache.CacheManager;
 import org.traccar.storage.Storage;
 import org.traccar.storage.StorageException;
@@ -34,7 +37,14 @@ import org.traccar.storage.query.Condition;
 import org.traccar.storage.query.Order;
 import org.traccar.storage.query.Request;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 
 public class FilterHandler extends BasePositionHandler {
 
@@ -61,10 +71,67 @@ public class FilterHandler extends BasePositionHandler {
     private final CacheManager cacheManager;
     private final Storage storage;
     private final StatisticsManager statisticsManager;
+    private final RecentPositionManager recentPositionManager;
+
+    private final Map<Long, DeviceProfile> profiles = new ConcurrentHashMap<>();
+
+    /**
+     * Device specific filter settings resolved from device, group and server attributes. Profile is rebuilt when any
+     * of the objects it was resolved from is replaced in the cache.
+     */
+    private static final class DeviceProfile {
+
+        private final Device device;
+        private final Server server;
+        private final List<Group> groups = new ArrayList<>();
+        private final Calendar calendar;
+        private final Set<String> skipAttributes;
+
+        DeviceProfile(CacheManager cacheManager, Device device, boolean skipAttributesEnabled) {
+            this.device = device;
+            this.server = cacheManager.getServer();
+            long groupId = device.getGroupId();
+            while (groupId > 0) {
+                Group group = cacheManager.getObject(Group.class, groupId);
+                if (group == null) {
+                    break;
+                }
+                groups.add(group);
+                groupId = group.getGroupId();
+            }
+            if (device.getCalendarId() > 0) {
+                calendar = cacheManager.getObject(Calendar.class, device.getCalendarId());
+            } else {
+                calendar = null;
+            }
+            if (skipAttributesEnabled) {
+                String string = AttributeUtil.lookup(cacheManager, Keys.FILTER_SKIP_ATTRIBUTES, device.getId());
+                skipAttributes = Arrays.stream(string.split("[ ,]"))
+                        .filter(attribute -> !attribute.isEmpty())
+                        .collect(Collectors.toUnmodifiableSet());
+            } else {
+                skipAttributes = Set.of();
+            }
+        }
+
+        boolean isCurrent(CacheManager cacheManager, Device device) {
+            if (device != this.device || cacheManager.getServer() != server) {
+                return false;
+            }
+            for (Group group : groups) {
+                if (cacheManager.getObject(Group.class, group.getId()) != group) {
+                    return false;
+                }
+            }
+            return calendar == null || cacheManager.getObject(Calendar.class, calendar.getId()) == calendar;
+        }
+
+    }
 
     @Inject
     public FilterHandler(
-            Config config, CacheManager cacheManager, Storage storage, StatisticsManager statisticsManager) {
+            Config config, CacheManager cacheManager, Storage storage, StatisticsManager statisticsManager,
+            RecentPositionManager recentPositionManager) {
         filterInvalid = config.getBoolean(Keys.FILTER_INVALID);
         filterZero = config.getBoolean(Keys.FILTER_ZERO);
         filterDuplicate = config.getBoolean(Keys.FILTER_DUPLICATE);
@@ -85,9 +152,17 @@ public class FilterHandler extends BasePositionHandler {
         this.cacheManager = cacheManager;
         this.storage = storage;
         this.statisticsManager = statisticsManager;
+        this.recentPositionManager = recentPositionManager;
+        cacheManager.addRemovalListener(profiles::remove);
     }
 
     private Position getPrecedingPosition(long deviceId, Date date) throws StorageException {
+        if (recentPositionManager != null) {
+            Position position = recentPositionManager.getPrecedingPosition(deviceId, date);
+            if (position != null) {
+                return position;
+            }
+        }
         return storage.getObject(Position.class, new Request(
                 new Columns.All(),
                 new Condition.And(
@@ -183,18 +258,24 @@ public class FilterHandler extends BasePositionHandler {
         return false;
     }
 
-    private boolean skipAttributes(Position position) {
-        if (skipAttributes) {
-            String string = AttributeUtil.lookup(cacheManager, Keys.FILTER_SKIP_ATTRIBUTES, position.getDeviceId());
-            for (String attribute : string.split("[ ,]")) {
-                if (position.hasAttribute(attribute)) {
-                    return true;
-                }
+    private boolean skipAttributes(Position position, DeviceProfile profile) {
+        for (String attribute : profile.skipAttributes) {
+            if (position.hasAttribute(attribute)) {
+                return true;
             }
         }
         return false;
     }
 
+    private DeviceProfile getProfile(Device device) {
+        DeviceProfile profile = profiles.get(device.getId());
+        if (profile == null || !profile.isCurrent(cacheManager, device)) {
+            profile = new DeviceProfile(cacheManager, device, skipAttributes);
+            profiles.put(device.getId(), profile);
+        }
+        return profile;
+    }
+
     protected boolean filter(Position position) {
 
         StringBuilder filterType = new StringBuilder();
@@ -222,10 +303,16 @@ public class FilterHandler extends BasePositionHandler {
             filterType.append("Approximate ");
         }
 
-        // filter out excessive data
         long deviceId = position.getDeviceId();
-        if (filterDuplicate || filterStatic
-                || filterDistance > 0 || filterMaxSpeed > 0 || filterMinPeriod > 0 || filterDailyLimit > 0) {
+        Device device = cacheManager.getObject(Device.class, deviceId);
+        DeviceProfile profile = getProfile(device);
+        if (profile.calendar != null && !profile.calendar.checkMoment(position.getFixTime())) {
+            filterType.append("Calendar ");
+        }
+
+        // filter out excessive data, preceding position lookup is skipped if position is already filtered
+        if (filterType.length() == 0 && (filterDuplicate || filterStatic
+                || filterDistance > 0 || filterMaxSpeed > 0 || filterMinPeriod > 0 || filterDailyLimit > 0)) {
             Position preceding;
             if (filterRelative) {
                 try {
@@ -238,14 +325,20 @@ public class FilterHandler extends BasePositionHandler {
             } else {
                 preceding = cacheManager.getPosition(deviceId);
             }
-            if (filterDuplicate(position, preceding) && !skipLimit(position, preceding) && !skipAttributes(position)) {
-                filterType.append("Duplicate ");
-            }
-            if (filterStatic(position) && !skipLimit(position, preceding) && !skipAttributes(position)) {
-                filterType.append("Static ");
-            }
-            if (filterDistance(position, preceding) && !skipLimit(position, preceding) && !skipAttributes(position)) {
-                filterType.append("Distance ");
+            boolean duplicate = filterDuplicate(position, preceding);
+            boolean stationary = filterStatic(position);
+            boolean distance = filterDistance(position, preceding);
+            if ((duplicate || stationary || distance)
+                    && !skipLimit(position, preceding) && !skipAttributes(position, profile)) {
+                if (duplicate) {
+                    filterType.append("Duplicate ");
+                }
+                if (stationary) {
+                    filterType.append("Static ");
+                }
+                if (distance) {
+                    filterType.append("Distance ");
+                }
             }
             if (filterMaxSpeed(position, preceding)) {
                 filterType.append("MaxSpeed ");
@@ -258,14 +351,6 @@ public class FilterHandler extends BasePositionHandler {
             }
         }
 
-        Device device = cacheManager.getObject(Device.class, deviceId);
-        if (device.getCalendarId() > 0) {
-            Calendar calendar = cacheManager.getObject(Calendar.class, device.getCalendarId());
-            if (!calendar.checkMoment(position.getFixTime())) {
-                filterType.append("Calendar ");
-            }
-        }
-
         if (filterType.length() > 0) {
             LOGGER.info("Position filtered by {}filters from device: {}", filterType, device.getUniqueId());
             return true;
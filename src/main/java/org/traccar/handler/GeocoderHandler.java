@@ -23,6 +23,8 @@ import org.traccar.geocoder.Geocoder;
 import org.traccar.model.Position;
 import org.traccar.session.cache.CacheManager;
 
+import java.util.Set;
+
 public class GeocoderHandler extends BasePositionHandler {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(GeocoderHandler.class);
@@ -59,13 +61,13 @@ public class GeocoderHandler extends BasePositionHandler {
                 @Override
                 public void onSuccess(String address) {
                     position.setAddress(address);
-                    callback.processed(false);
+                    callback.succeeded();
                 }
 
                 @Override
                 public void onFailure(Throwable e) {
                     LOGGER.warn("Geocoding failed", e);
-                    callback.processed(false);
+                    callback.failed(e);
                 }
             });
         } else {
@@ -73,4 +75,18 @@ public class GeocoderHandler extends BasePositionHandler {
         }
     }
 
+    @Override
+    public Set<String> getReadFields() {
+        if (reuseDistance != 0) {
+            return Set.of("deviceId", "valid", "latitude", "longitude", "attributes");
+        } else {
+            return Set.of("valid", "latitude", "longitude");
+        }
+    }
+
+    @Override
+    public Set<String> getWriteFields() {
+        return Set.of("address");
+    }
+
 }
@@ -22,6 +22,7 @@ import org.traccar.model.Position;
 import org.traccar.session.cache.CacheManager;
 
 import java.util.List;
+import java.util.Set;
 
 public class GeofenceHandler extends BasePositionHandler {
 
@@ -44,4 +45,14 @@ public class GeofenceHandler extends BasePositionHandler {
         callback.processed(false);
     }
 
+    @Override
+    public Set<String> getReadFields() {
+        return Set.of("deviceId", "latitude", "longitude");
+    }
+
+    @Override
+    public Set<String> getWriteFields() {
+        return Set.of("geofenceIds");
+    }
+
 }
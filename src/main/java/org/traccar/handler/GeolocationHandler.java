@@ -20,6 +20,7 @@ import org.slf4j.LoggerFactory;
 import org.traccar.config.Config;
 import org.traccar.config.Keys;
 import org.traccar.database.StatisticsManager;
+import org.traccar.geolocation.GeolocationCache;
 import org.traccar.geolocation.GeolocationProvider;
 import org.traccar.model.Position;
 import org.traccar.session.cache.CacheManager;
@@ -34,6 +35,7 @@ public class GeolocationHandler extends BasePositionHandler {
     private final boolean processInvalidPositions;
     private final boolean reuse;
     private final boolean requireWifi;
+    private final GeolocationCache geolocationCache;
 
     public GeolocationHandler(
             Config config, GeolocationProvider geolocationProvider, CacheManager cacheManager,
@@ -44,6 +46,11 @@ public class GeolocationHandler extends BasePositionHandler {
         processInvalidPositions = config.getBoolean(Keys.GEOLOCATION_PROCESS_INVALID_POSITIONS);
         reuse = config.getBoolean(Keys.GEOLOCATION_REUSE);
         requireWifi = config.getBoolean(Keys.GEOLOCATION_REQUIRE_WIFI);
+        if (config.getInteger(Keys.GEOLOCATION_CACHE_SIZE) > 0) {
+            geolocationCache = new GeolocationCache(config);
+        } else {
+            geolocationCache = null;
+        }
     }
 
     @Override
@@ -62,6 +69,15 @@ public class GeolocationHandler extends BasePositionHandler {
                 }
             }
 
+            if (geolocationCache != null) {
+                GeolocationCache.Location location = geolocationCache.get(position.getNetwork());
+                if (location != null) {
+                    updatePosition(position, location.latitude(), location.longitude(), location.accuracy());
+                    callback.processed(false);
+                    return;
+                }
+            }
+
             if (statisticsManager != null) {
                 statisticsManager.registerGeolocationRequest();
             }
@@ -70,17 +86,24 @@ public class GeolocationHandler extends BasePositionHandler {
                     new GeolocationProvider.LocationProviderCallback() {
                 @Override
                 public void onSuccess(double latitude, double longitude, double accuracy) {
+                    if (geolocationCache != null) {
+                        geolocationCache.put(position.getNetwork(), latitude, longitude, accuracy);
+                    }
                     updatePosition(position, latitude, longitude, accuracy);
-                    callback.processed(false);
+                    callback.succeeded();
                 }
 
                 @Override
                 public void onFailure(Throwable e) {
                     LOGGER.warn("Geolocation network error", e);
-                    callback.processed(false);
+                    callback.failed(e);
                 }
             });
         } else {
+            if (geolocationCache != null && position.getValid() && !position.getOutdated()
+                    && position.getNetwork() != null && !position.getBoolean(Position.KEY_APPROXIMATE)) {
+                geolocationCache.learn(position.getNetwork(), position.getLatitude(), position.getLongitude());
+            }
             callback.processed(false);
         }
     }
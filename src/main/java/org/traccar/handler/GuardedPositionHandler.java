@@ -0,0 +1,229 @@
+/*
+ * Copyright 2024 Anton Tananaev (anton@traccar.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.traccar.handler;
+
+import io.netty.util.Timeout;
+import io.netty.util.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.traccar.helper.CircuitBreaker;
+import org.traccar.helper.GuardMetrics;
+import org.traccar.model.Position;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Wraps an asynchronous handler with a deadline and a circuit breaker. If the handler doesn't complete in time,
+ * processing continues without its result, so a hanging provider doesn't stall the device queue. While the breaker
+ * is open the handler is skipped completely. Only results of actual provider calls are counted by the breaker.
+ * <p>
+ * On timeout, processing continues on the executor provided by the callback, normally the channel event loop, so the
+ * rest of the pipeline never runs on the shared timer thread.
+ * <p>
+ * Wrapped handler works on a copy of the position. Fields it writes are copied back only if it completes in time, so
+ * a late result can't change a position that is already processed further.
+ */
+public class GuardedPositionHandler extends BasePositionHandler implements GuardMetrics {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(GuardedPositionHandler.class);
+
+    private final BasePositionHandler handler;
+    private final Timer timer;
+    private final long timeout;
+    private final CircuitBreaker circuitBreaker;
+
+    private final AtomicLong timeouts = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+
+    public GuardedPositionHandler(
+            BasePositionHandler handler, Timer timer, long timeout, CircuitBreaker circuitBreaker) {
+        this.handler = handler;
+        this.timer = timer;
+        this.timeout = timeout;
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    public BasePositionHandler getHandler() {
+        return handler;
+    }
+
+    @Override
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    @Override
+    public long getTimeouts() {
+        return timeouts.get();
+    }
+
+    @Override
+    public long getFailures() {
+        return failures.get();
+    }
+
+    @Override
+    public long getSkipped() {
+        return skipped.get();
+    }
+
+    @Override
+    public Set<String> getReadFields() {
+        return handler.getReadFields();
+    }
+
+    @Override
+    public Set<String> getWriteFields() {
+        return handler.getWriteFields();
+    }
+
+    private void registerFailure() {
+        if (circuitBreaker.recordFailure()) {
+            LOGGER.warn("{} circuit breaker opened", handler.getClass().getSimpleName());
+        }
+    }
+
+    private static boolean includes(Set<String> fields, String field) {
+        return fields == null || fields.contains(field);
+    }
+
+    /**
+     * Copy position fields, or all of them if the set is {@code null}.
+     */
+    private static void copyFields(Position source, Position target, Set<String> fields) {
+        if (includes(fields, "id")) {
+            target.setId(source.getId());
+        }
+        if (includes(fields, "deviceId")) {
+            target.setDeviceId(source.getDeviceId());
+        }
+        if (includes(fields, "protocol")) {
+            target.setProtocol(source.getProtocol());
+        }
+        if (includes(fields, "serverTime")) {
+            target.setServerTime(source.getServerTime());
+        }
+        if (includes(fields, "deviceTime")) {
+            target.setDeviceTime(source.getDeviceTime());
+        }
+        if (includes(fields, "fixTime")) {
+            target.setFixTime(source.getFixTime());
+        }
+        if (includes(fields, "outdated")) {
+            target.setOutdated(source.getOutdated());
+        }
+        if (includes(fields, "valid")) {
+            target.setValid(source.getValid());
+        }
+        if (includes(fields, "latitude")) {
+            target.setLatitude(source.getLatitude());
+        }
+        if (includes(fields, "longitude")) {
+            target.setLongitude(source.getLongitude());
+        }
+        if (includes(fields, "altitude")) {
+            target.setAltitude(source.getAltitude());
+        }
+        if (includes(fields, "speed")) {
+            target.setSpeed(source.getSpeed());
+        }
+        if (includes(fields, "course")) {
+            target.setCourse(source.getCourse());
+        }
+        if (includes(fields, "address")) {
+            target.setAddress(source.getAddress());
+        }
+        if (includes(fields, "accuracy")) {
+            target.setAccuracy(source.getAccuracy());
+        }
+        if (includes(fields, "network")) {
+            target.setNetwork(source.getNetwork());
+        }
+        if (includes(fields, "geofenceIds")) {
+            target.setGeofenceIds(source.getGeofenceIds() != null ? new ArrayList<>(source.getGeofenceIds()) : null);
+        }
+        if (includes(fields, "attributes")) {
+            target.setAttributes(new LinkedHashMap<>(source.getAttributes()));
+        }
+    }
+
+    @Override
+    public void handlePosition(Position position, Callback callback) {
+        if (!circuitBreaker.allowRequest()) {
+            skipped.incrementAndGet();
+            callback.processed(false);
+            return;
+        }
+
+        Position copy = new Position();
+        copyFields(position, copy, null);
+
+        AtomicBoolean completed = new AtomicBoolean();
+        Timeout deadline = timer.newTimeout(t -> {
+            if (completed.compareAndSet(false, true)) {
+                timeouts.incrementAndGet();
+                registerFailure();
+                callback.executor().execute(() -> callback.processed(false));
+            }
+        }, timeout, TimeUnit.MILLISECONDS);
+
+        handler.handlePosition(copy, new Callback() {
+            @Override
+            public void processed(boolean filtered) {
+                if (completed.compareAndSet(false, true)) {
+                    deadline.cancel();
+                    circuitBreaker.releaseProbe();
+                    copyFields(copy, position, handler.getWriteFields());
+                    callback.processed(filtered);
+                }
+            }
+
+            @Override
+            public void succeeded() {
+                if (completed.compareAndSet(false, true)) {
+                    deadline.cancel();
+                    circuitBreaker.recordSuccess();
+                    copyFields(copy, position, handler.getWriteFields());
+                    callback.processed(false);
+                }
+            }
+
+            @Override
+            public void failed(Throwable error) {
+                if (completed.compareAndSet(false, true)) {
+                    deadline.cancel();
+                    failures.incrementAndGet();
+                    registerFailure();
+                    copyFields(copy, position, handler.getWriteFields());
+                    callback.processed(false);
+                }
+            }
+
+            @Override
+            public Executor executor() {
+                return callback.executor();
+            }
+        });
+    }
+
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2024 Anton Tananaev (anton@traccar.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.traccar.handler;
+
+import org.traccar.model.Position;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Starts a group of independent handlers at once and continues when all of them are finished. Handlers in a group
+ * don't write fields that other handlers in the group read or write, so the result doesn't depend on the order in
+ * which asynchronous handlers complete.
+ */
+public class ParallelPositionHandler extends BasePositionHandler {
+
+    private final List<BasePositionHandler> handlers;
+    private final Set<String> readFields = new HashSet<>();
+    private final Set<String> writeFields = new HashSet<>();
+
+    public ParallelPositionHandler(List<BasePositionHandler> handlers) {
+        this.handlers = List.copyOf(handlers);
+        for (BasePositionHandler handler : handlers) {
+            readFields.addAll(handler.getReadFields());
+            writeFields.addAll(handler.getWriteFields());
+        }
+    }
+
+    public List<BasePositionHandler> getHandlers() {
+        return handlers;
+    }
+
+    @Override
+    public Set<String> getReadFields() {
+        return readFields;
+    }
+
+    @Override
+    public Set<String> getWriteFields() {
+        return writeFields;
+    }
+
+    @Override
+    public void handlePosition(Position position, Callback callback) {
+        AtomicInteger remaining = new AtomicInteger(handlers.size());
+        AtomicBoolean filtered = new AtomicBoolean();
+        for (BasePositionHandler handler : handlers) {
+            handler.handlePosition(position, new Callback() {
+                @Override
+                public void processed(boolean handlerFiltered) {
+                    if (handlerFiltered) {
+                        filtered.set(true);
+                    }
+                    if (remaining.decrementAndGet() == 0) {
+                        callback.processed(filtered.get());
+                    }
+                }
+
+                @Override
+                public Executor executor() {
+                    return callback.executor();
+                }
+            });
+        }
+    }
+
+    private static boolean isIndependent(BasePositionHandler handler, List<BasePositionHandler> group) {
+        Set<String> reads = handler.getReadFields();
+        Set<String> writes = handler.getWriteFields();
+        if (reads == null || writes == null) {
+            return false;
+        }
+        for (BasePositionHandler other : group) {
+            if (other.getReadFields() == null || other.getWriteFields() == null
+                    || !Collections.disjoint(writes, other.getReadFields())
+                    || !Collections.disjoint(writes, other.getWriteFields())
+                    || !Collections.disjoint(reads, other.getWriteFields())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Combine consecutive handlers that declare non-conflicting fields into parallel groups. Relative order of
+     * dependent handlers is preserved.
+     */
+    public static List<BasePositionHandler> group(List<BasePositionHandler> handlers) {
+        List<BasePositionHandler> result = new ArrayList<>();
+        List<BasePositionHandler> group = new ArrayList<>();
+        for (BasePositionHandler handler : handlers) {
+            if (!group.isEmpty() && !isIndependent(handler, group)) {
+                result.add(group.size() > 1 ? new ParallelPositionHandler(group) : group.get(0));
+                group.clear();
+            }
+            group.add(handler);
+        }
+        if (!group.isEmpty()) {
+            result.add(group.size() > 1 ? new ParallelPositionHandler(group) : group.get(0));
+        }
+        return result;
+    }
+
+}
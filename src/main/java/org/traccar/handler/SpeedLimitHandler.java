@@ -21,6 +21,8 @@ import org.slf4j.LoggerFactory;
 import org.traccar.model.Position;
 import org.traccar.speedlimit.SpeedLimitProvider;
 
+import java.util.Set;
+
 public class SpeedLimitHandler extends BasePositionHandler {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(SpeedLimitHandler.class);
@@ -40,15 +42,25 @@ public class SpeedLimitHandler extends BasePositionHandler {
             @Override
             public void onSuccess(double speedLimit) {
                 position.set(Position.KEY_SPEED_LIMIT, speedLimit);
-                callback.processed(false);
+                callback.succeeded();
             }
 
             @Override
             public void onFailure(Throwable e) {
                 LOGGER.warn("Speed limit provider failed", e);
-                callback.processed(false);
+                callback.failed(e);
             }
         });
     }
 
+    @Override
+    public Set<String> getReadFields() {
+        return Set.of("latitude", "longitude");
+    }
+
+    @Override
+    public Set<String> getWriteFields() {
+        return Set.of("attributes");
+    }
+
 }
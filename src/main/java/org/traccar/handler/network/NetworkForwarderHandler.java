@@ -1,5 +1,5 @@
 /*
- * Copyright 2023 Anton Tananaev (anton@traccar.org)
+ * Copyright 2023 - 2024 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -23,8 +23,6 @@ import io.netty.channel.socket.DatagramPacket;
 import org.traccar.forward.NetworkForwarder;
 
 import jakarta.inject.Inject;
-import java.net.InetSocketAddress;
-import java.net.SocketAddress;
 
 public class NetworkForwarderHandler extends ChannelInboundHandlerAdapter {
 
@@ -44,27 +42,21 @@ public class NetworkForwarderHandler extends ChannelInboundHandlerAdapter {
     @Override
     public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
         boolean datagram = ctx.channel() instanceof DatagramChannel;
-        SocketAddress remoteAddress;
         ByteBuf buffer;
         if (datagram) {
-            DatagramPacket message = (DatagramPacket) msg;
-            remoteAddress = message.recipient();
-            buffer = message.content();
+            buffer = ((DatagramPacket) msg).content();
         } else {
-            remoteAddress = ctx.channel().remoteAddress();
             buffer = (ByteBuf) msg;
         }
 
-        byte[] data = new byte[buffer.readableBytes()];
-        buffer.getBytes(buffer.readerIndex(), data);
-        networkForwarder.forward((InetSocketAddress) remoteAddress, port, datagram, data);
+        networkForwarder.forward(ctx.channel(), port, datagram, buffer.retainedDuplicate());
         super.channelRead(ctx, msg);
     }
 
     @Override
     public void channelInactive(ChannelHandlerContext ctx) throws Exception {
         if (!(ctx.channel() instanceof DatagramChannel)) {
-            networkForwarder.disconnect((InetSocketAddress) ctx.channel().remoteAddress());
+            networkForwarder.disconnect(ctx.channel());
         }
         super.channelInactive(ctx);
     }
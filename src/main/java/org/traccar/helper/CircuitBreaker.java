@@ -0,0 +1,92 @@
+/*
+ * Copyright 2024 Anton Tananaev (anton@traccar.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.traccar.helper;
+
+/**
+ * Opens after a number of consecutive failures and rejects requests for the given duration. After that a single probe
+ * request is allowed; its success closes the breaker and its failure opens it again.
+ */
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openDuration;
+
+    private State state = State.CLOSED;
+    private int failures;
+    private long openedTime;
+    private long trips;
+
+    public CircuitBreaker(int failureThreshold, long openDuration) {
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openDuration = openDuration;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public synchronized long getTrips() {
+        return trips;
+    }
+
+    public synchronized boolean allowRequest() {
+        return switch (state) {
+            case CLOSED -> true;
+            case OPEN -> {
+                if (System.currentTimeMillis() - openedTime >= openDuration) {
+                    state = State.HALF_OPEN;
+                    yield true;
+                }
+                yield false;
+            }
+            case HALF_OPEN -> false;
+        };
+    }
+
+    /**
+     * Return the probe allowed in the half-open state without an outcome, for example when the request was served
+     * without calling the guarded service. Next request becomes the probe.
+     */
+    public synchronized void releaseProbe() {
+        if (state == State.HALF_OPEN) {
+            state = State.OPEN;
+        }
+    }
+
+    public synchronized void recordSuccess() {
+        state = State.CLOSED;
+        failures = 0;
+    }
+
+    /**
+     * @return {@code true} if the failure opened the breaker
+     */
+    public synchronized boolean recordFailure() {
+        failures += 1;
+        if (state == State.HALF_OPEN || state == State.CLOSED && failures >= failureThreshold) {
+            state = State.OPEN;
+            openedTime = System.currentTimeMillis();
+            trips += 1;
+            return true;
+        }
+        return false;
+    }
+
+}
@@ -0,0 +1,321 @@
+/*
+ * Copyright 2024 Anton Tananaev (anton@traccar.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.traccar.helper;
+
+import org.traccar.model.Device;
+import org.traccar.model.Event;
+import org.traccar.model.Geofence;
+import org.traccar.model.Maintenance;
+import org.traccar.model.Position;
+import org.traccar.protobuf.v1.TraccarMessages;
+
+import java.text.ParseException;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Conversion between models and their compact protobuf representation. Position network information is not included.
+ */
+public final class ProtobufConverter {
+
+    private ProtobufConverter() {
+    }
+
+    private static Map<String, TraccarMessages.AttributeValue> toProto(Map<String, Object> attributes) {
+        Map<String, TraccarMessages.AttributeValue> result = new HashMap<>();
+        for (Map.Entry<String, Object> entry : attributes.entrySet()) {
+            var value = TraccarMessages.AttributeValue.newBuilder();
+            Object attribute = entry.getValue();
+            if (attribute instanceof Boolean booleanValue) {
+                value.setBoolValue(booleanValue);
+            } else if (attribute instanceof Double || attribute instanceof Float) {
+                value.setDoubleValue(((Number) attribute).doubleValue());
+            } else if (attribute instanceof Number number) {
+                value.setLongValue(number.longValue());
+            } else if (attribute != null) {
+                value.setStringValue(attribute.toString());
+            } else {
+                continue;
+            }
+            result.put(entry.getKey(), value.build());
+        }
+        return result;
+    }
+
+    private static Map<String, Object> fromProto(Map<String, TraccarMessages.AttributeValue> attributes) {
+        Map<String, Object> result = new HashMap<>();
+        for (Map.Entry<String, TraccarMessages.AttributeValue> entry : attributes.entrySet()) {
+            var value = entry.getValue();
+            switch (value.getValueCase()) {
+                case STRING_VALUE -> result.put(entry.getKey(), value.getStringValue());
+                case DOUBLE_VALUE -> result.put(entry.getKey(), value.getDoubleValue());
+                case LONG_VALUE -> result.put(entry.getKey(), value.getLongValue());
+                case BOOL_VALUE -> result.put(entry.getKey(), value.getBoolValue());
+                default -> {
+                }
+            }
+        }
+        return result;
+    }
+
+    private static Date toDate(long time) {
+        return new Date(time);
+    }
+
+    public static TraccarMessages.Position toProto(Position position) {
+        var builder = TraccarMessages.Position.newBuilder()
+                .setId(position.getId())
+                .setDeviceId(position.getDeviceId())
+                .setOutdated(position.getOutdated())
+                .setValid(position.getValid())
+                .setLatitude(position.getLatitude())
+                .setLongitude(position.getLongitude())
+                .setAltitude(position.getAltitude())
+                .setSpeed(position.getSpeed())
+                .setCourse(position.getCourse())
+                .setAccuracy(position.getAccuracy())
+                .putAllAttributes(toProto(position.getAttributes()));
+        if (position.getProtocol() != null) {
+            builder.setProtocol(position.getProtocol());
+        }
+        if (position.getServerTime() != null) {
+            builder.setServerTime(position.getServerTime().getTime());
+        }
+        if (position.getDeviceTime() != null) {
+            builder.setDeviceTime(position.getDeviceTime().getTime());
+        }
+        if (position.getFixTime() != null) {
+            builder.setFixTime(position.getFixTime().getTime());
+        }
+        if (position.getAddress() != null) {
+            builder.setAddress(position.getAddress());
+        }
+        if (position.getGeofenceIds() != null) {
+            builder.addAllGeofenceIds(position.getGeofenceIds());
+        }
+        return builder.build();
+    }
+
+    public static Position fromProto(TraccarMessages.Position message) {
+        Position position = new Position();
+        position.setId(message.getId());
+        position.setDeviceId(message.getDeviceId());
+        position.setOutdated(message.getOutdated());
+        position.setValid(message.getValid());
+        position.setLatitude(message.getLatitude());
+        position.setLongitude(message.getLongitude());
+        position.setAltitude(message.getAltitude());
+        position.setSpeed(message.getSpeed());
+        position.setCourse(message.getCourse());
+        position.setAccuracy(message.getAccuracy());
+        position.setAttributes(fromProto(message.getAttributesMap()));
+        if (message.hasProtocol()) {
+            position.setProtocol(message.getProtocol());
+        }
+        if (message.hasServerTime()) {
+            position.setServerTime(toDate(message.getServerTime()));
+        }
+        if (message.hasDeviceTime()) {
+            position.setDeviceTime(toDate(message.getDeviceTime()));
+        }
+        if (message.hasFixTime()) {
+            position.setFixTime(toDate(message.getFixTime()));
+        }
+        if (message.hasAddress()) {
+            position.setAddress(message.getAddress());
+        }
+        if (message.getGeofenceIdsCount() > 0) {
+            position.setGeofenceIds(message.getGeofenceIdsList());
+        }
+        return position;
+    }
+
+    public static TraccarMessages.Device toProto(Device device) {
+        var builder = TraccarMessages.Device.newBuilder()
+                .setId(device.getId())
+                .setGroupId(device.getGroupId())
+                .setCalendarId(device.getCalendarId())
+                .setPositionId(device.getPositionId())
+                .setDisabled(device.getDisabled())
+                .putAllAttributes(toProto(device.getAttributes()));
+        if (device.getName() != null) {
+            builder.setName(device.getName());
+        }
+        if (device.getUniqueId() != null) {
+            builder.setUniqueId(device.getUniqueId());
+        }
+        if (device.getStatus() != null) {
+            builder.setStatus(device.getStatus());
+        }
+        if (device.getLastUpdate() != null) {
+            builder.setLastUpdate(device.getLastUpdate().getTime());
+        }
+        if (device.getPhone() != null) {
+            builder.setPhone(device.getPhone());
+        }
+        if (device.getModel() != null) {
+            builder.setModel(device.getModel());
+        }
+        if (device.getContact() != null) {
+            builder.setContact(device.getContact());
+        }
+        if (device.getCategory() != null) {
+            builder.setCategory(device.getCategory());
+        }
+        if (device.getExpirationTime() != null) {
+            builder.setExpirationTime(device.getExpirationTime().getTime());
+        }
+        return builder.build();
+    }
+
+    public static Device fromProto(TraccarMessages.Device message) {
+        Device device = new Device();
+        device.setId(message.getId());
+        device.setGroupId(message.getGroupId());
+        device.setCalendarId(message.getCalendarId());
+        device.setPositionId(message.getPositionId());
+        device.setDisabled(message.getDisabled());
+        device.setAttributes(fromProto(message.getAttributesMap()));
+        if (message.hasName()) {
+            device.setName(message.getName());
+        }
+        if (message.hasUniqueId()) {
+            device.setUniqueId(message.getUniqueId());
+        }
+        if (message.hasStatus()) {
+            device.setStatus(message.getStatus());
+        }
+        if (message.hasLastUpdate()) {
+            device.setLastUpdate(toDate(message.getLastUpdate()));
+        }
+        if (message.hasPhone()) {
+            device.setPhone(message.getPhone());
+        }
+        if (message.hasModel()) {
+            device.setModel(message.getModel());
+        }
+        if (message.hasContact()) {
+            device.setContact(message.getContact());
+        }
+        if (message.hasCategory()) {
+            device.setCategory(message.getCategory());
+        }
+        if (message.hasExpirationTime()) {
+            device.setExpirationTime(toDate(message.getExpirationTime()));
+        }
+        return device;
+    }
+
+    public static TraccarMessages.Event toProto(Event event) {
+        var builder = TraccarMessages.Event.newBuilder()
+                .setId(event.getId())
+                .setDeviceId(event.getDeviceId())
+                .setPositionId(event.getPositionId())
+                .setGeofenceId(event.getGeofenceId())
+                .setMaintenanceId(event.getMaintenanceId())
+                .putAllAttributes(toProto(event.getAttributes()));
+        if (event.getType() != null) {
+            builder.setType(event.getType());
+        }
+        if (event.getEventTime() != null) {
+            builder.setEventTime(event.getEventTime().getTime());
+        }
+        return builder.build();
+    }
+
+    public static Event fromProto(TraccarMessages.Event message) {
+        Event event = new Event();
+        event.setId(message.getId());
+        event.setDeviceId(message.getDeviceId());
+        event.setPositionId(message.getPositionId());
+        event.setGeofenceId(message.getGeofenceId());
+        event.setMaintenanceId(message.getMaintenanceId());
+        event.setAttributes(fromProto(message.getAttributesMap()));
+        if (message.hasType()) {
+            event.setType(message.getType());
+        }
+        if (message.hasEventTime()) {
+            event.setEventTime(toDate(message.getEventTime()));
+        }
+        return event;
+    }
+
+    public static TraccarMessages.Geofence toProto(Geofence geofence) {
+        var builder = TraccarMessages.Geofence.newBuilder()
+                .setId(geofence.getId())
+                .setCalendarId(geofence.getCalendarId())
+                .putAllAttributes(toProto(geofence.getAttributes()));
+        if (geofence.getName() != null) {
+            builder.setName(geofence.getName());
+        }
+        if (geofence.getDescription() != null) {
+            builder.setDescription(geofence.getDescription());
+        }
+        if (geofence.getArea() != null) {
+            builder.setArea(geofence.getArea());
+        }
+        return builder.build();
+    }
+
+    public static Geofence fromProto(TraccarMessages.Geofence message) throws ParseException {
+        Geofence geofence = new Geofence();
+        geofence.setId(message.getId());
+        geofence.setCalendarId(message.getCalendarId());
+        geofence.setAttributes(fromProto(message.getAttributesMap()));
+        if (message.hasName()) {
+            geofence.setName(message.getName());
+        }
+        if (message.hasDescription()) {
+            geofence.setDescription(message.getDescription());
+        }
+        if (message.hasArea()) {
+            geofence.setArea(message.getArea());
+        }
+        return geofence;
+    }
+
+    public static TraccarMessages.Maintenance toProto(Maintenance maintenance) {
+        var builder = TraccarMessages.Maintenance.newBuilder()
+                .setId(maintenance.getId())
+                .setStart(maintenance.getStart())
+                .setPeriod(maintenance.getPeriod())
+                .putAllAttributes(toProto(maintenance.getAttributes()));
+        if (maintenance.getName() != null) {
+            builder.setName(maintenance.getName());
+        }
+        if (maintenance.getType() != null) {
+            builder.setType(maintenance.getType());
+        }
+        return builder.build();
+    }
+
+    public static Maintenance fromProto(TraccarMessages.Maintenance message) {
+        Maintenance maintenance = new Maintenance();
+        maintenance.setId(message.getId());
+        maintenance.setStart(message.getStart());
+        maintenance.setPeriod(message.getPeriod());
+        maintenance.setAttributes(fromProto(message.getAttributesMap()));
+        if (message.hasName()) {
+            maintenance.setName(message.getName());
+        }
+        if (message.hasType()) {
+            maintenance.setType(message.getType());
+        }
+        return maintenance;
+    }
+
+}
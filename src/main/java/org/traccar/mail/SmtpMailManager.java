@@ -1,5 +1,5 @@
 /*
- * Copyright 2016 - 2022 Anton Tananaev (anton@traccar.org)
+ * Copyright 2016 - 2024 Anton Tananaev (anton@traccar.org)
  * Copyright 2017 - 2018 Andrey Kunitsyn (andrey@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
@@ -16,6 +16,7 @@
  */
 package org.traccar.mail;
 
+import io.netty.util.Timer;
 import org.traccar.config.Config;
 import org.traccar.config.ConfigKey;
 import org.traccar.config.Keys;
@@ -27,6 +28,7 @@ import jakarta.mail.BodyPart;
 import jakarta.mail.Message;
 import jakarta.mail.MessagingException;
 import jakarta.mail.Multipart;
+import jakarta.mail.SendFailedException;
 import jakarta.mail.Session;
 import jakarta.mail.Transport;
 import jakarta.mail.internet.InternetAddress;
@@ -36,6 +38,7 @@ import jakarta.mail.internet.MimeMultipart;
 import java.io.UnsupportedEncodingException;
 import java.util.Date;
 import java.util.Properties;
+import java.util.concurrent.TimeUnit;
 
 public final class SmtpMailManager implements MailManager {
 
@@ -43,10 +46,18 @@ public final class SmtpMailManager implements MailManager {
 
     private final Config config;
     private final StatisticsManager statisticsManager;
+    private final SmtpTransportPool transportPool;
 
-    public SmtpMailManager(Config config, StatisticsManager statisticsManager) {
+    public SmtpMailManager(Config config, StatisticsManager statisticsManager, Timer timer) {
         this.config = config;
         this.statisticsManager = statisticsManager;
+        int poolSize = config.getInteger(Keys.MAIL_SMTP_POOL_SIZE);
+        if (poolSize > 0) {
+            transportPool = new SmtpTransportPool(
+                    timer, poolSize, TimeUnit.SECONDS.toMillis(config.getLong(Keys.MAIL_SMTP_POOL_IDLE_TIMEOUT)));
+        } else {
+            transportPool = null;
+        }
     }
 
     private static void copyBooleanProperty(
@@ -114,7 +125,47 @@ public final class SmtpMailManager implements MailManager {
             throw new MessagingException("No SMTP configuration found");
         }
 
-        Session session = Session.getInstance(properties);
+        if (transportPool == null) {
+            Session session = Session.getInstance(properties);
+            MimeMessage message = createMessage(session, properties, user, subject, body, attachment);
+            try (Transport transport = session.getTransport()) {
+                statisticsManager.registerMail();
+                transport.connect(
+                        properties.getProperty(Keys.MAIL_SMTP_HOST.getKey()),
+                        properties.getProperty(Keys.MAIL_SMTP_USERNAME.getKey()),
+                        properties.getProperty(Keys.MAIL_SMTP_PASSWORD.getKey()));
+                transport.sendMessage(message, message.getAllRecipients());
+            }
+        } else {
+            MimeMessage message = createMessage(
+                    transportPool.getSession(properties), properties, user, subject, body, attachment);
+            statisticsManager.registerMail();
+            while (true) {
+                SmtpTransportPool.Connection connection = transportPool.acquire(properties);
+                try {
+                    connection.transport().sendMessage(message, message.getAllRecipients());
+                    transportPool.release(connection);
+                    return;
+                } catch (SendFailedException e) {
+                    transportPool.release(connection);
+                    throw e;
+                } catch (MessagingException e) {
+                    transportPool.invalidate(connection);
+                    if (!connection.reused()) {
+                        throw e;
+                    }
+                    // pooled connection might have been closed by the server, retry on a new one
+                } catch (RuntimeException e) {
+                    transportPool.invalidate(connection);
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private MimeMessage createMessage(
+            Session session, Properties properties, User user, String subject, String body,
+            MimeBodyPart attachment) throws MessagingException {
 
         MimeMessage message = new MimeMessage(session);
 
@@ -149,14 +200,7 @@ public final class SmtpMailManager implements MailManager {
             message.setContent(body, CONTENT_TYPE);
         }
 
-        try (Transport transport = session.getTransport()) {
-            statisticsManager.registerMail();
-            transport.connect(
-                    properties.getProperty(Keys.MAIL_SMTP_HOST.getKey()),
-                    properties.getProperty(Keys.MAIL_SMTP_USERNAME.getKey()),
-                    properties.getProperty(Keys.MAIL_SMTP_PASSWORD.getKey()));
-            transport.sendMessage(message, message.getAllRecipients());
-        }
+        return message;
     }
 
 }
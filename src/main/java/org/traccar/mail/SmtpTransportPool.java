@@ -0,0 +1,151 @@
+/*
+ * Copyright 2024 Anton Tananaev (anton@traccar.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.traccar.mail;
+
+import io.netty.util.Timeout;
+import io.netty.util.Timer;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Session;
+import jakarta.mail.Transport;
+import org.traccar.config.Keys;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps authenticated SMTP connections open for reuse. Connections are grouped by resolved SMTP properties, so server
+ * and user specific settings never share a connection. Idle connections are closed by a timer task once they exceed
+ * the idle timeout, so the server does not keep sessions open between notification bursts.
+ */
+class SmtpTransportPool {
+
+    record Connection(Properties properties, Session session, Transport transport, boolean reused) {
+    }
+
+    private record IdleTransport(Transport transport, long time) {
+    }
+
+    private final Timer timer;
+    private final int maxIdle;
+    private final long idleTimeout;
+
+    private final Map<Properties, Session> sessions = new HashMap<>();
+    private final Map<Properties, Deque<IdleTransport>> idle = new HashMap<>();
+    private boolean evictionScheduled;
+
+    SmtpTransportPool(Timer timer, int maxIdle, long idleTimeout) {
+        this.timer = timer;
+        this.maxIdle = maxIdle;
+        this.idleTimeout = idleTimeout;
+    }
+
+    private static void close(Transport transport) {
+        try {
+            transport.close();
+        } catch (MessagingException ignored) {
+        }
+    }
+
+    public synchronized Session getSession(Properties properties) {
+        return sessions.computeIfAbsent(properties, Session::getInstance);
+    }
+
+    private void scheduleEviction() {
+        evictionScheduled = true;
+        timer.newTimeout(this::evict, idleTimeout, TimeUnit.MILLISECONDS);
+    }
+
+    private synchronized List<Transport> evictExpired(long now) {
+        List<Transport> expired = new ArrayList<>();
+        Iterator<Map.Entry<Properties, Deque<IdleTransport>>> iterator = idle.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Deque<IdleTransport> transports = iterator.next().getValue();
+            transports.removeIf(item -> {
+                if (now - item.time() >= idleTimeout) {
+                    expired.add(item.transport());
+                    return true;
+                }
+                return false;
+            });
+            if (transports.isEmpty()) {
+                iterator.remove();
+            }
+        }
+        if (idle.isEmpty()) {
+            evictionScheduled = false;
+        } else {
+            scheduleEviction();
+        }
+        return expired;
+    }
+
+    private void evict(Timeout timeout) {
+        evictExpired(System.currentTimeMillis()).forEach(SmtpTransportPool::close);
+    }
+
+    private synchronized IdleTransport pollIdle(Properties properties) {
+        Deque<IdleTransport> transports = idle.get(properties);
+        return transports != null ? transports.pollFirst() : null;
+    }
+
+    public Connection acquire(Properties properties) throws MessagingException {
+        long now = System.currentTimeMillis();
+        Session session = getSession(properties);
+        IdleTransport item;
+        while ((item = pollIdle(properties)) != null) {
+            if (now - item.time() <= idleTimeout && item.transport().isConnected()) {
+                return new Connection(properties, session, item.transport(), true);
+            }
+            close(item.transport());
+        }
+
+        Transport transport = session.getTransport();
+        transport.connect(
+                properties.getProperty(Keys.MAIL_SMTP_HOST.getKey()),
+                properties.getProperty(Keys.MAIL_SMTP_USERNAME.getKey()),
+                properties.getProperty(Keys.MAIL_SMTP_PASSWORD.getKey()));
+        return new Connection(properties, session, transport, false);
+    }
+
+    public void release(Connection connection) {
+        boolean pooled = false;
+        synchronized (this) {
+            Deque<IdleTransport> transports = idle.computeIfAbsent(connection.properties(), k -> new ArrayDeque<>());
+            if (transports.size() < maxIdle) {
+                transports.addFirst(new IdleTransport(connection.transport(), System.currentTimeMillis()));
+                pooled = true;
+                if (!evictionScheduled) {
+                    scheduleEviction();
+                }
+            }
+        }
+        if (!pooled) {
+            close(connection.transport());
+        }
+    }
+
+    public void invalidate(Connection connection) {
+        close(connection.transport());
+    }
+
+}
@@ -31,15 +31,31 @@ import org.traccar.storage.StorageName;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.Date;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 @StorageName("tc_calendars")
 public class Calendar extends ExtendedModel {
 
+    private static final long INDEX_BEFORE = TimeUnit.DAYS.toMillis(1);
+    private static final long INDEX_AFTER = TimeUnit.DAYS.toMillis(7);
+    private static final long INDEX_REFRESH = TimeUnit.DAYS.toMillis(1);
+
+    /**
+     * Sorted non-overlapping active periods within the [from, to) window.
+     */
+    private record Index(long from, long to, long[] starts, long[] ends) {
+    }
+
+    private volatile Index index;
+
     private String name;
 
     public String getName() {
@@ -59,6 +75,7 @@ public class Calendar extends ExtendedModel {
     public void setData(byte[] data) throws IOException, ParserException {
         CalendarBuilder builder = new CalendarBuilder();
         calendar = builder.build(new ByteArrayInputStream(data));
+        index = null;
         this.data = data;
     }
 
@@ -85,8 +102,56 @@ public class Calendar extends ExtendedModel {
                 .collect(Collectors.toSet());
     }
 
+    /**
+     * Index is anchored to the current time, so a single future-dated or replayed fix can't move it away from the
+     * moments most positions are checked for. Moments outside of the window are evaluated with ical4j directly.
+     */
+    private Index buildIndex(long now) {
+        long from = now - INDEX_BEFORE;
+        long to = now + INDEX_AFTER;
+        Period window = new Period(new DateTime(from), new DateTime(to));
+        List<long[]> periods = new ArrayList<>();
+        for (VEvent event : calendar.<VEvent>getComponents(CalendarComponent.VEVENT)) {
+            for (Period period : event.calculateRecurrenceSet(window)) {
+                periods.add(new long[] {period.getStart().getTime(), period.getEnd().getTime()});
+            }
+        }
+        periods.sort(Comparator.comparingLong(period -> period[0]));
+
+        long[] starts = new long[periods.size()];
+        long[] ends = new long[periods.size()];
+        int count = 0;
+        for (long[] period : periods) {
+            if (count > 0 && period[0] <= ends[count - 1]) {
+                ends[count - 1] = Math.max(ends[count - 1], period[1]);
+            } else {
+                starts[count] = period[0];
+                ends[count] = period[1];
+                count += 1;
+            }
+        }
+        return new Index(from, to, Arrays.copyOf(starts, count), Arrays.copyOf(ends, count));
+    }
+
     public boolean checkMoment(Date date) {
-        return !findEvents(date).isEmpty();
+        if (calendar == null) {
+            return false;
+        }
+        long time = date.getTime();
+        long now = System.currentTimeMillis();
+        Index index = this.index;
+        if (index == null || now >= index.from() + INDEX_BEFORE + INDEX_REFRESH) {
+            index = buildIndex(now);
+            this.index = index;
+        }
+        if (time < index.from() || time >= index.to()) {
+            return !findEvents(date).isEmpty();
+        }
+        int position = Arrays.binarySearch(index.starts(), time);
+        if (position < 0) {
+            position = -position - 2;
+        }
+        return position >= 0 && time < index.ends()[position];
     }
 
 }
@@ -0,0 +1,288 @@
+/*
+ * Copyright 2024 Anton Tananaev (anton@traccar.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.traccar.notification;
+
+import io.netty.util.Timer;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.traccar.config.Config;
+import org.traccar.config.Keys;
+import org.traccar.helper.TokenBucket;
+import org.traccar.model.Event;
+import org.traccar.model.Notification;
+import org.traccar.model.Position;
+import org.traccar.model.User;
+import org.traccar.notificators.Notificator;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Delivers notifications on a dedicated thread pool, so slow external services don't block position processing.
+ * <p>
+ * Messages are formatted on the calling thread while all related objects are still cached. Each notificator type has
+ * its own bounded queue and a limit of concurrent deliveries. If enabled, failed deliveries are retried with
+ * exponential backoff. Notificators that queue messages internally report the outcome asynchronously, so they are
+ * counted and retried the same way without holding a delivery slot.
+ * <p>
+ * Optionally, deliveries are rate limited for each user and notificator type. Messages above the limit are either
+ * suppressed or merged into a digest that is delivered as a single message at the end of the digest window. The digest
+ * is formatted from a dedicated template that lists the subject of each merged message.
+ */
+@Singleton
+public class NotificationDispatcher {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(NotificationDispatcher.class);
+
+    private static final int DIGEST_MESSAGES = 10;
+
+    public record Statistics(
+            long queued, long active, long delivered, long retried, long failed, long dropped,
+            long suppressed, long merged) {
+    }
+
+    private interface Delivery {
+        CompletableFuture<Void> deliver();
+    }
+
+    private record Task(String type, Delivery delivery, int attempt) {
+    }
+
+    private final class Lane {
+
+        private final Queue<Task> pending = new ArrayDeque<>();
+        private int active;
+
+        private synchronized boolean offer(Task task) {
+            if (active < concurrency) {
+                active += 1;
+                executor.execute(() -> run(task));
+            } else if (pending.size() < queueSize) {
+                pending.add(task);
+            } else {
+                return false;
+            }
+            return true;
+        }
+
+        private synchronized Task next() {
+            Task task = pending.poll();
+            if (task == null) {
+                active -= 1;
+            }
+            return task;
+        }
+
+        private void run(Task task) {
+            while (task != null) {
+                execute(task);
+                task = next();
+            }
+        }
+
+    }
+
+    private static final class Digest {
+
+        private final List<String> messages = new ArrayList<>();
+        private int count;
+        private Event event;
+        private Position position;
+
+    }
+
+    private static final class Limiter {
+
+        private final TokenBucket tokenBucket;
+        private Digest digest;
+
+        private Limiter(TokenBucket tokenBucket) {
+            this.tokenBucket = tokenBucket;
+        }
+
+    }
+
+    private final Timer timer;
+    private final Executor executor;
+    private final int concurrency;
+    private final int queueSize;
+    private final int retries;
+    private final long retryDelay;
+    private final double rateLimit;
+    private final int rateBurst;
+    private final long digestWindow;
+
+    private final Map<String, Lane> lanes = new ConcurrentHashMap<>();
+    private final Map<String, Limiter> limiters = new ConcurrentHashMap<>();
+
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong retried = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong suppressed = new AtomicLong();
+    private final AtomicLong merged = new AtomicLong();
+
+    @Inject
+    public NotificationDispatcher(Config config, Timer timer) {
+        this.timer = timer;
+        int threads = config.getInteger(Keys.NOTIFICATOR_THREADS);
+        if (threads > 0) {
+            AtomicInteger threadIndex = new AtomicInteger();
+            executor = Executors.newFixedThreadPool(threads, runnable -> {
+                Thread thread = new Thread(runnable, "notificator-" + threadIndex.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        } else {
+            executor = null;
+        }
+        concurrency = Math.max(1, config.getInteger(Keys.NOTIFICATOR_CONCURRENCY));
+        queueSize = config.getInteger(Keys.NOTIFICATOR_QUEUE_SIZE);
+        retries = config.getInteger(Keys.NOTIFICATOR_RETRIES);
+        retryDelay = config.getLong(Keys.NOTIFICATOR_RETRY_DELAY);
+        rateLimit = config.getDouble(Keys.NOTIFICATOR_RATE_LIMIT) / 60;
+        rateBurst = config.getInteger(Keys.NOTIFICATOR_RATE_BURST);
+        digestWindow = config.getLong(Keys.NOTIFICATOR_DIGEST_WINDOW);
+    }
+
+    public void send(
+            String type, Notificator notificator, Notification notification, User user, Event event,
+            Position position) throws MessageException {
+        NotificationMessage message = notificator.formatMessage(notification, user, event, position);
+        if (message == null) {
+            notificator.send(notification, user, event, position);
+        } else if (rateLimit <= 0 || acquire(type, notificator, user, message, event, position)) {
+            deliver(type, notificator, user, message, event, position);
+        }
+    }
+
+    private void deliver(
+            String type, Notificator notificator, User user, NotificationMessage message, Event event,
+            Position position) throws MessageException {
+        if (executor == null) {
+            notificator.send(user, message, event, position);
+        } else {
+            submit(new Task(type, () -> notificator.sendAsync(user, message, event, position), 0));
+        }
+    }
+
+    /**
+     * Check user rate limit for the notificator type. Messages that are not allowed through are either merged into
+     * the open digest or suppressed.
+     */
+    private boolean acquire(
+            String type, Notificator notificator, User user, NotificationMessage message, Event event,
+            Position position) {
+        String key = user.getId() + ":" + type;
+        Limiter limiter = limiters.computeIfAbsent(key, k -> new Limiter(new TokenBucket(rateLimit, rateBurst)));
+        synchronized (limiter) {
+            if (limiter.digest == null && limiter.tokenBucket.tryAcquire()) {
+                return true;
+            }
+            if (digestWindow <= 0) {
+                suppressed.incrementAndGet();
+                return false;
+            }
+            if (limiter.digest == null) {
+                limiter.digest = new Digest();
+                timer.newTimeout(
+                        timeout -> flush(type, notificator, user, limiter), digestWindow, TimeUnit.SECONDS);
+            }
+            Digest digest = limiter.digest;
+            if (digest.messages.size() < DIGEST_MESSAGES) {
+                digest.messages.add(message.getSubject() != null ? message.getSubject() : message.getBody());
+            }
+            digest.count += 1;
+            digest.event = event;
+            digest.position = position;
+            merged.incrementAndGet();
+            return false;
+        }
+    }
+
+    private void flush(String type, Notificator notificator, User user, Limiter limiter) {
+        Digest digest;
+        synchronized (limiter) {
+            digest = limiter.digest;
+            limiter.digest = null;
+        }
+        try {
+            NotificationMessage message = notificator.formatDigest(user, digest.messages, digest.count);
+            deliver(type, notificator, user, message, digest.event, digest.position);
+        } catch (MessageException | RuntimeException e) {
+            LOGGER.warn("Notification digest failed", e);
+        }
+    }
+
+    private void submit(Task task) {
+        if (!lanes.computeIfAbsent(task.type(), k -> new Lane()).offer(task)) {
+            dropped.incrementAndGet();
+            LOGGER.warn("Notification queue for {} is full", task.type());
+        }
+    }
+
+    private void execute(Task task) {
+        CompletableFuture<Void> result;
+        try {
+            result = task.delivery().deliver();
+        } catch (RuntimeException e) {
+            result = CompletableFuture.failedFuture(e);
+        }
+        result.whenComplete((ignored, error) -> complete(task, error));
+    }
+
+    private void complete(Task task, Throwable error) {
+        if (error == null) {
+            delivered.incrementAndGet();
+        } else if (task.attempt() < retries) {
+            retried.incrementAndGet();
+            long delay = retryDelay << task.attempt();
+            timer.newTimeout(
+                    timeout -> submit(new Task(task.type(), task.delivery(), task.attempt() + 1)),
+                    delay, TimeUnit.MILLISECONDS);
+        } else {
+            failed.incrementAndGet();
+            LOGGER.warn("Notification failed", error);
+        }
+    }
+
+    public Statistics getStatistics() {
+        long queued = 0;
+        long active = 0;
+        for (Lane lane : lanes.values()) {
+            synchronized (lane) {
+                queued += lane.pending.size();
+                active += lane.active;
+            }
+        }
+        return new Statistics(
+                queued, active, delivered.get(), retried.get(), failed.get(), dropped.get(),
+                suppressed.get(), merged.get());
+    }
+
+}
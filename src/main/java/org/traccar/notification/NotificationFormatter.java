@@ -1,5 +1,5 @@
 /*
- * Copyright 2016 - 2022 Anton Tananaev (anton@traccar.org)
+ * Copyright 2016 - 2024 Anton Tananaev (anton@traccar.org)
  * Copyright 2017 - 2018 Andrey Kunitsyn (andrey@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
@@ -32,6 +32,8 @@ import org.traccar.session.cache.CacheManager;
 import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
 
+import java.util.List;
+
 @Singleton
 public class NotificationFormatter {
 
@@ -51,7 +53,7 @@ public class NotificationFormatter {
         Server server = cacheManager.getServer();
         Device device = cacheManager.getObject(Device.class, event.getDeviceId());
 
-        VelocityContext velocityContext = textTemplateFormatter.prepareContext(server, user);
+        VelocityContext velocityContext = textTemplateFormatter.prepareContext(server, user, true);
 
         velocityContext.put("notification", notification);
         velocityContext.put("device", device);
@@ -77,4 +79,18 @@ public class NotificationFormatter {
         return textTemplateFormatter.formatMessage(velocityContext, event.getType(), templatePath);
     }
 
+    /**
+     * Format a digest of merged notifications. Template receives short form of each merged message and the total
+     * number of merged messages, which can be higher than the number of listed messages.
+     */
+    public NotificationMessage formatDigest(User user, List<String> messages, int count, String templatePath) {
+
+        VelocityContext velocityContext = textTemplateFormatter.prepareContext(cacheManager.getServer(), user, true);
+
+        velocityContext.put("messages", messages);
+        velocityContext.put("count", count);
+
+        return textTemplateFormatter.formatMessage(velocityContext, "digest", templatePath);
+    }
+
 }
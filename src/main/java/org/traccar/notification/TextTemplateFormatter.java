@@ -1,5 +1,5 @@
 /*
- * Copyright 2021 - 2022 Anton Tananaev (anton@traccar.org)
+ * Copyright 2021 - 2024 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -36,40 +36,75 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.Paths;
 import java.security.GeneralSecurityException;
 import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 @Singleton
 public class TextTemplateFormatter {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(TextTemplateFormatter.class);
 
+    private static final long TOKEN_REUSE_PERIOD = TimeUnit.DAYS.toMillis(1);
+
+    private record CachedToken(String token, long time) {
+    }
+
     private final VelocityEngine velocityEngine;
     private final TokenManager tokenManager;
+    private final long tokenReusePeriod;
+    private final VelocityContext sharedContext = new VelocityContext();
+    private final Map<Long, CachedToken> tokens = new ConcurrentHashMap<>();
 
     @Inject
     public TextTemplateFormatter(VelocityEngine velocityEngine, TokenManager tokenManager) {
+        this(velocityEngine, tokenManager, TOKEN_REUSE_PERIOD);
+    }
+
+    TextTemplateFormatter(VelocityEngine velocityEngine, TokenManager tokenManager, long tokenReusePeriod) {
         this.velocityEngine = velocityEngine;
         this.tokenManager = tokenManager;
+        this.tokenReusePeriod = tokenReusePeriod;
+
+        sharedContext.put("webUrl", velocityEngine.getProperty("web.url"));
+        sharedContext.put("dateTool", new DateTool());
+        sharedContext.put("numberTool", new NumberTool());
+        sharedContext.put("locale", Locale.getDefault());
+    }
+
+    /**
+     * Signed tokens are valid for several days, so a token is reused for a day instead of signing a new one for every
+     * notification. Links in messages stay valid for most of the token lifetime.
+     */
+    private String getCachedToken(long userId) throws IOException, GeneralSecurityException, StorageException {
+        long now = System.currentTimeMillis();
+        CachedToken cachedToken = tokens.get(userId);
+        if (cachedToken == null || now - cachedToken.time() > tokenReusePeriod) {
+            cachedToken = new CachedToken(tokenManager.generateToken(userId), now);
+            tokens.put(userId, cachedToken);
+        }
+        return cachedToken.token();
     }
 
     public VelocityContext prepareContext(Server server, User user) {
+        return prepareContext(server, user, false);
+    }
+
+    public VelocityContext prepareContext(Server server, User user, boolean reuseToken) {
 
-        VelocityContext velocityContext = new VelocityContext();
+        VelocityContext velocityContext = new VelocityContext(sharedContext);
 
         if (user != null) {
             velocityContext.put("user", user);
             velocityContext.put("timezone", UserUtil.getTimezone(server, user));
             try {
-                velocityContext.put("token", tokenManager.generateToken(user.getId()));
+                String token = reuseToken ? getCachedToken(user.getId()) : tokenManager.generateToken(user.getId());
+                velocityContext.put("token", token);
             } catch (IOException | GeneralSecurityException | StorageException e) {
                 LOGGER.warn("Token generation failed", e);
             }
         }
 
-        velocityContext.put("webUrl", velocityEngine.getProperty("web.url"));
-        velocityContext.put("dateTool", new DateTool());
-        velocityContext.put("numberTool", new NumberTool());
-        velocityContext.put("locale", Locale.getDefault());
-
         return velocityContext;
     }
 
@@ -24,6 +24,9 @@ import org.traccar.notification.MessageException;
 import org.traccar.notification.NotificationFormatter;
 import org.traccar.notification.NotificationMessage;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 public abstract class Notificator {
 
     private final NotificationFormatter notificationFormatter;
@@ -34,13 +37,43 @@ public abstract class Notificator {
         this.templatePath = templatePath;
     }
 
+    /**
+     * Format notification message. Notificators that don't deliver formatted messages return {@code null} and have to
+     * be called through {@link #send(Notification, User, Event, Position)}.
+     */
+    public NotificationMessage formatMessage(Notification notification, User user, Event event, Position position) {
+        if (notificationFormatter != null) {
+            return notificationFormatter.formatMessage(notification, user, event, position, templatePath);
+        }
+        return null;
+    }
+
+    /**
+     * Format a digest from the short form of merged messages using the notificator template path.
+     */
+    public NotificationMessage formatDigest(User user, List<String> messages, int count) {
+        return notificationFormatter.formatDigest(user, messages, count, templatePath);
+    }
+
     public void send(Notification notification, User user, Event event, Position position) throws MessageException {
-        var message = notificationFormatter.formatMessage(notification, user, event, position, templatePath);
-        send(user, message, event, position);
+        send(user, formatMessage(notification, user, event, position), event, position);
     }
 
     public void send(User user, NotificationMessage message, Event event, Position position) throws MessageException {
         throw new UnsupportedOperationException();
     }
 
+    /**
+     * Send a formatted message and report the outcome through the returned future. By default the message is sent
+     * synchronously. Notificators that queue messages internally complete the future once the message is delivered.
+     */
+    public CompletableFuture<Void> sendAsync(User user, NotificationMessage message, Event event, Position position) {
+        try {
+            send(user, message, event, position);
+            return CompletableFuture.completedFuture(null);
+        } catch (MessageException | RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
 }
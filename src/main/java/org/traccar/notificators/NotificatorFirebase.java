@@ -24,8 +24,10 @@ import com.google.firebase.messaging.AndroidNotification;
 import com.google.firebase.messaging.ApnsConfig;
 import com.google.firebase.messaging.Aps;
 import com.google.firebase.messaging.FirebaseMessaging;
+import com.google.firebase.messaging.FirebaseMessagingException;
 import com.google.firebase.messaging.MessagingErrorCode;
 import com.google.firebase.messaging.MulticastMessage;
+import io.netty.util.Timer;
 import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
 import org.slf4j.Logger;
@@ -50,25 +52,81 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.LinkedList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Firebase notifications are collected for a short time, so the same message for multiple users is sent with a
+ * single multicast request instead of a separate request for each user.
+ * <p>
+ * Outcome for each user is reported through {@link #sendAsync}, so the dispatcher can count and retry failed
+ * deliveries. A delivery fails only if none of the user tokens accepted the message and at least one failed with an
+ * error other than an invalid or unregistered token, which are removed instead.
+ */
 @Singleton
 public class NotificatorFirebase extends Notificator {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(NotificatorFirebase.class);
+
+    static final int BATCH_SIZE = 500;
+
+    /**
+     * Sends a multicast message to the given tokens and returns an error code for each token, or {@code null} for
+     * successful ones.
+     */
+    interface Sender {
+        List<MessagingErrorCode> send(List<String> tokens, MulticastMessage message) throws FirebaseMessagingException;
+    }
+
+    private record BatchKey(String subject, String body, long eventId) {
+    }
+
+    private static final class Batch {
+        private final Map<String, User> tokens = new LinkedHashMap<>();
+        private final Map<User, CompletableFuture<Void>> results = new LinkedHashMap<>();
+    }
+
     private final Storage storage;
     private final CacheManager cacheManager;
+    private final Timer timer;
+    private final Sender sender;
+    private final long batchDelay;
+
+    private final Map<BatchKey, Batch> batches = new HashMap<>();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "notificator-firebase");
+        thread.setDaemon(true);
+        return thread;
+    });
 
     @Inject
     public NotificatorFirebase(
             Config config, NotificationFormatter notificationFormatter,
-            Storage storage, CacheManager cacheManager) throws IOException {
+            Storage storage, CacheManager cacheManager, Timer timer) throws IOException {
+        this(config, notificationFormatter, storage, cacheManager, timer, createSender(config));
+    }
 
+    NotificatorFirebase(
+            Config config, NotificationFormatter notificationFormatter,
+            Storage storage, CacheManager cacheManager, Timer timer, Sender sender) {
         super(notificationFormatter, "short");
         this.storage = storage;
         this.cacheManager = cacheManager;
+        this.timer = timer;
+        this.sender = sender;
+        batchDelay = config.getLong(Keys.NOTIFICATOR_FIREBASE_BATCH_DELAY);
+    }
 
+    private static Sender createSender(Config config) throws IOException {
         InputStream serviceAccount = new ByteArrayInputStream(
                 config.getString(Keys.NOTIFICATOR_FIREBASE_SERVICE_ACCOUNT).getBytes());
 
@@ -77,66 +135,165 @@ public class NotificatorFirebase extends Notificator {
                 .build();
 
         FirebaseApp.initializeApp(options);
+
+        FirebaseMessaging messaging = FirebaseMessaging.getInstance();
+        return (tokens, message) -> messaging.sendEachForMulticast(message).getResponses().stream()
+                .map(response -> response.isSuccessful() ? null : response.getException().getMessagingErrorCode())
+                .toList();
+    }
+
+    @Override
+    public void send(User user, NotificationMessage message, Event event, Position position) {
+        sendAsync(user, message, event, position).whenComplete((ignored, error) -> {
+            if (error != null) {
+                LOGGER.warn("Firebase notification failed", error);
+            }
+        });
     }
 
     @Override
-    public void send(User user, NotificationMessage message, Event event, Position position) throws MessageException {
-        if (user.hasAttribute("notificationTokens")) {
-
-            List<String> registrationTokens = new ArrayList<>(
-                    Arrays.asList(user.getString("notificationTokens").split("[, ]")));
-
-            var messageBuilder = MulticastMessage.builder()
-                    .setNotification(com.google.firebase.messaging.Notification.builder()
-                            .setTitle(message.getSubject())
-                            .setBody(message.getBody())
-                            .build())
-                    .setAndroidConfig(AndroidConfig.builder()
-                            .setNotification(AndroidNotification.builder()
-                                    .setSound("default")
-                                    .build())
-                            .build())
-                    .setApnsConfig(ApnsConfig.builder()
-                            .setAps(Aps.builder()
-                                    .setSound("default")
-                                    .build())
-                            .build())
-                    .addAllTokens(registrationTokens);
-
-            if (event != null) {
-                messageBuilder.putData("eventId", String.valueOf(event.getId()));
+    public CompletableFuture<Void> sendAsync(User user, NotificationMessage message, Event event, Position position) {
+        if (!user.hasAttribute("notificationTokens")) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        BatchKey key = new BatchKey(message.getSubject(), message.getBody(), event != null ? event.getId() : 0);
+        Map<String, User> tokens = new LinkedHashMap<>();
+        for (String token : user.getString("notificationTokens").split("[, ]")) {
+            if (!token.isEmpty()) {
+                tokens.put(token, user);
             }
+        }
+
+        if (batchDelay <= 0) {
+            Batch batch = new Batch();
+            batch.tokens.putAll(tokens);
+            CompletableFuture<Void> result = batch.results.computeIfAbsent(user, k -> new CompletableFuture<>());
+            sendBatch(key, batch);
+            return result;
+        }
 
+        Batch full = null;
+        CompletableFuture<Void> result;
+        synchronized (batches) {
+            Batch batch = batches.get(key);
+            if (batch == null) {
+                Batch created = new Batch();
+                batches.put(key, created);
+                timer.newTimeout(
+                        timeout -> executor.execute(() -> flush(key, created)),
+                        batchDelay, TimeUnit.MILLISECONDS);
+                batch = created;
+            }
+            batch.tokens.putAll(tokens);
+            result = batch.results.computeIfAbsent(user, k -> new CompletableFuture<>());
+            if (batch.tokens.size() >= BATCH_SIZE) {
+                batches.remove(key);
+                full = batch;
+            }
+        }
+        if (full != null) {
+            sendBatch(key, full);
+        }
+        return result;
+    }
+
+    private void flush(BatchKey key, Batch batch) {
+        synchronized (batches) {
+            if (!batches.remove(key, batch)) {
+                return;
+            }
+        }
+        sendBatch(key, batch);
+    }
+
+    private MulticastMessage createMessage(BatchKey key, List<String> tokens) {
+        var messageBuilder = MulticastMessage.builder()
+                .setNotification(com.google.firebase.messaging.Notification.builder()
+                        .setTitle(key.subject())
+                        .setBody(key.body())
+                        .build())
+                .setAndroidConfig(AndroidConfig.builder()
+                        .setNotification(AndroidNotification.builder()
+                                .setSound("default")
+                                .build())
+                        .build())
+                .setApnsConfig(ApnsConfig.builder()
+                        .setAps(Aps.builder()
+                                .setSound("default")
+                                .build())
+                        .build())
+                .addAllTokens(tokens);
+
+        if (key.eventId() != 0) {
+            messageBuilder.putData("eventId", String.valueOf(key.eventId()));
+        }
+
+        return messageBuilder.build();
+    }
+
+    private void sendBatch(BatchKey key, Batch batch) {
+        Map<String, User> tokens = batch.tokens;
+        List<String> registrationTokens = new ArrayList<>(tokens.keySet());
+        Map<User, Set<String>> failedTokens = new LinkedHashMap<>();
+        Set<User> deliveredUsers = new HashSet<>();
+        Map<User, Throwable> errors = new HashMap<>();
+        for (int start = 0; start < registrationTokens.size(); start += BATCH_SIZE) {
+            List<String> chunk = registrationTokens.subList(
+                    start, Math.min(start + BATCH_SIZE, registrationTokens.size()));
             try {
-                var result = FirebaseMessaging.getInstance().sendEachForMulticast(messageBuilder.build());
-                List<String> failedTokens = new LinkedList<>();
-                var iterator = result.getResponses().listIterator();
-                while (iterator.hasNext()) {
-                    int index = iterator.nextIndex();
-                    var response = iterator.next();
-                    if (!response.isSuccessful()) {
-                        MessagingErrorCode error = response.getException().getMessagingErrorCode();
+                List<MessagingErrorCode> results = sender.send(chunk, createMessage(key, chunk));
+                for (int i = 0; i < results.size() && i < chunk.size(); i++) {
+                    MessagingErrorCode error = results.get(i);
+                    User user = tokens.get(chunk.get(i));
+                    if (error == null) {
+                        deliveredUsers.add(user);
+                    } else {
                         if (error == MessagingErrorCode.INVALID_ARGUMENT || error == MessagingErrorCode.UNREGISTERED) {
-                            failedTokens.add(registrationTokens.get(index));
+                            failedTokens.computeIfAbsent(user, k -> new LinkedHashSet<>()).add(chunk.get(i));
+                        } else {
+                            errors.put(user, new MessageException("Firebase error " + error));
                         }
-                        LOGGER.warn("Firebase user {} error", user.getId(), response.getException());
-                    }
-                }
-                if (!failedTokens.isEmpty()) {
-                    registrationTokens.removeAll(failedTokens);
-                    if (registrationTokens.isEmpty()) {
-                        user.getAttributes().remove("notificationTokens");
-                    } else {
-                        user.set("notificationTokens", String.join(",", registrationTokens));
+                        LOGGER.warn("Firebase user {} error {}", user.getId(), error);
                     }
-                    storage.updateObject(user, new Request(
-                            new Columns.Include("attributes"),
-                            new Condition.Equals("id", user.getId())));
-                    cacheManager.invalidateObject(true, User.class, user.getId(), ObjectOperation.UPDATE);
                 }
             } catch (Exception e) {
                 LOGGER.warn("Firebase error", e);
+                for (String token : chunk) {
+                    errors.put(tokens.get(token), e);
+                }
+            }
+        }
+        failedTokens.forEach(this::removeTokens);
+        batch.results.forEach((user, result) -> {
+            Throwable error = errors.get(user);
+            if (error != null && !deliveredUsers.contains(user)) {
+                result.completeExceptionally(error);
+            } else {
+                result.complete(null);
+            }
+        });
+    }
+
+    private void removeTokens(User user, Set<String> failedTokens) {
+        String tokens = user.getString("notificationTokens");
+        if (tokens == null) {
+            return;
+        }
+        try {
+            List<String> registrationTokens = new ArrayList<>(Arrays.asList(tokens.split("[, ]")));
+            registrationTokens.removeAll(failedTokens);
+            if (registrationTokens.isEmpty()) {
+                user.getAttributes().remove("notificationTokens");
+            } else {
+                user.set("notificationTokens", String.join(",", registrationTokens));
             }
+            storage.updateObject(user, new Request(
+                    new Columns.Include("attributes"),
+                    new Condition.Equals("id", user.getId())));
+            cacheManager.invalidateObject(true, User.class, user.getId(), ObjectOperation.UPDATE);
+        } catch (Exception e) {
+            LOGGER.warn("Firebase token update error", e);
         }
     }
 
@@ -1,5 +1,5 @@
 /*
- * Copyright 2022 - 2023 Anton Tananaev (anton@traccar.org)
+ * Copyright 2022 - 2024 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -24,6 +24,7 @@ import org.traccar.model.Attribute;
 import org.traccar.model.BaseModel;
 import org.traccar.model.Calendar;
 import org.traccar.model.Device;
+import org.traccar.model.Event;
 import org.traccar.model.Driver;
 import org.traccar.model.Geofence;
 import org.traccar.model.Group;
@@ -42,12 +43,19 @@ import org.traccar.storage.query.Columns;
 import org.traccar.storage.query.Condition;
 import org.traccar.storage.query.Request;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongConsumer;
 import java.util.stream.Collectors;
 
 @Singleton
@@ -68,6 +76,14 @@ public class CacheManager implements BroadcastInterface {
     private final Map<Long, Position> devicePositions = new HashMap<>();
     private final Map<Long, AtomicInteger> deviceReferences = new HashMap<>();
 
+    private record NotificationIndex(long version, Map<String, List<DeviceNotification>> notifications) {
+    }
+
+    private final Map<Long, NotificationIndex> notificationIndex = new ConcurrentHashMap<>();
+    private final AtomicLong notificationVersion = new AtomicLong();
+
+    private final List<LongConsumer> removalListeners = new CopyOnWriteArrayList<>();
+
     @Inject
     public CacheManager(Config config, Storage storage, BroadcastService broadcastService) throws StorageException {
         this.config = config;
@@ -123,27 +139,60 @@ public class CacheManager implements BroadcastInterface {
         }
     }
 
-    public Set<User> getNotificationUsers(long notificationId, long deviceId) {
+    public Set<Notification> getDeviceNotifications(long deviceId) {
         try {
             lock.readLock().lock();
-            Set<User> deviceUsers = getDeviceObjects(deviceId, User.class);
-            return graph.getObjects(Notification.class, notificationId, User.class, Set.of(), false)
-                    .filter(deviceUsers::contains)
+            var direct = graph.getObjects(Device.class, deviceId, Notification.class, Set.of(Group.class), true)
+                    .map(BaseModel::getId)
+                    .collect(Collectors.toUnmodifiableSet());
+            return graph.getObjects(Device.class, deviceId, Notification.class, Set.of(Group.class, User.class), true)
+                    .filter(notification -> notification.getAlways() || direct.contains(notification.getId()))
                     .collect(Collectors.toUnmodifiableSet());
         } finally {
             lock.readLock().unlock();
         }
     }
 
-    public Set<Notification> getDeviceNotifications(long deviceId) {
+    /**
+     * Get notifications of the given event type for the device. Result is indexed per device and rebuilt after any
+     * cache invalidation, so for most events it's a single map lookup.
+     */
+    public List<DeviceNotification> getDeviceNotifications(long deviceId, String type) {
+        NotificationIndex index = notificationIndex.get(deviceId);
+        if (index == null || index.version() != notificationVersion.get()) {
+            index = buildNotificationIndex(deviceId);
+        }
+        return index.notifications().getOrDefault(type, List.of());
+    }
+
+    private NotificationIndex buildNotificationIndex(long deviceId) {
         try {
             lock.readLock().lock();
-            var direct = graph.getObjects(Device.class, deviceId, Notification.class, Set.of(Group.class), true)
-                    .map(BaseModel::getId)
-                    .collect(Collectors.toUnmodifiableSet());
-            return graph.getObjects(Device.class, deviceId, Notification.class, Set.of(Group.class, User.class), true)
-                    .filter(notification -> notification.getAlways() || direct.contains(notification.getId()))
-                    .collect(Collectors.toUnmodifiableSet());
+            long version = notificationVersion.get();
+            Set<User> deviceUsers = getDeviceObjects(deviceId, User.class);
+            Map<String, List<DeviceNotification>> notifications = new HashMap<>();
+            for (Notification notification : getDeviceNotifications(deviceId)) {
+                Set<String> alarms = null;
+                if (notification.getType().equals(Event.TYPE_ALARM)) {
+                    String alarmsAttribute = notification.getString("alarms");
+                    alarms = alarmsAttribute != null ? Set.copyOf(Arrays.asList(alarmsAttribute.split(","))) : Set.of();
+                }
+                long calendarId = notification.getCalendarId();
+                Calendar calendar = calendarId != 0 ? graph.getObject(Calendar.class, calendarId) : null;
+                Set<User> users = graph
+                        .getObjects(Notification.class, notification.getId(), User.class, Set.of(), false)
+                        .filter(deviceUsers::contains)
+                        .collect(Collectors.toUnmodifiableSet());
+                notifications.computeIfAbsent(notification.getType(), k -> new ArrayList<>()).add(
+                        new DeviceNotification(
+                                notification, calendar, alarms, Set.copyOf(notification.getNotificatorsTypes()),
+                                users));
+            }
+            NotificationIndex index = new NotificationIndex(version, notifications);
+            if (deviceReferences.containsKey(deviceId)) {
+                notificationIndex.put(deviceId, index);
+            }
+            return index;
         } finally {
             lock.readLock().unlock();
         }
@@ -167,17 +216,77 @@ public class CacheManager implements BroadcastInterface {
         }
     }
 
+    /**
+     * Add a reference to a device that is already cached without taking the write lock.
+     *
+     * @return {@code false} if the device is not cached and {@link #addDevice(long)} has to be used instead
+     */
+    public boolean retainDevice(long deviceId) {
+        try {
+            lock.readLock().lock();
+            AtomicInteger references = deviceReferences.get(deviceId);
+            if (references != null) {
+                int count = references.get();
+                while (count > 0) {
+                    if (references.compareAndSet(count, count + 1)) {
+                        return true;
+                    }
+                    count = references.get();
+                }
+            }
+            return false;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Remove a device reference. The write lock is only taken if it might be the last reference.
+     */
+    public void releaseDevice(long deviceId) {
+        try {
+            lock.readLock().lock();
+            AtomicInteger references = deviceReferences.get(deviceId);
+            if (references != null) {
+                int count = references.get();
+                while (count > 1) {
+                    if (references.compareAndSet(count, count - 1)) {
+                        return;
+                    }
+                    count = references.get();
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        removeDevice(deviceId);
+    }
+
+    /**
+     * Register a listener called after the last reference to a device is removed and the device is evicted from the
+     * cache. Used by components that keep their own per-device state.
+     */
+    public void addRemovalListener(LongConsumer listener) {
+        removalListeners.add(listener);
+    }
+
     public void removeDevice(long deviceId) {
+        boolean removed = false;
         try {
             lock.writeLock().lock();
             if (deviceReferences.computeIfAbsent(deviceId, k -> new AtomicInteger()).decrementAndGet() <= 0) {
                 graph.removeObject(Device.class, deviceId);
                 devicePositions.remove(deviceId);
                 deviceReferences.remove(deviceId);
+                notificationIndex.remove(deviceId);
+                removed = true;
             }
         } finally {
             lock.writeLock().unlock();
         }
+        if (removed) {
+            removalListeners.forEach(listener -> listener.accept(deviceId));
+        }
     }
 
     public void updatePosition(Position position) {
@@ -197,6 +306,15 @@ public class CacheManager implements BroadcastInterface {
         if (local) {
             broadcastService.invalidateObject(true, clazz, id, operation);
         }
+        try {
+            invalidateObject(clazz, id, operation);
+        } finally {
+            notificationVersion.incrementAndGet();
+        }
+    }
+
+    private <T extends BaseModel> void invalidateObject(
+            Class<T> clazz, long id, ObjectOperation operation) throws Exception {
 
         if (operation == ObjectOperation.DELETE) {
             graph.removeObject(clazz, id);
@@ -254,10 +372,14 @@ public class CacheManager implements BroadcastInterface {
             broadcastService.invalidatePermission(true, clazz1, id1, clazz2, id2, link);
         }
 
-        if (clazz1.equals(User.class) && GroupedModel.class.isAssignableFrom(clazz2)) {
-            invalidatePermission(clazz2, id2, clazz1, id1, link);
-        } else {
-            invalidatePermission(clazz1, id1, clazz2, id2, link);
+        try {
+            if (clazz1.equals(User.class) && GroupedModel.class.isAssignableFrom(clazz2)) {
+                invalidatePermission(clazz2, id2, clazz1, id1, link);
+            } else {
+                invalidatePermission(clazz1, id1, clazz2, id2, link);
+            }
+        } finally {
+            notificationVersion.incrementAndGet();
         }
     }
 
@@ -0,0 +1,33 @@
+/*
+ * Copyright 2024 Anton Tananaev (anton@traccar.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.traccar.session.cache;
+
+import org.traccar.model.Calendar;
+import org.traccar.model.Notification;
+import org.traccar.model.User;
+
+import java.util.Set;
+
+/**
+ * Notification resolved for a specific device with everything needed to deliver it.
+ *
+ * @param calendar notification calendar or {@code null} if it's not scheduled
+ * @param alarms alarm types matched by alarm notifications or {@code null} for other notification types
+ */
+public record DeviceNotification(
+        Notification notification, Calendar calendar, Set<String> alarms, Set<String> notificators,
+        Set<User> users) {
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2024 Anton Tananaev (anton@traccar.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.traccar.speedlimit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.traccar.config.Config;
+import org.traccar.config.Keys;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Speed limit provider that matches positions against a local road dataset.
+ * <p>
+ * Each line of the dataset is a tab separated list that starts with OpenStreetMap maxspeed tag value followed by
+ * latitude and longitude of each way node (see tools/speedlimit-import.py).
+ */
+public class LocalSpeedLimitProvider implements SpeedLimitProvider {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LocalSpeedLimitProvider.class);
+
+    private final int accuracy;
+    private final SpeedLimitIndex index = new SpeedLimitIndex();
+
+    public LocalSpeedLimitProvider(Config config) throws IOException {
+        this(config, Paths.get(config.getString(Keys.SPEED_LIMIT_FILE)));
+    }
+
+    public LocalSpeedLimitProvider(Config config, Path file) throws IOException {
+        accuracy = config.getInteger(Keys.SPEED_LIMIT_ACCURACY);
+
+        int ways = 0;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] values = line.split("\t");
+                if (values.length < 5 || line.startsWith("#")) {
+                    continue;
+                }
+                Double speedLimit = OverpassSpeedLimitProvider.parseSpeed(values[0]);
+                if (speedLimit != null) {
+                    double[] coordinates = new double[(values.length - 1) & ~1];
+                    for (int i = 0; i < coordinates.length; i++) {
+                        coordinates[i] = Double.parseDouble(values[i + 1]);
+                    }
+                    index.addWay(coordinates, speedLimit);
+                    ways += 1;
+                }
+            }
+        }
+
+        LOGGER.info("Local speed limit provider loaded {} ways with {} points", ways, index.getPointCount());
+    }
+
+    @Override
+    public void getSpeedLimit(double latitude, double longitude, SpeedLimitProviderCallback callback) {
+        double speedLimit = index.findSpeedLimit(latitude, longitude, accuracy);
+        if (!Double.isNaN(speedLimit)) {
+            callback.onSuccess(speedLimit);
+        } else {
+            callback.onFailure(new SpeedLimitException("Not found"));
+        }
+    }
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2020 - 2023 Anton Tananaev (anton@traccar.org)
+ * Copyright 2020 - 2024 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -15,6 +15,8 @@
  */
 package org.traccar.speedlimit;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.traccar.config.Config;
 import org.traccar.config.Keys;
 import org.traccar.helper.UnitsConverter;
@@ -24,41 +26,93 @@ import jakarta.json.JsonObject;
 import jakarta.ws.rs.client.AsyncInvoker;
 import jakarta.ws.rs.client.Client;
 import jakarta.ws.rs.client.InvocationCallback;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
 
 public class OverpassSpeedLimitProvider implements SpeedLimitProvider {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(OverpassSpeedLimitProvider.class);
+
+    private static final double METERS_PER_DEGREE = 111320;
+
+    private record PendingRequest(double latitude, double longitude, SpeedLimitProviderCallback callback) {
+    }
+
     private final Client client;
     private final String url;
+    private final int accuracy;
+
+    private final String tileUrl;
+    private final double tileSize;
+    private final Map<Long, SpeedLimitIndex> tiles;
+    private final Map<Long, List<PendingRequest>> pendingTiles = new HashMap<>();
 
     public OverpassSpeedLimitProvider(Config config, Client client, String url) {
-        int accuracy = config.getInteger(Keys.SPEED_LIMIT_ACCURACY);
+        this.accuracy = config.getInteger(Keys.SPEED_LIMIT_ACCURACY);
         this.client = client;
         this.url = url + "?data=[out:json];way[maxspeed](around:" + accuracy + ",%f,%f);out%%20tags;";
+        this.tileUrl = url + "?data=[out:json];way[maxspeed](%f,%f,%f,%f);out%%20geom;";
+        this.tileSize = config.getDouble(Keys.SPEED_LIMIT_TILE_SIZE);
+        int cacheSize = config.getInteger(Keys.SPEED_LIMIT_CACHE_SIZE);
+        if (cacheSize > 0) {
+            this.tiles = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry eldest) {
+                    return size() > cacheSize;
+                }
+            });
+        } else {
+            this.tiles = null;
+        }
     }
 
-    private Double parseSpeed(String value) {
-        if (value.endsWith(" mph")) {
-            return UnitsConverter.knotsFromMph(Double.parseDouble(value.substring(0, value.length() - 4)));
-        } else if (value.endsWith(" knots")) {
-            return Double.parseDouble(value.substring(0, value.length() - 6));
-        } else if (value.matches("\\d+")) {
-            return UnitsConverter.knotsFromKph(Double.parseDouble(value));
-        } else {
+    static Double parseSpeed(String value) {
+        try {
+            if (value.endsWith(" mph")) {
+                return UnitsConverter.knotsFromMph(Double.parseDouble(value.substring(0, value.length() - 4)));
+            } else if (value.endsWith(" knots")) {
+                return Double.parseDouble(value.substring(0, value.length() - 6));
+            } else if (value.matches("\\d+")) {
+                return UnitsConverter.knotsFromKph(Double.parseDouble(value));
+            }
+        } catch (NumberFormatException e) {
             return null;
         }
+        return null;
+    }
+
+    private static Double parseSpeed(JsonObject element) {
+        JsonObject tags = element.getJsonObject("tags");
+        if (tags == null || !tags.containsKey("maxspeed")) {
+            return null;
+        }
+        return parseSpeed(tags.getString("maxspeed"));
     }
 
     @Override
     public void getSpeedLimit(double latitude, double longitude, SpeedLimitProviderCallback callback) {
+        if (tiles != null) {
+            getCachedSpeedLimit(latitude, longitude, callback);
+            return;
+        }
+
         String formattedUrl = String.format(url, latitude, longitude);
         AsyncInvoker invoker = client.target(formattedUrl).request().async();
         invoker.get(new InvocationCallback<JsonObject>() {
             @Override
             public void completed(JsonObject json) {
                 JsonArray elements = json.getJsonArray("elements");
-                if (!elements.isEmpty()) {
-                    Double maxSpeed = parseSpeed(
-                            elements.getJsonObject(0).getJsonObject("tags").getString("maxspeed"));
+                if (elements != null && !elements.isEmpty()) {
+                    Double maxSpeed;
+                    try {
+                        maxSpeed = parseSpeed(elements.getJsonObject(0));
+                    } catch (RuntimeException e) {
+                        maxSpeed = null;
+                    }
                     if (maxSpeed != null) {
                         callback.onSuccess(maxSpeed);
                     } else {
@@ -76,4 +130,96 @@ public class OverpassSpeedLimitProvider implements SpeedLimitProvider {
         });
     }
 
+    private void resolve(SpeedLimitIndex index, PendingRequest request) {
+        double speedLimit = index.findSpeedLimit(request.latitude(), request.longitude(), accuracy);
+        if (!Double.isNaN(speedLimit)) {
+            request.callback().onSuccess(speedLimit);
+        } else {
+            request.callback().onFailure(new SpeedLimitException("Not found"));
+        }
+    }
+
+    private void getCachedSpeedLimit(double latitude, double longitude, SpeedLimitProviderCallback callback) {
+        PendingRequest request = new PendingRequest(latitude, longitude, callback);
+
+        int latitudeTile = (int) Math.floor(latitude / tileSize);
+        int longitudeTile = (int) Math.floor(longitude / tileSize);
+        long key = ((long) latitudeTile << 32) | (longitudeTile & 0xffffffffL);
+
+        SpeedLimitIndex index = tiles.get(key);
+        if (index != null) {
+            resolve(index, request);
+            return;
+        }
+
+        synchronized (pendingTiles) {
+            List<PendingRequest> requests = pendingTiles.get(key);
+            if (requests != null) {
+                requests.add(request);
+                return;
+            }
+            pendingTiles.put(key, new LinkedList<>(List.of(request)));
+        }
+
+        // pad the tile by accuracy, so roads just across the tile edge are still found
+        double latitudePadding = accuracy / METERS_PER_DEGREE;
+        double longitudePadding = latitudePadding / Math.max(Math.cos(Math.toRadians(latitude)), 0.01);
+        String formattedUrl = String.format(
+                tileUrl,
+                latitudeTile * tileSize - latitudePadding, longitudeTile * tileSize - longitudePadding,
+                (latitudeTile + 1) * tileSize + latitudePadding, (longitudeTile + 1) * tileSize + longitudePadding);
+        client.target(formattedUrl).request().async().get(new InvocationCallback<JsonObject>() {
+            @Override
+            public void completed(JsonObject json) {
+                SpeedLimitIndex index;
+                try {
+                    index = parseTile(json);
+                } catch (RuntimeException e) {
+                    failed(e);
+                    return;
+                }
+                tiles.put(key, index);
+                for (PendingRequest request : completeTile(key)) {
+                    resolve(index, request);
+                }
+            }
+
+            @Override
+            public void failed(Throwable throwable) {
+                for (PendingRequest request : completeTile(key)) {
+                    request.callback().onFailure(throwable);
+                }
+            }
+        });
+    }
+
+    private static SpeedLimitIndex parseTile(JsonObject json) {
+        SpeedLimitIndex index = new SpeedLimitIndex();
+        for (JsonObject element : json.getJsonArray("elements").getValuesAs(JsonObject.class)) {
+            try {
+                Double speedLimit = parseSpeed(element);
+                JsonArray geometry = element.getJsonArray("geometry");
+                if (speedLimit != null && geometry != null) {
+                    double[] coordinates = new double[geometry.size() * 2];
+                    for (int i = 0; i < geometry.size(); i++) {
+                        JsonObject point = geometry.getJsonObject(i);
+                        coordinates[i * 2] = point.getJsonNumber("lat").doubleValue();
+                        coordinates[i * 2 + 1] = point.getJsonNumber("lon").doubleValue();
+                    }
+                    index.addWay(coordinates, speedLimit);
+                }
+            } catch (RuntimeException e) {
+                LOGGER.debug("Speed limit element skipped", e);
+            }
+        }
+        return index;
+    }
+
+    private List<PendingRequest> completeTile(long key) {
+        synchronized (pendingTiles) {
+            List<PendingRequest> requests = pendingTiles.remove(key);
+            return requests != null ? requests : List.of();
+        }
+    }
+
 }
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2024 Anton Tananaev (anton@traccar.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.traccar.speedlimit;
+
+import org.traccar.helper.DistanceCalculator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory grid index of road segments with speed limits. Index is populated once and then only read, so lookups
+ * can be done concurrently after construction.
+ */
+public class SpeedLimitIndex {
+
+    private static final double CELL_SIZE = 0.01;
+    private static final double METERS_PER_DEGREE = 111320;
+
+    private double[] latitudes = new double[256];
+    private double[] longitudes = new double[256];
+    private double[] speedLimits = new double[256];
+    private int size;
+
+    private final Map<Long, List<Integer>> cells = new HashMap<>();
+
+    private static int cell(double value) {
+        return (int) Math.floor(value / CELL_SIZE);
+    }
+
+    private static long cellKey(int latitudeCell, int longitudeCell) {
+        return ((long) latitudeCell << 32) | (longitudeCell & 0xffffffffL);
+    }
+
+    private void addPoint(double latitude, double longitude, double speedLimit) {
+        if (size == latitudes.length) {
+            int capacity = size * 2;
+            latitudes = Arrays.copyOf(latitudes, capacity);
+            longitudes = Arrays.copyOf(longitudes, capacity);
+            speedLimits = Arrays.copyOf(speedLimits, capacity);
+        }
+        latitudes[size] = latitude;
+        longitudes[size] = longitude;
+        speedLimits[size] = speedLimit;
+        size += 1;
+    }
+
+    private void addSegment(int start) {
+        int latitudeFrom = cell(Math.min(latitudes[start], latitudes[start + 1]));
+        int latitudeTo = cell(Math.max(latitudes[start], latitudes[start + 1]));
+        int longitudeFrom = cell(Math.min(longitudes[start], longitudes[start + 1]));
+        int longitudeTo = cell(Math.max(longitudes[start], longitudes[start + 1]));
+        for (int latitudeCell = latitudeFrom; latitudeCell <= latitudeTo; latitudeCell++) {
+            for (int longitudeCell = longitudeFrom; longitudeCell <= longitudeTo; longitudeCell++) {
+                cells.computeIfAbsent(cellKey(latitudeCell, longitudeCell), k -> new ArrayList<>()).add(start);
+            }
+        }
+    }
+
+    /**
+     * Add a road with the given speed limit in knots. Coordinates are provided as latitude and longitude pairs.
+     */
+    public void addWay(double[] coordinates, double speedLimit) {
+        for (int i = 0; i + 1 < coordinates.length; i += 2) {
+            if (i > 0 && coordinates[i] == coordinates[i - 2] && coordinates[i + 1] == coordinates[i - 1]) {
+                continue;
+            }
+            addPoint(coordinates[i], coordinates[i + 1], speedLimit);
+            if (i > 0) {
+                addSegment(size - 2);
+            }
+        }
+    }
+
+    public int getPointCount() {
+        return size;
+    }
+
+    /**
+     * Find speed limit of the nearest road segment within the given distance in meters.
+     *
+     * @return speed limit in knots or {@code Double.NaN} if no road is found
+     */
+    public double findSpeedLimit(double latitude, double longitude, double accuracy) {
+        double latitudeDelta = accuracy / METERS_PER_DEGREE;
+        double longitudeDelta = latitudeDelta / Math.max(Math.cos(Math.toRadians(latitude)), 0.01);
+
+        int latitudeFrom = cell(latitude - latitudeDelta);
+        int latitudeTo = cell(latitude + latitudeDelta);
+        int longitudeFrom = cell(longitude - longitudeDelta);
+        int longitudeTo = cell(longitude + longitudeDelta);
+
+        double result = Double.NaN;
+        double resultDistance = accuracy;
+        for (int latitudeCell = latitudeFrom; latitudeCell <= latitudeTo; latitudeCell++) {
+            for (int longitudeCell = longitudeFrom; longitudeCell <= longitudeTo; longitudeCell++) {
+                List<Integer> segments = cells.get(cellKey(latitudeCell, longitudeCell));
+                if (segments != null) {
+                    for (int start : segments) {
+                        double distance = DistanceCalculator.distanceToLine(
+                                latitude, longitude,
+                                latitudes[start], longitudes[start], latitudes[start + 1], longitudes[start + 1]);
+                        if (distance <= resultDistance) {
+                            resultDistance = distance;
+                            result = speedLimits[start];
+                        }
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+}
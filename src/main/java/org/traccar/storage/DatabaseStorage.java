@@ -79,18 +79,23 @@ public class DatabaseStorage extends Storage {
         }
     }
 
-    @Override
-    public <T> long addObject(T entity, Request request) throws StorageException {
-        List<String> columns = request.getColumns().getColumns(entity.getClass(), "get");
+    private String formatInsert(Class<?> clazz, List<String> columns) throws StorageException {
         StringBuilder query = new StringBuilder("INSERT INTO ");
-        query.append(getStorageName(entity.getClass()));
+        query.append(getStorageName(clazz));
         query.append("(");
         query.append(formatColumns(columns, c -> c));
         query.append(") VALUES (");
         query.append(formatColumns(columns, c -> ':' + c));
         query.append(")");
+        return query.toString();
+    }
+
+    @Override
+    public <T> long addObject(T entity, Request request) throws StorageException {
+        List<String> columns = request.getColumns().getColumns(entity.getClass(), "get");
         try {
-            QueryBuilder builder = QueryBuilder.create(config, dataSource, objectMapper, query.toString(), true);
+            QueryBuilder builder = QueryBuilder.create(
+                    config, dataSource, objectMapper, formatInsert(entity.getClass(), columns), true);
             builder.setObject(entity, columns);
             return builder.executeUpdate();
         } catch (SQLException e) {
@@ -98,6 +103,25 @@ public class DatabaseStorage extends Storage {
         }
     }
 
+    @Override
+    public <T> List<Long> addObjects(List<T> entities, Request request) throws StorageException {
+        if (entities.size() <= 1 || databaseType.equals("Microsoft SQL Server")) {
+            return super.addObjects(entities, request); // no generated keys for batches
+        }
+        Class<?> clazz = entities.get(0).getClass();
+        List<String> columns = request.getColumns().getColumns(clazz, "get");
+        try {
+            QueryBuilder builder = QueryBuilder.create(
+                    config, dataSource, objectMapper, formatInsert(clazz, columns), true);
+            for (T entity : entities) {
+                builder.setObject(entity, columns).addBatch();
+            }
+            return builder.executeBatch();
+        } catch (SQLException e) {
+            throw new StorageException(e);
+        }
+    }
+
     @Override
     public <T> void updateObject(T entity, Request request) throws StorageException {
         List<String> columns = request.getColumns().getColumns(entity.getClass(), "get");
@@ -19,6 +19,7 @@ import org.traccar.model.BaseModel;
 import org.traccar.model.Permission;
 import org.traccar.storage.query.Request;
 
+import java.util.ArrayList;
 import java.util.List;
 
 public abstract class Storage {
@@ -27,6 +28,19 @@ public abstract class Storage {
 
     public abstract <T> long addObject(T entity, Request request) throws StorageException;
 
+    /**
+     * Add multiple objects of the same type.
+     *
+     * @return generated ids in the order of provided entities
+     */
+    public <T> List<Long> addObjects(List<T> entities, Request request) throws StorageException {
+        List<Long> result = new ArrayList<>(entities.size());
+        for (T entity : entities) {
+            result.add(addObject(entity, request));
+        }
+        return result;
+    }
+
     public abstract <T> void updateObject(T entity, Request request) throws StorageException;
 
     public abstract void removeObject(Class<?> clazz, Request request) throws StorageException;
@@ -0,0 +1,147 @@
+package org.traccar.broadcast;
+
+import org.junit.jupiter.api.Test;
+import org.traccar.MainModule;
+import org.traccar.model.Device;
+import org.traccar.model.Event;
+import org.traccar.model.ObjectOperation;
+import org.traccar.model.Position;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BroadcastSerializerTest {
+
+    private static final List<String> TYPES = List.of("json", "protobuf");
+
+    private static List<BroadcastMessage> roundTrip(BroadcastMessage message) throws IOException {
+        List<BroadcastMessage> result = new ArrayList<>();
+        for (String type : TYPES) {
+            var serializer = new BroadcastSerializer(type, MainModule.provideObjectMapper());
+            byte[] data = serializer.serialize(message);
+            byte[] datagram = new byte[data.length + 4];
+            System.arraycopy(data, 0, datagram, 2, data.length);
+            result.add(serializer.deserialize(datagram, 2, data.length));
+        }
+        return result;
+    }
+
+    @Test
+    public void testDevice() throws Exception {
+        Device device = new Device();
+        device.setId(1);
+        device.setName("Truck");
+        device.setUniqueId("123456789012345");
+        device.setStatus(Device.STATUS_ONLINE);
+        device.setLastUpdate(new Date(1700000000000L));
+        BroadcastMessage message = new BroadcastMessage();
+        message.setDevice(device);
+
+        for (BroadcastMessage result : roundTrip(message)) {
+            assertEquals(1, result.getDevice().getId());
+            assertEquals("Truck", result.getDevice().getName());
+            assertEquals("123456789012345", result.getDevice().getUniqueId());
+            assertEquals(Device.STATUS_ONLINE, result.getDevice().getStatus());
+            assertEquals(device.getLastUpdate(), result.getDevice().getLastUpdate());
+            assertNull(result.getPosition());
+        }
+    }
+
+    @Test
+    public void testPosition() throws Exception {
+        Position position = new Position("gt06");
+        position.setDeviceId(1);
+        position.setFixTime(new Date(1700000000000L));
+        position.setLatitude(48.8566);
+        position.setLongitude(2.3522);
+        position.set(Position.KEY_IGNITION, true);
+        BroadcastMessage message = new BroadcastMessage();
+        message.setPosition(position);
+
+        for (BroadcastMessage result : roundTrip(message)) {
+            assertEquals("gt06", result.getPosition().getProtocol());
+            assertEquals(1, result.getPosition().getDeviceId());
+            assertEquals(position.getFixTime(), result.getPosition().getFixTime());
+            assertEquals(48.8566, result.getPosition().getLatitude());
+            assertEquals(2.3522, result.getPosition().getLongitude());
+            assertTrue(result.getPosition().getBoolean(Position.KEY_IGNITION));
+            assertNull(result.getDevice());
+        }
+    }
+
+    @Test
+    public void testUserEvent() throws Exception {
+        Event event = new Event(Event.TYPE_DEVICE_ONLINE, 2);
+        event.setEventTime(new Date(1700000000000L));
+        BroadcastMessage message = new BroadcastMessage();
+        message.setUserId(3L);
+        message.setEvent(event);
+
+        for (BroadcastMessage result : roundTrip(message)) {
+            assertEquals(3L, result.getUserId());
+            assertEquals(Event.TYPE_DEVICE_ONLINE, result.getEvent().getType());
+            assertEquals(2, result.getEvent().getDeviceId());
+            assertEquals(event.getEventTime(), result.getEvent().getEventTime());
+        }
+    }
+
+    @Test
+    public void testCommandDeviceId() throws Exception {
+        BroadcastMessage message = new BroadcastMessage();
+        message.setCommandDeviceId(4L);
+
+        for (BroadcastMessage result : roundTrip(message)) {
+            assertEquals(4L, result.getCommandDeviceId());
+        }
+    }
+
+    @Test
+    public void testInvalidateObject() throws Exception {
+        var invalidateObject = new BroadcastMessage.InvalidateObject();
+        invalidateObject.setClazz("Device");
+        invalidateObject.setId(5);
+        invalidateObject.setOperation(ObjectOperation.UPDATE);
+        BroadcastMessage message = new BroadcastMessage();
+        message.setInvalidateObject(invalidateObject);
+
+        for (BroadcastMessage result : roundTrip(message)) {
+            assertEquals("Device", result.getInvalidateObject().getClazz());
+            assertEquals(5, result.getInvalidateObject().getId());
+            assertEquals(ObjectOperation.UPDATE, result.getInvalidateObject().getOperation());
+        }
+    }
+
+    @Test
+    public void testInvalidatePermission() throws Exception {
+        var invalidatePermission = new BroadcastMessage.InvalidatePermission();
+        invalidatePermission.setClazz1("User");
+        invalidatePermission.setId1(6);
+        invalidatePermission.setClazz2("Device");
+        invalidatePermission.setId2(7);
+        invalidatePermission.setLink(true);
+        BroadcastMessage message = new BroadcastMessage();
+        message.setInvalidatePermission(invalidatePermission);
+
+        for (BroadcastMessage result : roundTrip(message)) {
+            assertEquals("User", result.getInvalidatePermission().getClazz1());
+            assertEquals(6, result.getInvalidatePermission().getId1());
+            assertEquals("Device", result.getInvalidatePermission().getClazz2());
+            assertEquals(7, result.getInvalidatePermission().getId2());
+            assertTrue(result.getInvalidatePermission().getLink());
+        }
+    }
+
+    @Test
+    public void testEmpty() {
+        var serializer = new BroadcastSerializer("protobuf", MainModule.provideObjectMapper());
+        assertThrows(IOException.class, () -> serializer.deserialize(new byte[0], 0, 0));
+    }
+
+}
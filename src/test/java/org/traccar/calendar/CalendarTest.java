@@ -8,6 +8,8 @@ import java.io.IOException;
 import java.text.DateFormat;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -86,4 +88,62 @@ public class CalendarTest {
         assertNotEquals(periods1, periods2);
         assertEquals(periods2, periods3);
     }
+
+    @Test
+    public void testCalendarHorizon() throws IOException, ParserException, ParseException {
+        String calendarString = "BEGIN:VCALENDAR\n" +
+                "VERSION:2.0\n" +
+                "PRODID:-//Traccar//NONSGML Traccar//EN\n" +
+                "BEGIN:VEVENT\n" +
+                "UID:00000000-0000-0000-0000-000000000000\n" +
+                "DTSTART:20240101T080000Z\n" +
+                "DTEND:20240101T170000Z\n" +
+                "RRULE:FREQ=WEEKLY;BYDAY=MO,TU,WE,TH,FR\n" +
+                "EXDATE:20240103T080000Z\n" +
+                "SUMMARY:Work\n" +
+                "END:VEVENT\n" +
+                "END:VCALENDAR";
+        Calendar calendar = new Calendar();
+        calendar.setData(calendarString.getBytes());
+        DateFormat format = new SimpleDateFormat("yyyy-MM-dd HH:mm:ssX");
+
+        assertTrue(calendar.checkMoment(format.parse("2024-01-02 12:00:00Z")));
+        assertFalse(calendar.checkMoment(format.parse("2024-01-02 17:00:01Z")));
+        assertFalse(calendar.checkMoment(format.parse("2024-01-03 12:00:00Z")));
+        assertFalse(calendar.checkMoment(format.parse("2024-01-06 12:00:00Z")));
+        assertTrue(calendar.checkMoment(format.parse("2024-01-08 08:00:01Z")));
+
+        assertTrue(calendar.checkMoment(format.parse("2024-03-15 16:59:59Z")));
+        assertFalse(calendar.checkMoment(format.parse("2024-03-16 12:00:00Z")));
+
+        assertTrue(calendar.checkMoment(format.parse("2024-01-04 12:00:00Z")));
+        assertFalse(calendar.checkMoment(format.parse("2024-01-03 12:00:00Z")));
+    }
+
+    @Test
+    public void testCalendarFutureMoment() throws IOException, ParserException {
+        String calendarString = "BEGIN:VCALENDAR\n" +
+                "VERSION:2.0\n" +
+                "PRODID:-//Traccar//NONSGML Traccar//EN\n" +
+                "BEGIN:VEVENT\n" +
+                "UID:00000000-0000-0000-0000-000000000000\n" +
+                "DTSTART:20240101T000000Z\n" +
+                "DTEND:20240102T000000Z\n" +
+                "RRULE:FREQ=DAILY\n" +
+                "SUMMARY:Always\n" +
+                "END:VEVENT\n" +
+                "END:VCALENDAR";
+        Calendar calendar = new Calendar();
+        calendar.setData(calendarString.getBytes());
+        long now = System.currentTimeMillis();
+
+        assertTrue(calendar.checkMoment(new Date(now + TimeUnit.DAYS.toMillis(365))));
+        assertTrue(calendar.checkMoment(new Date(now)));
+
+        // without events only the index can still answer, so recent moments must be covered by it
+        calendar.getCalendar().getComponents().clear();
+        assertTrue(calendar.checkMoment(new Date(now - TimeUnit.HOURS.toMillis(1))));
+        assertFalse(calendar.checkMoment(new Date(now + TimeUnit.DAYS.toMillis(365))));
+    }
+
 }
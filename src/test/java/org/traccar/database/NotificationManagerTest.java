@@ -0,0 +1,108 @@
+package org.traccar.database;
+
+import org.junit.jupiter.api.Test;
+import org.traccar.config.Config;
+import org.traccar.config.Keys;
+import org.traccar.model.Device;
+import org.traccar.model.Event;
+import org.traccar.model.Notification;
+import org.traccar.model.Position;
+import org.traccar.model.User;
+import org.traccar.notification.NotificationDispatcher;
+import org.traccar.notification.NotificatorManager;
+import org.traccar.session.cache.CacheManager;
+import org.traccar.session.cache.DeviceNotification;
+import org.traccar.storage.Storage;
+import org.traccar.storage.StorageException;
+import org.traccar.storage.query.Request;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class NotificationManagerTest {
+
+    private Storage storage;
+    private CacheManager cacheManager;
+    private NotificationDispatcher notificationDispatcher;
+
+    private NotificationManager createManager(long delay, int size) throws Exception {
+        var config = new Config();
+        config.setString(Keys.DATABASE_EVENT_BATCH_DELAY, String.valueOf(delay));
+        config.setString(Keys.DATABASE_EVENT_BATCH_SIZE, String.valueOf(size));
+        storage = mock(Storage.class);
+        when(storage.addObjects(any(), any(Request.class))).thenReturn(List.of());
+        cacheManager = mock(CacheManager.class);
+        when(cacheManager.getObject(eq(Device.class), anyLong())).thenReturn(new Device());
+        notificationDispatcher = mock(NotificationDispatcher.class);
+        return new NotificationManager(
+                config, storage, cacheManager, null, mock(NotificatorManager.class), notificationDispatcher, null);
+    }
+
+    @Test
+    public void testBatchSize() throws Exception {
+        var notificationManager = createManager(60000, 3);
+
+        notificationManager.updateEvents(Map.of(new Event(Event.TYPE_ALARM, 1), new Position()));
+        notificationManager.updateEvents(Map.of(new Event(Event.TYPE_ALARM, 2), new Position()));
+        verify(storage, after(100).never()).addObjects(any(), any(Request.class));
+
+        notificationManager.updateEvents(Map.of(new Event(Event.TYPE_ALARM, 3), new Position()));
+        verify(storage, timeout(1000)).addObjects(argThat(events -> events.size() == 3), any(Request.class));
+    }
+
+    @Test
+    public void testBatchDelay() throws Exception {
+        var notificationManager = createManager(50, 100);
+
+        notificationManager.updateEvents(Map.of(new Event(Event.TYPE_ALARM, 1), new Position()));
+        verify(storage, never()).addObjects(any(), any(Request.class));
+        verify(storage, timeout(1000)).addObjects(argThat(events -> events.size() == 1), any(Request.class));
+    }
+
+    @Test
+    public void testAlarmFilter() throws Exception {
+        var notificationManager = createManager(0, 100);
+        var notification = new DeviceNotification(
+                new Notification(), null, Set.of("sos"), Set.of("web"), Set.of(new User()));
+        when(cacheManager.getDeviceNotifications(anyLong(), eq(Event.TYPE_ALARM))).thenReturn(List.of(notification));
+
+        notificationManager.updateEvents(Map.of(new Event(Event.TYPE_ALARM, 1), new Position()));
+        verify(notificationDispatcher, never()).send(any(), any(), any(), any(), any(), any());
+
+        Event event = new Event(Event.TYPE_ALARM, 1);
+        event.set(Position.KEY_ALARM, "sos");
+        notificationManager.updateEvents(Map.of(event, new Position()));
+        verify(notificationDispatcher).send(eq("web"), any(), any(), any(), eq(event), any());
+    }
+
+    @Test
+    public void testEventFailure() throws Exception {
+        var notificationManager = createManager(0, 100);
+        var notification = new DeviceNotification(new Notification(), null, null, Set.of("web"), Set.of(new User()));
+        when(cacheManager.getDeviceNotifications(2, Event.TYPE_DEVICE_MOVING)).thenReturn(List.of(notification));
+        doThrow(new StorageException("Stub failure")).when(cacheManager).addDevice(1);
+
+        Map<Event, Position> events = new LinkedHashMap<>();
+        events.put(new Event(Event.TYPE_DEVICE_MOVING, 1), new Position());
+        events.put(new Event(Event.TYPE_DEVICE_MOVING, 2), new Position());
+        notificationManager.updateEvents(events);
+
+        verify(notificationDispatcher).send(eq("web"), any(), any(), any(), argThat(
+                event -> event.getDeviceId() == 2), any());
+    }
+
+}
@@ -0,0 +1,90 @@
+package org.traccar.database;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.traccar.config.Config;
+import org.traccar.config.Keys;
+import org.traccar.model.Device;
+import org.traccar.model.Position;
+import org.traccar.session.cache.CacheManager;
+
+import java.util.Date;
+import java.util.function.LongConsumer;
+
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class RecentPositionManagerTest {
+
+    private CacheManager cacheManager;
+    private RecentPositionManager recentPositionManager;
+    private LongConsumer removalListener;
+
+    @BeforeEach
+    public void setUp() {
+        var config = mock(Config.class);
+        when(config.getBoolean(Keys.FILTER_ENABLE)).thenReturn(true);
+        when(config.getBoolean(Keys.FILTER_RELATIVE)).thenReturn(true);
+        when(config.getInteger(Keys.FILTER_RELATIVE_BUFFER_SIZE)).thenReturn(3);
+        cacheManager = mock(CacheManager.class);
+        when(cacheManager.getObject(eq(Device.class), eq(1L))).thenReturn(new Device());
+        recentPositionManager = new RecentPositionManager(config, cacheManager);
+        var captor = ArgumentCaptor.forClass(LongConsumer.class);
+        verify(cacheManager).addRemovalListener(captor.capture());
+        removalListener = captor.getValue();
+    }
+
+    private Position createPosition(long deviceId, long time) {
+        Position position = new Position();
+        position.setDeviceId(deviceId);
+        position.setTime(new Date(time));
+        return position;
+    }
+
+    @Test
+    public void testPrecedingPosition() {
+        Position first = createPosition(1, 1000);
+        Position second = createPosition(1, 2000);
+        Position third = createPosition(1, 3000);
+        recentPositionManager.addPosition(first);
+        recentPositionManager.addPosition(third);
+        recentPositionManager.addPosition(second);
+
+        assertNull(recentPositionManager.getPrecedingPosition(1, new Date(500)));
+        assertSame(first, recentPositionManager.getPrecedingPosition(1, new Date(1500)));
+        assertSame(second, recentPositionManager.getPrecedingPosition(1, new Date(2000)));
+        assertSame(third, recentPositionManager.getPrecedingPosition(1, new Date(5000)));
+
+        recentPositionManager.addPosition(createPosition(1, 4000));
+        assertNull(recentPositionManager.getPrecedingPosition(1, new Date(1500)));
+
+        recentPositionManager.addPosition(createPosition(1, 500));
+        assertNull(recentPositionManager.getPrecedingPosition(1, new Date(600)));
+    }
+
+    @Test
+    public void testInitialPosition() {
+        Position last = createPosition(1, 1000);
+        when(cacheManager.getPosition(1)).thenReturn(last);
+        recentPositionManager.addPosition(createPosition(1, 2000));
+
+        assertSame(last, recentPositionManager.getPrecedingPosition(1, new Date(1500)));
+    }
+
+    @Test
+    public void testEviction() {
+        recentPositionManager.addPosition(createPosition(1, 1000));
+        recentPositionManager.addPosition(createPosition(2, 1000));
+
+        assertNull(recentPositionManager.getPrecedingPosition(2, new Date(2000)));
+
+        removalListener.accept(1);
+        assertNull(recentPositionManager.getPrecedingPosition(1, new Date(2000)));
+    }
+
+}
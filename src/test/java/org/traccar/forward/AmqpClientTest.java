@@ -0,0 +1,94 @@
+package org.traccar.forward;
+
+import com.rabbitmq.client.Channel;
+import com.rabbitmq.client.ConfirmCallback;
+import com.rabbitmq.client.ShutdownListener;
+import com.rabbitmq.client.ShutdownSignalException;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class AmqpClientTest {
+
+    private static Channel mockChannel() {
+        Channel channel = mock(Channel.class);
+        AtomicLong sequence = new AtomicLong(1);
+        when(channel.getNextPublishSeqNo()).thenAnswer(invocation -> sequence.getAndIncrement());
+        return channel;
+    }
+
+    @Test
+    public void testConfirms() throws Exception {
+        Channel channel = mockChannel();
+        ArgumentCaptor<ConfirmCallback> ack = ArgumentCaptor.forClass(ConfirmCallback.class);
+        ArgumentCaptor<ConfirmCallback> nack = ArgumentCaptor.forClass(ConfirmCallback.class);
+        var client = new AmqpClient(List.of(channel), "traccar", "positions");
+        verify(channel).confirmSelect();
+        verify(channel).addConfirmListener(ack.capture(), nack.capture());
+
+        List<Boolean> results = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            client.publishMessage(i, new byte[] {(byte) i}, ForwardSerializer.CONTENT_TYPE_JSON,
+                    (success, throwable) -> results.add(success));
+        }
+        verify(channel, times(4)).basicPublish(eq("traccar"), eq("positions"), any(), any());
+        assertEquals(4, client.getOutstanding());
+
+        ack.getValue().handle(2, true);
+        assertEquals(List.of(true, true), results);
+
+        nack.getValue().handle(4, false);
+        ack.getValue().handle(3, false);
+        assertEquals(List.of(true, true, false, true), results);
+        assertEquals(0, client.getOutstanding());
+    }
+
+    @Test
+    public void testShutdown() throws Exception {
+        Channel first = mockChannel();
+        Channel second = mockChannel();
+        ArgumentCaptor<ShutdownListener> shutdown = ArgumentCaptor.forClass(ShutdownListener.class);
+        var client = new AmqpClient(List.of(first, second), "traccar", "positions");
+        verify(first).addShutdownListener(shutdown.capture());
+
+        List<Boolean> results = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            client.publishMessage(i, new byte[] {(byte) i}, ForwardSerializer.CONTENT_TYPE_JSON,
+                    (success, throwable) -> results.add(success));
+        }
+        verify(first, times(2)).basicPublish(any(), any(), any(), any());
+        verify(second, times(2)).basicPublish(any(), any(), any(), any());
+
+        shutdown.getValue().shutdownCompleted(mock(ShutdownSignalException.class));
+        assertEquals(List.of(false, false), results);
+        assertEquals(2, client.getOutstanding());
+    }
+
+    @Test
+    public void testDeviceChannel() throws Exception {
+        Channel first = mockChannel();
+        Channel second = mockChannel();
+        var client = new AmqpClient(List.of(first, second), "traccar", "positions");
+
+        for (int i = 0; i < 4; i++) {
+            client.publishMessage(3, new byte[] {(byte) i}, ForwardSerializer.CONTENT_TYPE_JSON,
+                    (success, throwable) -> {
+                    });
+        }
+        verify(first, never()).basicPublish(any(), any(), any(), any());
+        verify(second, times(4)).basicPublish(any(), any(), any(), any());
+    }
+
+}
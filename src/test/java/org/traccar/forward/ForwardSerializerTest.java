@@ -0,0 +1,91 @@
+package org.traccar.forward;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+import org.traccar.model.Device;
+import org.traccar.model.Position;
+import org.traccar.protobuf.v1.TraccarMessages;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ForwardSerializerTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private static PositionData createPositionData() {
+        Device device = new Device();
+        device.setId(1);
+        device.setName("Truck");
+        device.setUniqueId("123456789012345");
+
+        Position position = new Position("gt06");
+        position.setDeviceId(1);
+        position.setServerTime(new Date());
+        position.setDeviceTime(new Date());
+        position.setFixTime(new Date());
+        position.setValid(true);
+        position.setLatitude(48.8566);
+        position.setLongitude(2.3522);
+        position.setSpeed(12.5);
+        position.setCourse(270);
+        position.set(Position.KEY_IGNITION, true);
+        position.set(Position.KEY_SATELLITES, 7);
+        position.set(Position.KEY_POWER, 12.4);
+        position.set(Position.KEY_ODOMETER, 123456789L);
+
+        PositionData positionData = new PositionData();
+        positionData.setDevice(device);
+        positionData.setPosition(position);
+        return positionData;
+    }
+
+    @Test
+    public void testProtobuf() throws Exception {
+        var json = new ForwardSerializer("json", objectMapper);
+        var protobuf = new ForwardSerializer("protobuf", objectMapper);
+        PositionData positionData = createPositionData();
+
+        byte[] jsonData = json.serialize(positionData);
+        byte[] protobufData = protobuf.serialize(positionData);
+        assertTrue(protobufData.length < jsonData.length);
+        assertEquals(ForwardSerializer.CONTENT_TYPE_PROTOBUF, protobuf.getContentType());
+
+        var message = TraccarMessages.PositionData.parseFrom(protobufData);
+        assertEquals("123456789012345", message.getDevice().getUniqueId());
+        assertEquals(48.8566, message.getPosition().getLatitude());
+        assertEquals(7, message.getPosition().getAttributesOrThrow(Position.KEY_SATELLITES).getLongValue());
+    }
+
+    @Disabled
+    @Test
+    public void testPerformance() throws Exception {
+        PositionData positionData = createPositionData();
+        Map<String, Integer> sizes = new HashMap<>();
+        Map<String, Long> times = new HashMap<>();
+        for (String type : new String[] {"json", "protobuf"}) {
+            var serializer = new ForwardSerializer(type, objectMapper);
+            int count = 1_000_000;
+            long size = 0;
+            for (int i = 0; i < count / 10; i++) {
+                size += serializer.serialize(positionData).length;
+            }
+            long start = System.nanoTime();
+            for (int i = 0; i < count; i++) {
+                size += serializer.serialize(positionData).length;
+            }
+            times.put(type, System.nanoTime() - start);
+            sizes.put(type, serializer.serialize(positionData).length);
+            assertTrue(size > 0);
+        }
+        assertTrue(sizes.get("protobuf") < sizes.get("json"));
+        assertTrue(times.get("protobuf") < times.get("json"),
+                "protobuf/json time ratio " + (double) times.get("protobuf") / times.get("json"));
+    }
+
+}
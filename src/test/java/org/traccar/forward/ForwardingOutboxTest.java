@@ -0,0 +1,182 @@
+package org.traccar.forward;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.Timer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ForwardingOutboxTest {
+
+    public static class Item {
+        public int value;
+    }
+
+    @TempDir
+    Path directory;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private Timer timer;
+
+    @BeforeEach
+    public void setUp() {
+        timer = new HashedWheelTimer(10, TimeUnit.MILLISECONDS);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        timer.stop();
+    }
+
+    private ForwardingOutbox<Item> createOutbox(
+            long maxSize, ForwardingOutbox.Sender<Item> sender) throws IOException {
+        return createOutbox(maxSize, 1000, sender);
+    }
+
+    private ForwardingOutbox<Item> createOutbox(
+            long maxSize, long syncInterval, ForwardingOutbox.Sender<Item> sender) throws IOException {
+        return createOutbox(maxSize, syncInterval, 0, sender);
+    }
+
+    private ForwardingOutbox<Item> createOutbox(
+            long maxSize, long syncInterval, int maxAttempts, ForwardingOutbox.Sender<Item> sender)
+            throws IOException {
+        return new ForwardingOutbox<>(
+                directory, 64, maxSize, 2, 10, maxAttempts, syncInterval, timer, objectMapper, Item.class, sender);
+    }
+
+    private static Item item(int value) {
+        Item item = new Item();
+        item.value = value;
+        return item;
+    }
+
+    private static long countSegments(Path directory) throws IOException {
+        try (var files = Files.list(directory)) {
+            return files.filter(file -> file.toString().endsWith(".log")).count();
+        }
+    }
+
+    @Test
+    public void testReplay() throws Exception {
+        List<Integer> pending = new CopyOnWriteArrayList<>();
+        var outbox = createOutbox(1024, (item, resultHandler) -> pending.add(item.value));
+        for (int i = 0; i < 10; i++) {
+            outbox.forward(item(i), (success, throwable) -> assertTrue(success));
+        }
+        assertEquals(List.of(0, 1), pending);
+        assertTrue(countSegments(directory) > 1);
+
+        List<Integer> delivered = new CopyOnWriteArrayList<>();
+        var restarted = createOutbox(1024, (item, resultHandler) -> {
+            delivered.add(item.value);
+            resultHandler.onResult(true, null);
+        });
+        assertEquals(List.of(0, 1, 2, 3, 4, 5, 6, 7, 8, 9), delivered);
+        assertEquals(0, restarted.getPending());
+        assertEquals(1, countSegments(directory));
+    }
+
+    @Test
+    public void testRetry() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+        CountDownLatch delivered = new CountDownLatch(1);
+        var outbox = createOutbox(1024, (item, resultHandler) -> {
+            if (attempts.incrementAndGet() < 3) {
+                resultHandler.onResult(false, new RuntimeException("Stub failure"));
+            } else {
+                resultHandler.onResult(true, null);
+                delivered.countDown();
+            }
+        });
+
+        outbox.forward(item(1), (success, throwable) -> assertTrue(success));
+
+        assertTrue(delivered.await(5, TimeUnit.SECONDS));
+        assertEquals(3, attempts.get());
+        assertEquals(0, outbox.getPending());
+    }
+
+    @Test
+    public void testFull() throws Exception {
+        var outbox = createOutbox(128, (item, resultHandler) -> {
+        });
+        AtomicInteger rejected = new AtomicInteger();
+        for (int i = 0; i < 20; i++) {
+            outbox.forward(item(i), (success, throwable) -> {
+                if (!success) {
+                    rejected.incrementAndGet();
+                }
+            });
+        }
+        assertTrue(rejected.get() > 0);
+        assertEquals(rejected.get(), outbox.getDropped());
+        assertEquals(2, countSegments(directory));
+    }
+
+    @Test
+    public void testSyncInterval() throws Exception {
+        var outbox = createOutbox(1024, 10, (item, resultHandler) -> {
+            if (item.value < 2) {
+                resultHandler.onResult(true, null);
+            }
+        });
+        for (int i = 0; i < 5; i++) {
+            outbox.forward(item(i), (success, throwable) -> assertTrue(success));
+        }
+        outbox.sync();
+
+        List<Integer> delivered = new CopyOnWriteArrayList<>();
+        createOutbox(1024, 10, (item, resultHandler) -> {
+            delivered.add(item.value);
+            resultHandler.onResult(true, null);
+        });
+        assertEquals(List.of(2, 3, 4), delivered);
+    }
+
+    @Test
+    public void testMaxAttempts() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+        List<Integer> delivered = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(1);
+        var outbox = createOutbox(1024, 1000, 3, (item, resultHandler) -> {
+            if (item.value == 0) {
+                attempts.incrementAndGet();
+                resultHandler.onResult(false, new RuntimeException("Stub failure"));
+            } else {
+                delivered.add(item.value);
+                resultHandler.onResult(true, null);
+                done.countDown();
+            }
+        });
+
+        outbox.forward(item(0), (success, throwable) -> assertTrue(success));
+        outbox.forward(item(1), (success, throwable) -> assertTrue(success));
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        long deadline = System.currentTimeMillis() + 5000;
+        while (outbox.getSkipped() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(3, attempts.get());
+        assertEquals(1, outbox.getSkipped());
+        assertEquals(List.of(1), delivered);
+        assertEquals(0, outbox.getPending());
+    }
+
+}
@@ -0,0 +1,62 @@
+package org.traccar.forward;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.Test;
+import org.traccar.model.Device;
+import org.traccar.model.Event;
+import org.traccar.model.Position;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class KafkaClientTest {
+
+    @Test
+    public void testSend() {
+        var producer = new MockProducer<>(false, new StringSerializer(), new ByteArraySerializer());
+        var client = new KafkaClient(producer, "positions");
+
+        List<Boolean> results = new ArrayList<>();
+        client.send(1, new byte[] {1}, (success, throwable) -> results.add(success));
+        client.send(2, new byte[] {2}, (success, throwable) -> results.add(success));
+
+        assertTrue(results.isEmpty());
+        assertEquals("1", producer.history().get(0).key());
+        assertEquals("2", producer.history().get(1).key());
+        assertEquals("positions", producer.history().get(0).topic());
+
+        assertTrue(producer.completeNext());
+        assertTrue(producer.errorNext(new RuntimeException("Broker failure")));
+        assertEquals(List.of(true, false), results);
+    }
+
+    @Test
+    public void testForwarderKey() {
+        var producer = new MockProducer<>(true, new StringSerializer(), new ByteArraySerializer());
+        var client = new KafkaClient(producer, "forward");
+        var serializer = new ForwardSerializer("json", new ObjectMapper());
+
+        Position position = new Position();
+        position.setDeviceId(7);
+        PositionData positionData = new PositionData();
+        positionData.setPosition(position);
+        positionData.setDevice(new Device());
+        new PositionForwarderKafka(client, serializer).forward(positionData, (success, throwable) -> {
+        });
+
+        EventData eventData = new EventData();
+        eventData.setEvent(new Event(Event.TYPE_ALARM, 8));
+        new EventForwarderKafka(client, serializer).forward(eventData, (success, throwable) -> {
+        });
+
+        assertEquals("7", producer.history().get(0).key());
+        assertEquals("8", producer.history().get(1).key());
+    }
+
+}
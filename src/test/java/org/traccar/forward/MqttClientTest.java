@@ -0,0 +1,206 @@
+package org.traccar.forward;
+
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.handler.codec.mqtt.MqttConnectReturnCode;
+import io.netty.handler.codec.mqtt.MqttDecoder;
+import io.netty.handler.codec.mqtt.MqttEncoder;
+import io.netty.handler.codec.mqtt.MqttMessage;
+import io.netty.handler.codec.mqtt.MqttMessageBuilders;
+import io.netty.handler.codec.mqtt.MqttMessageType;
+import io.netty.handler.codec.mqtt.MqttPublishMessage;
+import io.netty.handler.codec.mqtt.MqttQoS;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+import org.traccar.config.Config;
+import org.traccar.config.Keys;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MqttClientTest {
+
+    private final List<String> received = new CopyOnWriteArrayList<>();
+
+    private EventLoopGroup group;
+    private Channel server;
+
+    private final class BrokerHandler extends SimpleChannelInboundHandler<MqttMessage> {
+        @Override
+        protected void channelRead0(ChannelHandlerContext ctx, MqttMessage message) {
+            MqttMessageType type = message.fixedHeader().messageType();
+            if (type == MqttMessageType.CONNECT) {
+                ctx.writeAndFlush(MqttMessageBuilders.connAck()
+                        .returnCode(MqttConnectReturnCode.CONNECTION_ACCEPTED).sessionPresent(false).build());
+            } else if (type == MqttMessageType.PUBLISH) {
+                MqttPublishMessage publish = (MqttPublishMessage) message;
+                received.add(publish.payload().toString(StandardCharsets.UTF_8));
+                if (publish.fixedHeader().qosLevel() == MqttQoS.AT_LEAST_ONCE) {
+                    ctx.writeAndFlush(MqttMessageBuilders.pubAck()
+                            .packetId(publish.variableHeader().packetId()).build());
+                }
+            } else if (type == MqttMessageType.PINGREQ) {
+                ctx.writeAndFlush(MqttMessage.PINGRESP);
+            }
+        }
+    }
+
+    @BeforeEach
+    public void setUp() {
+        group = new NioEventLoopGroup(1);
+        server = new ServerBootstrap()
+                .group(group)
+                .channel(NioServerSocketChannel.class)
+                .childHandler(new ChannelInitializer<SocketChannel>() {
+                    @Override
+                    protected void initChannel(SocketChannel channel) {
+                        channel.pipeline().addLast(new MqttDecoder(), MqttEncoder.INSTANCE, new BrokerHandler());
+                    }
+                })
+                .bind("127.0.0.1", 0).syncUninterruptibly().channel();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        server.close().syncUninterruptibly();
+        group.shutdownGracefully();
+    }
+
+    private MqttClient createClient(Config config, boolean binary) throws Exception {
+        int port = ((InetSocketAddress) server.localAddress()).getPort();
+        MqttClient client = new MqttClient(config, "mqtt://127.0.0.1:" + port, binary);
+        client.getConnection().get(5, TimeUnit.SECONDS);
+        return client;
+    }
+
+    @Test
+    public void testPublish() throws Exception {
+        MqttClient client = createClient(new Config(), false);
+
+        CountDownLatch latch = new CountDownLatch(100);
+        AtomicInteger failed = new AtomicInteger();
+        for (int i = 0; i < 100; i++) {
+            client.publish("positions", Integer.toString(i).getBytes(StandardCharsets.UTF_8), (success, e) -> {
+                if (!success) {
+                    failed.incrementAndGet();
+                }
+                latch.countDown();
+            });
+        }
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertEquals(0, failed.get());
+        assertEquals(100, received.size());
+    }
+
+    @Test
+    public void testAggregate() throws Exception {
+        Config config = new Config();
+        config.setString(Keys.FORWARD_MQTT_AGGREGATE, "100");
+        MqttClient client = createClient(config, false);
+
+        CountDownLatch latch = new CountDownLatch(3);
+        for (String payload : List.of("{\"id\":1}", "{\"id\":2}", "{\"id\":3}")) {
+            client.publish("positions", payload.getBytes(StandardCharsets.UTF_8), (success, e) -> {
+                assertTrue(success);
+                latch.countDown();
+            });
+        }
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of("[{\"id\":1},{\"id\":2},{\"id\":3}]"), received);
+    }
+
+    @Test
+    public void testAggregateSize() throws Exception {
+        Config config = new Config();
+        config.setString(Keys.FORWARD_MQTT_AGGREGATE, "100");
+        config.setString(Keys.FORWARD_MQTT_AGGREGATE_SIZE, "20");
+        MqttClient client = createClient(config, false);
+
+        CountDownLatch latch = new CountDownLatch(3);
+        for (String payload : List.of("{\"id\":1}", "{\"id\":2}", "{\"id\":3}")) {
+            client.publish("positions", payload.getBytes(StandardCharsets.UTF_8), (success, e) -> {
+                assertTrue(success);
+                latch.countDown();
+            });
+        }
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of("[{\"id\":1},{\"id\":2}]", "[{\"id\":3}]"), received);
+    }
+
+    @Test
+    public void testAggregateBinary() throws Exception {
+        Config config = new Config();
+        config.setString(Keys.FORWARD_MQTT_AGGREGATE, "100");
+        MqttClient client = createClient(config, true);
+
+        CountDownLatch latch = new CountDownLatch(2);
+        client.publish("positions", new byte[] {'a', 'b'}, (success, e) -> latch.countDown());
+        client.publish("positions", new byte[] {'c'}, (success, e) -> latch.countDown());
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertEquals("0261620163", ByteBufUtil.hexDump(received.get(0).getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    public void testQueueLimit() throws Exception {
+        Config config = new Config();
+        config.setString(Keys.FORWARD_MQTT_QUEUE, "1");
+        config.setString(Keys.FORWARD_MQTT_AGGREGATE, "100");
+        MqttClient client = createClient(config, false);
+
+        List<Boolean> results = new CopyOnWriteArrayList<>();
+        client.publish("positions", new byte[] {'1'}, (success, e) -> results.add(success));
+        client.publish("positions", new byte[] {'2'}, (success, e) -> results.add(success));
+        assertEquals(List.of(false), results);
+        assertFalse(received.contains("[2]"));
+    }
+
+    @Disabled
+    @Test
+    public void testPerformance() throws Exception {
+        Config config = new Config();
+        config.setString(Keys.FORWARD_MQTT_QUEUE, "100000");
+        MqttClient client = createClient(config, false);
+
+        int count = 100_000;
+        byte[] payload = new byte[200];
+        CountDownLatch latch = new CountDownLatch(count);
+        AtomicInteger failed = new AtomicInteger();
+        long start = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            client.publish("positions", payload, (success, e) -> {
+                if (!success) {
+                    failed.incrementAndGet();
+                }
+                latch.countDown();
+            });
+        }
+        assertTrue(latch.await(1, TimeUnit.MINUTES));
+        long time = System.nanoTime() - start;
+        assertEquals(0, failed.get());
+        assertTrue(count * 1_000_000_000L / time > 10_000);
+    }
+
+}
@@ -0,0 +1,127 @@
+package org.traccar.forward;
+
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.channel.nio.NioEventLoopGroup;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.traccar.config.Config;
+import org.traccar.config.Keys;
+
+import java.io.InputStream;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class NetworkForwarderTest {
+
+    private EventLoopGroup group;
+    private NetworkForwarder forwarder;
+    private Channel source;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        Config config = new Config();
+        config.setString(Keys.SERVER_FORWARD, "127.0.0.1");
+        group = new NioEventLoopGroup(1);
+        forwarder = new NetworkForwarder(config, group);
+        source = new EmbeddedChannel();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        group.shutdownGracefully();
+    }
+
+    private void forward(int port, boolean datagram, String data) {
+        forwarder.forward(source, port, datagram, Unpooled.copiedBuffer(data, StandardCharsets.US_ASCII));
+    }
+
+    private static boolean await(Channel channel, boolean autoRead) throws InterruptedException {
+        for (int i = 0; i < 500 && channel.config().isAutoRead() != autoRead; i++) {
+            Thread.sleep(10);
+        }
+        return channel.config().isAutoRead() == autoRead;
+    }
+
+    @Test
+    public void testTcp() throws Exception {
+        try (ServerSocket server = new ServerSocket(0)) {
+            server.setSoTimeout(5000);
+            forward(server.getLocalPort(), false, "first");
+            forward(server.getLocalPort(), false, "second");
+
+            try (Socket socket = server.accept()) {
+                socket.setSoTimeout(5000);
+                InputStream input = socket.getInputStream();
+                assertEquals("firstsecond", new String(input.readNBytes(11), StandardCharsets.US_ASCII));
+
+                forwarder.disconnect(source);
+                assertEquals(-1, input.read());
+            }
+        }
+    }
+
+    @Test
+    public void testBackpressure() throws Exception {
+        try (ServerSocket server = new ServerSocket(0)) {
+            server.setSoTimeout(5000);
+            forwarder.forward(source, server.getLocalPort(), false, Unpooled.wrappedBuffer(new byte[] {0}));
+
+            try (Socket socket = server.accept()) {
+                socket.setSoTimeout(5000);
+                assertTrue(await(source, true));
+
+                byte[] chunk = new byte[64 * 1024];
+                int count = 0;
+                while (source.config().isAutoRead() && count < 1000) {
+                    forwarder.forward(source, server.getLocalPort(), false, Unpooled.wrappedBuffer(chunk));
+                    count += 1;
+                    Thread.sleep(1);
+                }
+                assertTrue(await(source, false));
+
+                InputStream input = socket.getInputStream();
+                assertEquals(1 + count * chunk.length, input.readNBytes(1 + count * chunk.length).length);
+                assertTrue(await(source, true));
+            }
+        }
+    }
+
+    @Test
+    public void testConnectFailure() throws Exception {
+        int port;
+        try (ServerSocket server = new ServerSocket(0)) {
+            port = server.getLocalPort();
+        }
+        forward(port, false, "data");
+
+        for (int i = 0; i < 500 && source.isOpen(); i++) {
+            Thread.sleep(10);
+        }
+        assertFalse(source.isOpen());
+    }
+
+    @Test
+    public void testUdp() throws Exception {
+        try (DatagramSocket server = new DatagramSocket(0)) {
+            server.setSoTimeout(5000);
+            forward(server.getLocalPort(), true, "packet");
+
+            DatagramPacket packet = new DatagramPacket(new byte[64], 64);
+            server.receive(packet);
+            assertEquals("packet", new String(
+                    packet.getData(), 0, packet.getLength(), StandardCharsets.US_ASCII));
+        }
+    }
+
+}
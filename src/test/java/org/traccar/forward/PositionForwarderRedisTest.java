@@ -0,0 +1,158 @@
+package org.traccar.forward;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.traccar.config.Config;
+import org.traccar.config.Keys;
+import org.traccar.model.Device;
+import org.traccar.model.Position;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PositionForwarderRedisTest {
+
+    private final List<List<String>> commands = new CopyOnWriteArrayList<>();
+
+    private ServerSocket server;
+
+    private static String readLine(InputStream input) throws IOException {
+        StringBuilder line = new StringBuilder();
+        int b;
+        while ((b = input.read()) != '\r') {
+            if (b < 0) {
+                throw new IOException("Connection closed");
+            }
+            line.append((char) b);
+        }
+        input.read();
+        return line.toString();
+    }
+
+    private void serve(Socket socket) {
+        try (socket) {
+            InputStream input = new BufferedInputStream(socket.getInputStream());
+            OutputStream output = socket.getOutputStream();
+            while (true) {
+                int count = Integer.parseInt(readLine(input).substring(1));
+                List<String> command = new ArrayList<>();
+                for (int i = 0; i < count; i++) {
+                    int length = Integer.parseInt(readLine(input).substring(1));
+                    command.add(new String(input.readNBytes(length), StandardCharsets.UTF_8));
+                    input.readNBytes(2);
+                }
+                String reply = switch (command.get(0).toUpperCase()) {
+                    case "LPUSH" -> ":1\r\n";
+                    case "XADD" -> "$3\r\n1-0\r\n";
+                    case "PING" -> "+PONG\r\n";
+                    default -> "+OK\r\n";
+                };
+                if (!command.get(0).equalsIgnoreCase("CLIENT")) {
+                    commands.add(command);
+                }
+                output.write(reply.getBytes(StandardCharsets.US_ASCII));
+                output.flush();
+            }
+        } catch (IOException e) {
+            // connection closed
+        }
+    }
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        server = new ServerSocket(0);
+        Thread thread = new Thread(() -> {
+            while (!server.isClosed()) {
+                try {
+                    Socket socket = server.accept();
+                    new Thread(() -> serve(socket)).start();
+                } catch (IOException e) {
+                    // server closed
+                }
+            }
+        });
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        server.close();
+    }
+
+    private PositionData createPositionData(String uniqueId) {
+        Device device = new Device();
+        device.setUniqueId(uniqueId);
+        PositionData positionData = new PositionData();
+        positionData.setDevice(device);
+        positionData.setPosition(new Position("test"));
+        return positionData;
+    }
+
+    private Config createConfig() {
+        Config config = new Config();
+        config.setString(Keys.FORWARD_URL, "redis://127.0.0.1:" + server.getLocalPort());
+        config.setString(Keys.FORWARD_BATCH_SIZE, "2");
+        return config;
+    }
+
+    @Test
+    public void testList() throws Exception {
+        Config config = createConfig();
+        config.setString(Keys.FORWARD_REDIS_MAX_LENGTH, "10");
+        var forwarder = new PositionForwarderRedis(config, new ObjectMapper());
+
+        CountDownLatch latch = new CountDownLatch(3);
+        List<Boolean> results = new CopyOnWriteArrayList<>();
+        for (String uniqueId : List.of("1", "2", "3")) {
+            forwarder.forward(createPositionData(uniqueId), (success, throwable) -> {
+                results.add(success);
+                latch.countDown();
+            });
+        }
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of(true, true, true), results);
+        assertEquals(List.of("LPUSH", "LTRIM", "LPUSH", "LTRIM", "LPUSH", "LTRIM"),
+                commands.stream().map(command -> command.get(0).toUpperCase()).toList());
+        assertEquals("positions.1", commands.get(0).get(1));
+        assertEquals(List.of("LTRIM", "positions.1", "0", "9"), commands.get(1));
+    }
+
+    @Test
+    public void testStream() throws Exception {
+        Config config = createConfig();
+        config.setString(Keys.FORWARD_REDIS_STREAM, "true");
+        config.setString(Keys.FORWARD_REDIS_MAX_LENGTH, "1000");
+        var forwarder = new PositionForwarderRedis(config, new ObjectMapper());
+
+        CountDownLatch latch = new CountDownLatch(1);
+        forwarder.forward(createPositionData("1"), (success, throwable) -> {
+            assertTrue(success);
+            latch.countDown();
+        });
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        List<String> command = commands.get(0);
+        assertEquals("XADD", command.get(0).toUpperCase());
+        assertEquals("positions.1", command.get(1));
+        assertTrue(command.contains("1000"));
+        assertEquals("position", command.get(command.size() - 2));
+    }
+
+}
@@ -1,5 +1,15 @@
 package org.traccar.forward;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.Timer;
+import jakarta.ws.rs.client.AsyncInvoker;
+import jakarta.ws.rs.client.Client;
+import jakarta.ws.rs.client.Entity;
+import jakarta.ws.rs.client.Invocation;
+import jakarta.ws.rs.client.InvocationCallback;
+import jakarta.ws.rs.client.WebTarget;
+import jakarta.ws.rs.core.Response;
 import org.junit.jupiter.api.Test;
 import org.traccar.ProtocolTest;
 import org.traccar.config.Config;
@@ -7,12 +17,67 @@ import org.traccar.config.Keys;
 import org.traccar.model.Device;
 import org.traccar.model.Position;
 
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 public class PositionForwarderUrlTest extends ProtocolTest {
 
+    private record Request(String body, InvocationCallback<Response> callback) {
+    }
+
+    private final BlockingQueue<Request> requests = new LinkedBlockingQueue<>();
+
+    @SuppressWarnings("unchecked")
+    private Client createClient() {
+        var invoker = mock(AsyncInvoker.class);
+        doAnswer(invocation -> {
+            Entity<String> entity = invocation.getArgument(0);
+            requests.add(new Request(entity.getEntity(), invocation.getArgument(1)));
+            return null;
+        }).when(invoker).post(any(), any(InvocationCallback.class));
+        var builder = mock(Invocation.Builder.class);
+        when(builder.async()).thenReturn(invoker);
+        var target = mock(WebTarget.class);
+        when(target.request()).thenReturn(builder);
+        var client = mock(Client.class);
+        when(client.target(anyString())).thenReturn(target);
+        return client;
+    }
+
+    private static Config createBatchConfig(String url) {
+        Config config = new Config();
+        config.setString(Keys.FORWARD_URL, url);
+        config.setString(Keys.FORWARD_BATCH_SIZE, "2");
+        config.setString(Keys.FORWARD_BATCH_INTERVAL, "100");
+        return config;
+    }
+
+    private PositionData createPositionData(long deviceId) throws Exception {
+        Position position = position("2016-01-01 01:02:03.000", true, 20, 30);
+        position.setDeviceId(deviceId);
+        Device device = new Device();
+        device.setId(deviceId);
+        PositionData positionData = new PositionData();
+        positionData.setPosition(position);
+        positionData.setDevice(device);
+        return positionData;
+    }
+
     @Test
     public void testFormatRequest() throws Exception {
 
@@ -39,4 +104,91 @@ public class PositionForwarderUrlTest extends ProtocolTest {
 
     }
 
+    @Test
+    public void testFormatTemplate() throws Exception {
+
+        Config config = new Config();
+        config.setString(Keys.FORWARD_URL, "http://localhost/{unknown}/{id={deviceId}}?address={address}&{speed}");
+
+        Position position = position("2016-01-01 01:02:03.000", true, 20, 30);
+        position.setDeviceId(1);
+
+        PositionData positionData = new PositionData();
+        positionData.setPosition(position);
+        positionData.setDevice(mock(Device.class));
+
+        PositionForwarderUrl forwarder = new PositionForwarderUrl(config, null, null);
+
+        assertEquals(
+                "http://localhost/{unknown}/{id=1}?address={address}&0.0",
+                forwarder.formatRequest(positionData));
+
+        position.setAddress("Main Street 1");
+        assertEquals(
+                "http://localhost/{unknown}/{id=1}?address=Main+Street+1&0.0",
+                forwarder.formatRequest(positionData));
+
+    }
+
+    @Test
+    public void testBatch() throws Exception {
+        Timer timer = new HashedWheelTimer(10, TimeUnit.MILLISECONDS);
+        try {
+            var forwarder = new PositionForwarderUrl(
+                    createBatchConfig("http://localhost/"), createClient(), new ObjectMapper(), timer);
+            BlockingQueue<Boolean> results = new LinkedBlockingQueue<>();
+
+            forwarder.forward(createPositionData(1), (success, throwable) -> results.add(success));
+            assertTrue(requests.isEmpty());
+            forwarder.forward(createPositionData(2), (success, throwable) -> results.add(success));
+
+            Request request = requests.poll();
+            assertNotNull(request);
+            assertEquals(2, new ObjectMapper().readTree(request.body()).size());
+            var response = mock(Response.class);
+            when(response.getStatusInfo()).thenReturn(Response.Status.OK);
+            request.callback().completed(response);
+            assertEquals(List.of(true, true), List.of(results.take(), results.take()));
+
+            forwarder.forward(createPositionData(3), (success, throwable) -> results.add(success));
+            request = requests.poll(5, TimeUnit.SECONDS);
+            assertNotNull(request);
+            assertEquals(1, new ObjectMapper().readTree(request.body()).size());
+            request.callback().failed(new IOException());
+            assertFalse(results.take());
+            assertNull(requests.poll(200, TimeUnit.MILLISECONDS));
+        } finally {
+            timer.stop();
+        }
+    }
+
+    @Test
+    public void testBatchFailure() throws Exception {
+        Timer timer = new HashedWheelTimer(10, TimeUnit.MILLISECONDS);
+        try {
+            var client = mock(Client.class);
+            when(client.target(anyString())).thenThrow(new IllegalStateException());
+            var forwarder = new PositionForwarderUrl(
+                    createBatchConfig("http://localhost/"), client, new ObjectMapper(), timer);
+            BlockingQueue<Boolean> results = new LinkedBlockingQueue<>();
+
+            forwarder.forward(createPositionData(1), (success, throwable) -> results.add(success));
+            forwarder.forward(createPositionData(2), (success, throwable) -> results.add(success));
+            assertEquals(List.of(false, false), List.of(results.take(), results.take()));
+        } finally {
+            timer.stop();
+        }
+    }
+
+    @Test
+    public void testBatchTemplate() {
+        Timer timer = new HashedWheelTimer();
+        try {
+            assertThrows(IllegalArgumentException.class, () -> new PositionForwarderUrl(
+                    createBatchConfig("http://localhost/{deviceId}"), createClient(), new ObjectMapper(), timer));
+        } finally {
+            timer.stop();
+        }
+    }
+
 }
@@ -0,0 +1,131 @@
+package org.traccar.geocoder;
+
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LocalGeocoderTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testNearest() throws IOException {
+        Path file = directory.resolve("places.tsv");
+        Files.write(file, List.of(
+                "# latitude\tlongitude\thouse\tstreet\tsuburb\tsettlement\tdistrict\tstate\tcountry\tpostcode",
+                "51.5007\t-0.1246\t\tBridge Street\t\tLondon\t\tEngland\tGB\tSW1A",
+                "48.8584\t2.2945\t5\tAvenue Anatole France\t\tParis\t\tÎle-de-France\tFR\t75007",
+                "40.6892\t-74.0445\t\tLiberty Island\t\tNew York\t\tNew York\tUS\t10004",
+                "-33.8568\t151.2153\t2\tMacquarie Street\t\tSydney\t\tNew South Wales\tAU\t2000",
+                "35.6586\t139.7454\t4\tShibakoen\t\tTokyo\t\tTokyo\tJP\t"));
+
+        LocalGeocoder geocoder = new LocalGeocoder(file, 0, new AddressFormat());
+        assertEquals(5, geocoder.getSize());
+        assertTrue(geocoder.getMemoryUsage() > 0);
+
+        assertEquals("Bridge Street, London, England, GB", geocoder.getAddress(51.5, -0.12, null));
+        assertEquals("5 Avenue Anatole France, Paris, Île-de-France, FR", geocoder.getAddress(48.86, 2.29, null));
+        assertEquals("4 Shibakoen, Tokyo, Tokyo, JP", geocoder.getAddress(35.0, 139.0, null));
+        assertEquals("2 Macquarie Street, Sydney, New South Wales, AU", geocoder.getAddress(-34.0, 151.0, null));
+    }
+
+    @Test
+    public void testMaxDistance() throws IOException {
+        Path file = directory.resolve("places.tsv");
+        Files.write(file, List.of("0.0\t0.0\t\t\t\tOrigin\t\t\t\t"));
+
+        LocalGeocoder geocoder = new LocalGeocoder(file, 10000, new AddressFormat("%t"));
+        assertEquals("Origin", geocoder.getAddress(0.05, 0.05, null));
+        assertNull(geocoder.getAddress(1.0, 1.0, null));
+    }
+
+    @Test
+    public void testAntimeridian() throws IOException {
+        Path file = directory.resolve("places.tsv");
+        Files.write(file, List.of(
+                "-17.0\t-179.9\t\t\t\tEast\t\t\t\t",
+                "-17.0\t179.0\t\t\t\tWest\t\t\t\t",
+                "-17.0\t-170.0\t\t\t\tFar East\t\t\t\t"));
+
+        LocalGeocoder geocoder = new LocalGeocoder(file, 0, new AddressFormat("%t"));
+        assertEquals("East", geocoder.getAddress(-17.0, 179.9, null));
+        assertEquals("West", geocoder.getAddress(-17.0, 179.2, null));
+        assertEquals("Far East", geocoder.getAddress(-17.0, -171.0, null));
+
+        Files.write(file, List.of(
+                "-17.0\t179.9\t\t\t\tWest\t\t\t\t",
+                "-17.0\t-170.0\t\t\t\tEast\t\t\t\t"));
+
+        geocoder = new LocalGeocoder(file, 0, new AddressFormat("%t"));
+        assertEquals("West", geocoder.getAddress(-17.0, -179.9, null));
+    }
+
+    @Test
+    public void testRandom() throws IOException {
+        Random random = new Random(1);
+        double[][] points = new double[1000][2];
+        Path file = directory.resolve("random.tsv");
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            for (int i = 0; i < points.length; i++) {
+                points[i][0] = random.nextInt(10_000_000) / 1e6;
+                points[i][1] = random.nextInt(10_000_000) / 1e6;
+                writer.write(String.format(
+                        Locale.US, "%f\t%f\t\t\t\tPlace %d\t\t\t\t\n", points[i][0], points[i][1], i));
+            }
+        }
+
+        LocalGeocoder geocoder = new LocalGeocoder(file, 0, new AddressFormat("%t"));
+        for (int i = 0; i < 100; i++) {
+            double latitude = random.nextDouble() * 10;
+            double longitude = random.nextDouble() * 10;
+            double scale = Math.cos(Math.toRadians(latitude));
+            int nearest = 0;
+            double nearestDistance = Double.MAX_VALUE;
+            for (int j = 0; j < points.length; j++) {
+                double deltaLatitude = points[j][0] - latitude;
+                double deltaLongitude = (points[j][1] - longitude) * scale;
+                double distance = deltaLatitude * deltaLatitude + deltaLongitude * deltaLongitude;
+                if (distance < nearestDistance) {
+                    nearestDistance = distance;
+                    nearest = j;
+                }
+            }
+            assertEquals("Place " + nearest, geocoder.getAddress(latitude, longitude, null));
+        }
+    }
+
+    @Disabled
+    @Test
+    public void testPerformance() throws IOException {
+        Random random = new Random();
+        Path file = directory.resolve("performance.tsv");
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            for (int i = 0; i < 1_000_000; i++) {
+                writer.write(String.format(Locale.US, "%f\t%f\t%d\tStreet %d\t\tCity %d\t\t\t\t\n",
+                        random.nextDouble() * 180 - 90, random.nextDouble() * 360 - 180, i % 100, i % 5000, i % 500));
+            }
+        }
+
+        LocalGeocoder geocoder = new LocalGeocoder(file, 0, new AddressFormat());
+        assertTrue(geocoder.getMemoryUsage() / geocoder.getSize() < 100);
+
+        for (int i = 0; i < 1_000_000; i++) {
+            assertNotNull(geocoder.getAddress(random.nextDouble() * 180 - 90, random.nextDouble() * 360 - 180, null));
+        }
+    }
+
+}
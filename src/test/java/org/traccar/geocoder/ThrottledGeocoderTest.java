@@ -0,0 +1,140 @@
+package org.traccar.geocoder;
+
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.Timer;
+import org.junit.jupiter.api.Test;
+import org.traccar.database.StatisticsManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ThrottledGeocoderTest {
+
+    private static class StubGeocoder implements Geocoder {
+
+        private final List<ReverseGeocoderCallback> requests = new ArrayList<>();
+
+        @Override
+        public synchronized String getAddress(double latitude, double longitude, ReverseGeocoderCallback callback) {
+            requests.add(callback);
+            return null;
+        }
+
+        @Override
+        public void setStatisticsManager(StatisticsManager statisticsManager) {
+        }
+
+        public synchronized int getRequestCount() {
+            return requests.size();
+        }
+
+        public synchronized void completeAll(String address) {
+            requests.forEach(callback -> callback.onSuccess(address));
+        }
+
+    }
+
+    private static class CountingCallback implements Geocoder.ReverseGeocoderCallback {
+
+        private final AtomicInteger successes;
+        private final AtomicInteger failures;
+
+        CountingCallback(AtomicInteger successes, AtomicInteger failures) {
+            this.successes = successes;
+            this.failures = failures;
+        }
+
+        @Override
+        public void onSuccess(String address) {
+            successes.incrementAndGet();
+        }
+
+        @Override
+        public void onFailure(Throwable e) {
+            failures.incrementAndGet();
+        }
+
+    }
+
+    @Test
+    public void testCoalescing() {
+        StubGeocoder stub = new StubGeocoder();
+        Timer timer = new HashedWheelTimer();
+        Geocoder geocoder = new ThrottledGeocoder(stub, timer, 4, 0, 1, 10);
+
+        AtomicInteger successes = new AtomicInteger();
+        AtomicInteger failures = new AtomicInteger();
+        for (int i = 0; i < 200; i++) {
+            geocoder.getAddress(
+                    51.50001 + i * 0.0000001, -0.12001, new CountingCallback(successes, failures));
+        }
+        geocoder.getAddress(48.8566, 2.3522, new CountingCallback(successes, failures));
+
+        assertEquals(2, stub.getRequestCount());
+        stub.completeAll("address");
+        assertEquals(201, successes.get());
+        assertEquals(0, failures.get());
+
+        timer.stop();
+    }
+
+    @Test
+    public void testRateLimitSynchronous() {
+        AtomicInteger requests = new AtomicInteger();
+        Geocoder stub = new StubGeocoder() {
+            @Override
+            public synchronized String getAddress(
+                    double latitude, double longitude, ReverseGeocoderCallback callback) {
+                requests.incrementAndGet();
+                return "address";
+            }
+        };
+        Timer timer = new HashedWheelTimer();
+        Geocoder geocoder = new ThrottledGeocoder(stub, timer, 6, 20, 1, 10);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 3; i++) {
+            assertEquals("address", geocoder.getAddress(i, i, null));
+        }
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertEquals(3, requests.get());
+        assertTrue(elapsed >= 80, "Synchronous requests were not rate limited");
+
+        timer.stop();
+    }
+
+    @Test
+    public void testRateLimit() throws InterruptedException {
+        StubGeocoder stub = new StubGeocoder();
+        Timer timer = new HashedWheelTimer(10, TimeUnit.MILLISECONDS);
+        ThrottledGeocoder geocoder = new ThrottledGeocoder(stub, timer, 6, 100, 1, 2);
+
+        AtomicInteger successes = new AtomicInteger();
+        AtomicInteger failures = new AtomicInteger();
+        for (int i = 0; i < 4; i++) {
+            geocoder.getAddress(i, i, new CountingCallback(successes, failures));
+        }
+
+        assertEquals(1, stub.getRequestCount());
+        assertEquals(2, geocoder.getQueueSize());
+        assertEquals(1, failures.get());
+
+        for (int i = 0; i < 100 && stub.getRequestCount() < 3; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(3, stub.getRequestCount());
+        assertEquals(0, geocoder.getQueueSize());
+
+        stub.completeAll("address");
+        assertEquals(3, successes.get());
+
+        timer.stop();
+    }
+
+}
@@ -0,0 +1,63 @@
+package org.traccar.geolocation;
+
+import org.junit.jupiter.api.Test;
+import org.traccar.config.Config;
+import org.traccar.config.Keys;
+import org.traccar.model.CellTower;
+import org.traccar.model.Network;
+import org.traccar.model.WifiAccessPoint;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class GeolocationCacheTest {
+
+    private Config createConfig(boolean learn) {
+        Config config = new Config();
+        config.setString(Keys.GEOLOCATION_CACHE_SIZE, "100");
+        config.setString(Keys.GEOLOCATION_FINGERPRINT_SIZE, "2");
+        config.setString(Keys.GEOLOCATION_LEARN, String.valueOf(learn));
+        return config;
+    }
+
+    @Test
+    public void testFingerprint() {
+        GeolocationCache cache = new GeolocationCache(createConfig(false));
+
+        Network first = new Network();
+        first.addCellTower(CellTower.from(260, 2, 100, 1, -60));
+        first.addCellTower(CellTower.from(260, 2, 100, 2, -70));
+        first.addCellTower(CellTower.from(260, 2, 100, 3, -90));
+
+        Network second = new Network();
+        second.addCellTower(CellTower.from(260, 2, 100, 2, -65));
+        second.addCellTower(CellTower.from(260, 2, 100, 1, -62));
+        second.addCellTower(CellTower.from(260, 2, 100, 4, -95));
+
+        assertEquals(cache.fingerprint(first), cache.fingerprint(second));
+
+        cache.put(first, 52.0, 21.0, 500);
+        GeolocationCache.Location location = cache.get(second);
+        assertNotNull(location);
+        assertEquals(52.0, location.latitude(), 0.0001);
+        assertEquals(500, location.accuracy(), 0.0001);
+
+        assertNull(cache.get(new Network(CellTower.from(260, 2, 100, 5, -60))));
+    }
+
+    @Test
+    public void testLearn() {
+        GeolocationCache cache = new GeolocationCache(createConfig(true));
+
+        cache.learn(new Network(WifiAccessPoint.from("00:11:22:33:44:55", -50)), 10.0, 20.0);
+        cache.learn(new Network(WifiAccessPoint.from("00:11:22:33:44:55", -55)), 10.002, 20.002);
+
+        GeolocationCache.Location location = cache.get(
+                new Network(WifiAccessPoint.from("00:11:22:33:44:55", -70)));
+        assertNotNull(location);
+        assertEquals(10.001, location.latitude(), 0.0001);
+        assertEquals(20.001, location.longitude(), 0.0001);
+    }
+
+}
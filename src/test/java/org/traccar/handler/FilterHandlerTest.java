@@ -5,9 +5,12 @@ import org.junit.jupiter.api.Test;
 import org.traccar.BaseTest;
 import org.traccar.config.Config;
 import org.traccar.config.Keys;
+import org.traccar.database.RecentPositionManager;
 import org.traccar.model.Device;
 import org.traccar.model.Position;
 import org.traccar.session.cache.CacheManager;
+import org.traccar.storage.Storage;
+import org.traccar.storage.query.Request;
 
 import java.util.Date;
 
@@ -15,7 +18,10 @@ import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class FilterHandlerTest extends BaseTest {
@@ -30,7 +36,7 @@ public class FilterHandlerTest extends BaseTest {
         var cacheManager = mock(CacheManager.class);
         when(cacheManager.getConfig()).thenReturn(config);
         when(cacheManager.getObject(any(), anyLong())).thenReturn(mock(Device.class));
-        passingHandler = new FilterHandler(config, cacheManager, null, null);
+        passingHandler = new FilterHandler(config, cacheManager, null, null, null);
     }
 
     @BeforeEach
@@ -51,7 +57,7 @@ public class FilterHandlerTest extends BaseTest {
         var cacheManager = mock(CacheManager.class);
         when(cacheManager.getConfig()).thenReturn(config);
         when(cacheManager.getObject(any(), anyLong())).thenReturn(mock(Device.class));
-        filteringHandler = new FilterHandler(config, cacheManager, null, null);
+        filteringHandler = new FilterHandler(config, cacheManager, null, null, null);
     }
 
     private Position createPosition(Date time, boolean valid, double speed) {
@@ -97,4 +103,60 @@ public class FilterHandlerTest extends BaseTest {
 
     }
 
+    @Test
+    public void testRelativeFallback() throws Exception {
+
+        var config = mock(Config.class);
+        when(config.getBoolean(Keys.FILTER_ENABLE)).thenReturn(true);
+        when(config.getBoolean(Keys.FILTER_DUPLICATE)).thenReturn(true);
+        when(config.getBoolean(Keys.FILTER_RELATIVE)).thenReturn(true);
+        var cacheManager = mock(CacheManager.class);
+        when(cacheManager.getConfig()).thenReturn(config);
+        when(cacheManager.getObject(any(), anyLong())).thenReturn(mock(Device.class));
+        var storage = mock(Storage.class);
+        var recentPositionManager = mock(RecentPositionManager.class);
+        var handler = new FilterHandler(config, cacheManager, storage, null, recentPositionManager);
+
+        Date time = new Date();
+        Position position = createPosition(time, true, 10);
+
+        when(recentPositionManager.getPrecedingPosition(0, time)).thenReturn(createPosition(time, true, 10));
+        assertTrue(handler.filter(position));
+        verify(storage, never()).getObject(eq(Position.class), any(Request.class));
+
+        when(recentPositionManager.getPrecedingPosition(0, time)).thenReturn(null);
+        when(storage.getObject(eq(Position.class), any(Request.class))).thenReturn(createPosition(time, true, 10));
+        assertTrue(handler.filter(position));
+        verify(storage).getObject(eq(Position.class), any(Request.class));
+
+    }
+
+    @Test
+    public void testProfileInvalidation() {
+
+        var config = mock(Config.class);
+        when(config.getBoolean(Keys.FILTER_ENABLE)).thenReturn(true);
+        when(config.getBoolean(Keys.FILTER_DUPLICATE)).thenReturn(true);
+        when(config.getBoolean(Keys.FILTER_SKIP_ATTRIBUTES_ENABLE)).thenReturn(true);
+        var cacheManager = mock(CacheManager.class);
+        when(cacheManager.getConfig()).thenReturn(config);
+        var handler = new FilterHandler(config, cacheManager, null, null, null);
+
+        Date time = new Date();
+        Position last = createPosition(time, true, 10);
+        last.set(Position.KEY_ALARM, Position.ALARM_GENERAL);
+        when(cacheManager.getPosition(0)).thenReturn(last);
+        Position position = createPosition(time, true, 10);
+        position.set(Position.KEY_ALARM, Position.ALARM_GENERAL);
+
+        Device device = new Device();
+        device.set(Keys.FILTER_SKIP_ATTRIBUTES.getKey(), Position.KEY_ALARM);
+        when(cacheManager.getObject(eq(Device.class), anyLong())).thenReturn(device);
+        assertFalse(handler.filter(position));
+
+        when(cacheManager.getObject(eq(Device.class), anyLong())).thenReturn(new Device());
+        assertTrue(handler.filter(position));
+
+    }
+
 }
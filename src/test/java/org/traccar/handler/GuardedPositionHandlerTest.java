@@ -0,0 +1,227 @@
+package org.traccar.handler;
+
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.Timer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.traccar.config.Config;
+import org.traccar.config.Keys;
+import org.traccar.database.ProcessingStatisticsManager;
+import org.traccar.database.StatisticsManager;
+import org.traccar.geocoder.Geocoder;
+import org.traccar.geocoder.GeocoderException;
+import org.traccar.helper.CircuitBreaker;
+import org.traccar.model.Position;
+import org.traccar.session.cache.CacheManager;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class GuardedPositionHandlerTest {
+
+    private static class StubGeocoder implements Geocoder {
+
+        private final AtomicInteger requests = new AtomicInteger();
+        private volatile boolean respond;
+        private volatile boolean fail;
+        private volatile ReverseGeocoderCallback pending;
+
+        @Override
+        public String getAddress(double latitude, double longitude, ReverseGeocoderCallback callback) {
+            requests.incrementAndGet();
+            if (fail) {
+                callback.onFailure(new GeocoderException("Stub failure"));
+            } else if (respond) {
+                callback.onSuccess("Address");
+            } else {
+                pending = callback;
+            }
+            return null;
+        }
+
+        @Override
+        public void setStatisticsManager(StatisticsManager statisticsManager) {
+        }
+
+    }
+
+    private Timer timer;
+    private StubGeocoder geocoder;
+
+    @BeforeEach
+    public void setUp() {
+        timer = new HashedWheelTimer(10, TimeUnit.MILLISECONDS);
+        geocoder = new StubGeocoder();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        timer.stop();
+    }
+
+    private GuardedPositionHandler createHandler(long timeout, CircuitBreaker circuitBreaker) {
+        var handler = new GeocoderHandler(mock(Config.class), geocoder, null);
+        return new GuardedPositionHandler(handler, timer, timeout, circuitBreaker);
+    }
+
+    private Position process(GuardedPositionHandler handler) throws InterruptedException {
+        Position position = new Position();
+        position.setValid(true);
+        CountDownLatch latch = new CountDownLatch(1);
+        handler.handlePosition(position, filtered -> latch.countDown());
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        return position;
+    }
+
+    @Test
+    public void testTimeout() throws InterruptedException {
+        var handler = createHandler(50, new CircuitBreaker(5, 60000));
+
+        assertNull(process(handler).getAddress());
+        assertEquals(1, handler.getTimeouts());
+
+        geocoder.respond = true;
+        assertEquals("Address", process(handler).getAddress());
+        assertEquals(1, handler.getTimeouts());
+    }
+
+    @Test
+    public void testTimeoutExecutor() throws InterruptedException {
+        var handler = createHandler(50, new CircuitBreaker(5, 60000));
+        ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "pipeline"));
+        try {
+            AtomicReference<String> thread = new AtomicReference<>();
+            CountDownLatch latch = new CountDownLatch(1);
+            Position position = new Position();
+            position.setValid(true);
+            handler.handlePosition(position, new BasePositionHandler.Callback() {
+                @Override
+                public void processed(boolean filtered) {
+                    thread.set(Thread.currentThread().getName());
+                    latch.countDown();
+                }
+
+                @Override
+                public Executor executor() {
+                    return executor;
+                }
+            });
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+            assertEquals("pipeline", thread.get());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testCircuitBreaker() throws InterruptedException {
+        var handler = createHandler(1000, new CircuitBreaker(2, 60000));
+        geocoder.fail = true;
+
+        process(handler);
+        process(handler);
+        process(handler);
+
+        assertEquals(2, geocoder.requests.get());
+        assertEquals(2, handler.getFailures());
+        assertEquals(1, handler.getSkipped());
+        assertEquals(CircuitBreaker.State.OPEN, handler.getCircuitBreaker().getState());
+        assertEquals(1, handler.getCircuitBreaker().getTrips());
+    }
+
+    @Test
+    public void testHalfOpen() throws InterruptedException {
+        var handler = createHandler(50, new CircuitBreaker(1, 0));
+
+        process(handler);
+        assertEquals(CircuitBreaker.State.OPEN, handler.getCircuitBreaker().getState());
+
+        process(handler);
+        assertEquals(CircuitBreaker.State.OPEN, handler.getCircuitBreaker().getState());
+        assertEquals(2, handler.getCircuitBreaker().getTrips());
+
+        geocoder.respond = true;
+        assertEquals("Address", process(handler).getAddress());
+        assertEquals(CircuitBreaker.State.CLOSED, handler.getCircuitBreaker().getState());
+        assertEquals(3, geocoder.requests.get());
+    }
+
+    @Test
+    public void testLateResult() throws InterruptedException {
+        var handler = createHandler(50, new CircuitBreaker(5, 60000));
+
+        Position position = process(handler);
+        geocoder.pending.onSuccess("Late");
+
+        assertNull(position.getAddress());
+        assertEquals(1, handler.getTimeouts());
+    }
+
+    @Test
+    public void testLocalResult() throws InterruptedException {
+        var config = mock(Config.class);
+        when(config.getInteger(Keys.GEOCODER_REUSE_DISTANCE, 0)).thenReturn(100);
+        var cacheManager = mock(CacheManager.class);
+        Position last = new Position();
+        last.setAddress("Cached");
+        when(cacheManager.getPosition(anyLong())).thenReturn(last);
+        var handler = new GuardedPositionHandler(
+                new GeocoderHandler(config, geocoder, cacheManager), timer, 1000, new CircuitBreaker(1, 0));
+
+        geocoder.fail = true;
+        Position position = new Position();
+        position.setValid(true);
+        position.set(Position.KEY_DISTANCE, 1000.0);
+        CountDownLatch latch = new CountDownLatch(1);
+        handler.handlePosition(position, filtered -> latch.countDown());
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertEquals(CircuitBreaker.State.OPEN, handler.getCircuitBreaker().getState());
+
+        assertEquals("Cached", process(handler).getAddress());
+        assertEquals(CircuitBreaker.State.OPEN, handler.getCircuitBreaker().getState());
+        assertEquals(1, geocoder.requests.get());
+    }
+
+    @Test
+    public void testRecovery() throws InterruptedException {
+        var handler = createHandler(1000, new CircuitBreaker(2, 100));
+        var statisticsManager = new ProcessingStatisticsManager(mock(Config.class));
+        statisticsManager.registerGuardedHandler("GeocoderHandler", handler);
+        geocoder.fail = true;
+
+        process(handler);
+        process(handler);
+        process(handler);
+
+        var statistics = statisticsManager.getGuardStatistics().iterator().next();
+        assertEquals("OPEN", statistics.state());
+        assertEquals(1, statistics.trips());
+        assertEquals(2, statistics.failures());
+        assertEquals(1, statistics.skipped());
+
+        Thread.sleep(150);
+        geocoder.fail = false;
+        geocoder.respond = true;
+        assertEquals("Address", process(handler).getAddress());
+        assertEquals("Address", process(handler).getAddress());
+
+        statistics = statisticsManager.getGuardStatistics().iterator().next();
+        assertEquals("CLOSED", statistics.state());
+        assertEquals(1, statistics.trips());
+        assertEquals(4, geocoder.requests.get());
+    }
+
+}
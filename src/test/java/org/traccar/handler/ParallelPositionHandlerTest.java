@@ -0,0 +1,86 @@
+package org.traccar.handler;
+
+import org.junit.jupiter.api.Test;
+import org.traccar.model.Position;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ParallelPositionHandlerTest {
+
+    private static class TestHandler extends BasePositionHandler {
+
+        private final Set<String> readFields;
+        private final Set<String> writeFields;
+        private final List<Callback> callbacks = new ArrayList<>();
+
+        TestHandler(Set<String> readFields, Set<String> writeFields) {
+            this.readFields = readFields;
+            this.writeFields = writeFields;
+        }
+
+        @Override
+        public void handlePosition(Position position, Callback callback) {
+            callbacks.add(callback);
+        }
+
+        @Override
+        public Set<String> getReadFields() {
+            return readFields;
+        }
+
+        @Override
+        public Set<String> getWriteFields() {
+            return writeFields;
+        }
+
+    }
+
+    @Test
+    public void testGroup() {
+        var unknown = new TestHandler(null, null);
+        var geofence = new TestHandler(Set.of("latitude", "longitude"), Set.of("geofenceIds"));
+        var geocoder = new TestHandler(Set.of("latitude", "longitude"), Set.of("address"));
+        var speedLimit = new TestHandler(Set.of("latitude", "longitude"), Set.of("attributes"));
+        var motion = new TestHandler(Set.of("speed", "attributes"), Set.of("attributes"));
+
+        var result = ParallelPositionHandler.group(List.of(unknown, geofence, geocoder, speedLimit, motion, unknown));
+
+        assertEquals(4, result.size());
+        assertSame(unknown, result.get(0));
+        assertInstanceOf(ParallelPositionHandler.class, result.get(1));
+        assertEquals(List.of(geofence, geocoder, speedLimit), ((ParallelPositionHandler) result.get(1)).getHandlers());
+        assertSame(motion, result.get(2));
+        assertSame(unknown, result.get(3));
+    }
+
+    @Test
+    public void testJoin() {
+        var first = new TestHandler(Set.of(), Set.of("address"));
+        var second = new TestHandler(Set.of(), Set.of("geofenceIds"));
+        var handler = new ParallelPositionHandler(List.of(first, second));
+
+        List<Boolean> results = new ArrayList<>();
+        handler.handlePosition(new Position(), results::add);
+        assertEquals(1, first.callbacks.size());
+        assertEquals(1, second.callbacks.size());
+
+        second.callbacks.get(0).processed(true);
+        assertTrue(results.isEmpty());
+        first.callbacks.get(0).processed(false);
+        assertEquals(List.of(true), results);
+
+        handler.handlePosition(new Position(), results::add);
+        first.callbacks.get(1).processed(false);
+        second.callbacks.get(1).processed(false);
+        assertFalse(results.get(1));
+    }
+
+}
@@ -0,0 +1,81 @@
+package org.traccar.helper;
+
+import org.junit.jupiter.api.Test;
+import org.traccar.model.Device;
+import org.traccar.model.Event;
+import org.traccar.model.Position;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class ProtobufConverterTest {
+
+    @Test
+    public void testPosition() {
+        Position position = new Position("test");
+        position.setDeviceId(1);
+        position.setFixTime(new Date(1700000000000L));
+        position.setValid(true);
+        position.setLatitude(48.8566);
+        position.setLongitude(2.3522);
+        position.setSpeed(12.5);
+        position.setGeofenceIds(List.of(3L, 4L));
+        position.set(Position.KEY_IGNITION, true);
+        position.set(Position.KEY_SATELLITES, 7);
+        position.set(Position.KEY_POWER, 12.4);
+        position.set(Position.KEY_DRIVER_UNIQUE_ID, "driver");
+
+        Position result = ProtobufConverter.fromProto(ProtobufConverter.toProto(position));
+
+        assertEquals("test", result.getProtocol());
+        assertEquals(1, result.getDeviceId());
+        assertEquals(position.getFixTime(), result.getFixTime());
+        assertNull(result.getServerTime());
+        assertNull(result.getAddress());
+        assertEquals(48.8566, result.getLatitude());
+        assertEquals(2.3522, result.getLongitude());
+        assertEquals(12.5, result.getSpeed());
+        assertEquals(List.of(3L, 4L), result.getGeofenceIds());
+        assertEquals(true, result.getAttributes().get(Position.KEY_IGNITION));
+        assertEquals(7L, result.getAttributes().get(Position.KEY_SATELLITES));
+        assertEquals(12.4, result.getAttributes().get(Position.KEY_POWER));
+        assertEquals("driver", result.getAttributes().get(Position.KEY_DRIVER_UNIQUE_ID));
+    }
+
+    @Test
+    public void testDevice() {
+        Device device = new Device();
+        device.setId(1);
+        device.setName("Truck");
+        device.setUniqueId("123456789012345");
+        device.setStatus(Device.STATUS_ONLINE);
+
+        Device result = ProtobufConverter.fromProto(ProtobufConverter.toProto(device));
+
+        assertEquals(1, result.getId());
+        assertEquals("Truck", result.getName());
+        assertEquals("123456789012345", result.getUniqueId());
+        assertEquals(Device.STATUS_ONLINE, result.getStatus());
+        assertNull(result.getPhone());
+        assertFalse(result.getDisabled());
+    }
+
+    @Test
+    public void testEvent() {
+        Event event = new Event(Event.TYPE_ALARM, 1);
+        event.setEventTime(new Date(1700000000000L));
+        event.set(Position.KEY_ALARM, Position.ALARM_SOS);
+
+        Event result = ProtobufConverter.fromProto(ProtobufConverter.toProto(event));
+
+        assertEquals(Event.TYPE_ALARM, result.getType());
+        assertEquals(1, result.getDeviceId());
+        assertEquals(event.getEventTime(), result.getEventTime());
+        assertEquals(Position.ALARM_SOS, result.getString(Position.KEY_ALARM));
+    }
+
+}
@@ -0,0 +1,186 @@
+package org.traccar.mail;
+
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.Timer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.traccar.config.Config;
+import org.traccar.config.Keys;
+import org.traccar.database.StatisticsManager;
+import org.traccar.model.User;
+
+import jakarta.mail.MessagingException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+
+public class SmtpMailManagerTest {
+
+    private static class StubSmtpServer implements Runnable {
+
+        private final ServerSocket serverSocket;
+        private final AtomicInteger connections = new AtomicInteger();
+        private final AtomicInteger messages = new AtomicInteger();
+        private final AtomicInteger closed = new AtomicInteger();
+
+        StubSmtpServer() throws IOException {
+            serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+            Thread thread = new Thread(this);
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        int getPort() {
+            return serverSocket.getLocalPort();
+        }
+
+        @Override
+        public void run() {
+            while (!serverSocket.isClosed()) {
+                try {
+                    Socket socket = serverSocket.accept();
+                    connections.incrementAndGet();
+                    Thread thread = new Thread(() -> handle(socket));
+                    thread.setDaemon(true);
+                    thread.start();
+                } catch (IOException e) {
+                    return;
+                }
+            }
+        }
+
+        private void handle(Socket socket) {
+            try (socket; BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII))) {
+                PrintWriter writer = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.US_ASCII);
+                writer.print("220 localhost ESMTP\r\n");
+                writer.flush();
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    String command = line.toUpperCase();
+                    if (command.startsWith("DATA")) {
+                        writer.print("354 Start mail input\r\n");
+                        writer.flush();
+                        while ((line = reader.readLine()) != null && !line.equals(".")) {
+                            continue;
+                        }
+                        messages.incrementAndGet();
+                        writer.print("250 OK\r\n");
+                    } else if (command.startsWith("QUIT")) {
+                        closed.incrementAndGet();
+                        writer.print("221 Bye\r\n");
+                        writer.flush();
+                        return;
+                    } else {
+                        writer.print("250 OK\r\n");
+                    }
+                    writer.flush();
+                }
+            } catch (IOException ignored) {
+            }
+        }
+
+        void close() throws IOException {
+            serverSocket.close();
+        }
+
+    }
+
+    private StubSmtpServer server;
+    private Timer timer;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        server = new StubSmtpServer();
+        timer = new HashedWheelTimer(10, TimeUnit.MILLISECONDS);
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        timer.stop();
+        server.close();
+    }
+
+    private SmtpMailManager createMailManager(int poolSize) {
+        return createMailManager(poolSize, 30);
+    }
+
+    private SmtpMailManager createMailManager(int poolSize, long idleTimeout) {
+        Config config = new Config();
+        config.setString(Keys.MAIL_SMTP_HOST, "127.0.0.1");
+        config.setString(Keys.MAIL_SMTP_PORT, String.valueOf(server.getPort()));
+        config.setString(Keys.MAIL_SMTP_FROM, "server@example.com");
+        config.setString(Keys.MAIL_SMTP_POOL_SIZE, String.valueOf(poolSize));
+        config.setString(Keys.MAIL_SMTP_POOL_IDLE_TIMEOUT, String.valueOf(idleTimeout));
+        return new SmtpMailManager(config, mock(StatisticsManager.class), timer);
+    }
+
+    private static User createUser() {
+        User user = new User();
+        user.setEmail("user@example.com");
+        return user;
+    }
+
+    @Test
+    public void testPooledConnection() throws Exception {
+        SmtpMailManager mailManager = createMailManager(2);
+        for (int i = 0; i < 5; i++) {
+            mailManager.sendMessage(createUser(), true, "Subject", "Body");
+        }
+        assertEquals(5, server.messages.get());
+        assertEquals(1, server.connections.get());
+    }
+
+    @Test
+    public void testWithoutPool() throws Exception {
+        SmtpMailManager mailManager = createMailManager(0);
+        for (int i = 0; i < 3; i++) {
+            mailManager.sendMessage(createUser(), true, "Subject", "Body");
+        }
+        assertEquals(3, server.messages.get());
+        assertEquals(3, server.connections.get());
+    }
+
+    @Test
+    public void testInvalidMessage() throws Exception {
+        SmtpMailManager mailManager = createMailManager(1);
+        User invalidUser = new User();
+        invalidUser.setEmail("user@");
+        assertThrows(MessagingException.class, () -> mailManager.sendMessage(invalidUser, true, "Subject", "Body"));
+
+        mailManager.sendMessage(createUser(), true, "Subject", "Body");
+        mailManager.sendMessage(createUser(), true, "Subject", "Body");
+        assertEquals(2, server.messages.get());
+        assertEquals(1, server.connections.get());
+    }
+
+    @Test
+    public void testIdleEviction() throws Exception {
+        SmtpMailManager mailManager = createMailManager(2, 1);
+        mailManager.sendMessage(createUser(), true, "Subject", "Body");
+        assertEquals(0, server.closed.get());
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (server.closed.get() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertEquals(1, server.closed.get());
+
+        mailManager.sendMessage(createUser(), true, "Subject", "Body");
+        assertEquals(2, server.connections.get());
+    }
+
+}
@@ -0,0 +1,193 @@
+package org.traccar.notification;
+
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.Timer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.traccar.config.Config;
+import org.traccar.config.Keys;
+import org.traccar.model.Event;
+import org.traccar.model.Notification;
+import org.traccar.model.Position;
+import org.traccar.model.User;
+import org.traccar.notificators.Notificator;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class NotificationDispatcherTest {
+
+    private static class StubNotificator extends Notificator {
+
+        private final AtomicInteger attempts = new AtomicInteger();
+        private final List<NotificationMessage> messages = new CopyOnWriteArrayList<>();
+        private final CountDownLatch release = new CountDownLatch(1);
+        private final CountDownLatch delivered;
+        private final int failures;
+
+        StubNotificator(NotificationFormatter formatter, int failures, int deliveries) {
+            super(formatter, "full");
+            this.failures = failures;
+            this.delivered = new CountDownLatch(deliveries);
+        }
+
+        @Override
+        public void send(User user, NotificationMessage message, Event event, Position position)
+                throws MessageException {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new MessageException(e);
+            }
+            if (attempts.incrementAndGet() <= failures) {
+                throw new MessageException("Stub failure");
+            }
+            messages.add(message);
+            delivered.countDown();
+        }
+
+    }
+
+    private Timer timer;
+    private NotificationFormatter formatter;
+
+    @BeforeEach
+    public void setUp() {
+        timer = new HashedWheelTimer(10, TimeUnit.MILLISECONDS);
+        formatter = mock(NotificationFormatter.class);
+        when(formatter.formatMessage(any(), any(), any(), any(), any()))
+                .thenReturn(new NotificationMessage("Subject", "Body"));
+        when(formatter.formatDigest(any(), any(), anyInt(), any()))
+                .thenReturn(new NotificationMessage("Digest", "Subject\nSubject"));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        timer.stop();
+    }
+
+    private Config createConfig(int queueSize) {
+        Config config = new Config();
+        config.setString(Keys.NOTIFICATOR_CONCURRENCY, "1");
+        config.setString(Keys.NOTIFICATOR_QUEUE_SIZE, String.valueOf(queueSize));
+        config.setString(Keys.NOTIFICATOR_RETRIES, "2");
+        config.setString(Keys.NOTIFICATOR_RETRY_DELAY, "10");
+        return config;
+    }
+
+    private NotificationDispatcher createDispatcher(int queueSize) {
+        return new NotificationDispatcher(createConfig(queueSize), timer);
+    }
+
+    private void send(NotificationDispatcher dispatcher, Notificator notificator) throws MessageException {
+        dispatcher.send("stub", notificator, new Notification(), new User(), new Event("test", 1), null);
+    }
+
+    @Test
+    public void testQueue() throws Exception {
+        var dispatcher = createDispatcher(2);
+        var notificator = new StubNotificator(formatter, 0, 3);
+
+        for (int i = 0; i < 4; i++) {
+            send(dispatcher, notificator);
+        }
+        var statistics = dispatcher.getStatistics();
+        assertEquals(1, statistics.active());
+        assertEquals(2, statistics.queued());
+        assertEquals(1, statistics.dropped());
+
+        notificator.release.countDown();
+        assertTrue(notificator.delivered.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testRetry() throws Exception {
+        var dispatcher = createDispatcher(10);
+        var notificator = new StubNotificator(formatter, 2, 1);
+        notificator.release.countDown();
+
+        send(dispatcher, notificator);
+
+        assertTrue(notificator.delivered.await(5, TimeUnit.SECONDS));
+        assertEquals(3, notificator.attempts.get());
+        assertEquals(2, dispatcher.getStatistics().retried());
+    }
+
+    @Test
+    public void testAsyncRetry() throws Exception {
+        var dispatcher = createDispatcher(10);
+        var attempts = new AtomicInteger();
+        var delivered = new CountDownLatch(1);
+        var notificator = new Notificator(formatter, "full") {
+            @Override
+            public CompletableFuture<Void> sendAsync(
+                    User user, NotificationMessage message, Event event, Position position) {
+                if (attempts.incrementAndGet() == 1) {
+                    return CompletableFuture.supplyAsync(() -> {
+                        throw new IllegalStateException("Stub failure");
+                    });
+                }
+                return CompletableFuture.runAsync(delivered::countDown);
+            }
+        };
+
+        send(dispatcher, notificator);
+
+        assertTrue(delivered.await(5, TimeUnit.SECONDS));
+        assertEquals(2, attempts.get());
+        assertEquals(1, dispatcher.getStatistics().retried());
+    }
+
+    @Test
+    public void testRateLimit() throws Exception {
+        Config config = createConfig(10);
+        config.setString(Keys.NOTIFICATOR_RATE_LIMIT, "1");
+        config.setString(Keys.NOTIFICATOR_RATE_BURST, "1");
+        var dispatcher = new NotificationDispatcher(config, timer);
+        var notificator = new StubNotificator(formatter, 0, 1);
+        notificator.release.countDown();
+
+        for (int i = 0; i < 3; i++) {
+            send(dispatcher, notificator);
+        }
+
+        assertTrue(notificator.delivered.await(5, TimeUnit.SECONDS));
+        assertEquals(2, dispatcher.getStatistics().suppressed());
+    }
+
+    @Test
+    public void testDigest() throws Exception {
+        Config config = createConfig(10);
+        config.setString(Keys.NOTIFICATOR_RATE_LIMIT, "1");
+        config.setString(Keys.NOTIFICATOR_RATE_BURST, "1");
+        config.setString(Keys.NOTIFICATOR_DIGEST_WINDOW, "1");
+        var dispatcher = new NotificationDispatcher(config, timer);
+        var notificator = new StubNotificator(formatter, 0, 2);
+        notificator.release.countDown();
+
+        for (int i = 0; i < 3; i++) {
+            send(dispatcher, notificator);
+        }
+        assertEquals(2, dispatcher.getStatistics().merged());
+
+        assertTrue(notificator.delivered.await(5, TimeUnit.SECONDS));
+        var digest = notificator.messages.get(1);
+        assertEquals("Digest", digest.getSubject());
+        verify(formatter).formatDigest(any(), eq(List.of("Subject", "Subject")), eq(2), eq("full"));
+    }
+
+}
@@ -0,0 +1,117 @@
+package org.traccar.notification;
+
+import org.apache.velocity.VelocityContext;
+import org.apache.velocity.app.VelocityEngine;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.traccar.MainModule;
+import org.traccar.api.signature.TokenManager;
+import org.traccar.config.Config;
+import org.traccar.config.Keys;
+import org.traccar.model.Server;
+import org.traccar.model.User;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class TextTemplateFormatterTest {
+
+    @TempDir
+    private Path root;
+
+    private VelocityEngine createEngine(int checkInterval) {
+        Config config = new Config();
+        config.setString(Keys.TEMPLATES_ROOT, root.toString());
+        config.setString(Keys.TEMPLATES_CHECK_INTERVAL, String.valueOf(checkInterval));
+        config.setString(Keys.WEB_URL, "http://localhost");
+        return MainModule.provideVelocityEngine(config);
+    }
+
+    private static User createUser() {
+        User user = new User();
+        user.setId(1);
+        return user;
+    }
+
+    @Test
+    public void testContext() {
+        var formatter = new TextTemplateFormatter(createEngine(0), mock(TokenManager.class));
+
+        VelocityContext first = formatter.prepareContext(new Server(), createUser());
+        first.put("device", "first");
+        VelocityContext second = formatter.prepareContext(new Server(), createUser());
+
+        assertTrue(first.containsKey("device"));
+        assertFalse(second.containsKey("device"));
+        assertEquals("http://localhost", second.get("webUrl"));
+        assertNotNull(second.get("dateTool"));
+    }
+
+    @Test
+    public void testCachedToken() throws Exception {
+        var tokenManager = mock(TokenManager.class);
+        when(tokenManager.generateToken(anyLong())).thenReturn("first", "second", "third");
+        var formatter = new TextTemplateFormatter(createEngine(0), tokenManager, 100);
+
+        assertEquals("first", formatter.prepareContext(new Server(), createUser(), true).get("token"));
+        assertEquals("first", formatter.prepareContext(new Server(), createUser(), true).get("token"));
+        verify(tokenManager, times(1)).generateToken(anyLong());
+
+        assertEquals("second", formatter.prepareContext(new Server(), createUser(), false).get("token"));
+
+        Thread.sleep(200);
+        assertEquals("third", formatter.prepareContext(new Server(), createUser(), true).get("token"));
+    }
+
+    private String render(TextTemplateFormatter formatter) {
+        return formatter.formatMessage(formatter.prepareContext(new Server(), null), "test", "notifications")
+                .getBody();
+    }
+
+    @Test
+    public void testCheckInterval() throws Exception {
+        Path file = root.resolve("notifications").resolve("test.vm");
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, "first");
+
+        var cachedFormatter = new TextTemplateFormatter(createEngine(60), mock(TokenManager.class));
+        var uncachedFormatter = new TextTemplateFormatter(createEngine(0), mock(TokenManager.class));
+        assertEquals("first", render(cachedFormatter));
+        assertEquals("first", render(uncachedFormatter));
+
+        Files.writeString(file, "second");
+        assertEquals("first", render(cachedFormatter));
+        assertEquals("second", render(uncachedFormatter));
+    }
+
+    @Test
+    public void testDigestTemplates() {
+        Config config = new Config();
+        config.setString(Keys.TEMPLATES_ROOT, Paths.get("templates").toAbsolutePath().toString());
+        config.setString(Keys.WEB_URL, "http://localhost");
+        var formatter = new TextTemplateFormatter(MainModule.provideVelocityEngine(config), mock(TokenManager.class));
+
+        for (String templatePath : List.of("full", "short")) {
+            VelocityContext context = formatter.prepareContext(new Server(), createUser());
+            context.put("messages", List.of("first: online", "second: offline"));
+            context.put("count", 3);
+            NotificationMessage message = formatter.formatMessage(context, "digest", templatePath);
+            assertEquals("first: online (+2)", message.getSubject());
+            assertTrue(message.getBody().contains("second: offline"));
+            assertTrue(message.getBody().contains("+1 more"));
+        }
+    }
+
+}
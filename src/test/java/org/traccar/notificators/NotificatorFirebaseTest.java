@@ -0,0 +1,123 @@
+package org.traccar.notificators;
+
+import com.google.firebase.messaging.MessagingErrorCode;
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.Timer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.traccar.config.Config;
+import org.traccar.config.Keys;
+import org.traccar.model.Event;
+import org.traccar.model.User;
+import org.traccar.notification.NotificationMessage;
+import org.traccar.session.cache.CacheManager;
+import org.traccar.storage.Storage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+public class NotificatorFirebaseTest {
+
+    private final List<List<String>> requests = new CopyOnWriteArrayList<>();
+
+    private Timer timer;
+    private Storage storage;
+
+    @BeforeEach
+    public void setUp() {
+        timer = new HashedWheelTimer(10, TimeUnit.MILLISECONDS);
+        storage = mock(Storage.class);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        timer.stop();
+    }
+
+    private NotificatorFirebase createNotificator(long batchDelay) {
+        Config config = new Config();
+        config.setString(Keys.NOTIFICATOR_FIREBASE_BATCH_DELAY, String.valueOf(batchDelay));
+        return new NotificatorFirebase(config, null, storage, mock(CacheManager.class), timer, (tokens, message) -> {
+            requests.add(tokens);
+            List<MessagingErrorCode> errors = new ArrayList<>();
+            for (String token : tokens) {
+                if (token.startsWith("invalid")) {
+                    errors.add(MessagingErrorCode.UNREGISTERED);
+                } else if (token.startsWith("busy")) {
+                    errors.add(MessagingErrorCode.UNAVAILABLE);
+                } else {
+                    errors.add(null);
+                }
+            }
+            return errors;
+        });
+    }
+
+    private User createUser(long id, String tokens) {
+        User user = new User();
+        user.setId(id);
+        user.set("notificationTokens", tokens);
+        return user;
+    }
+
+    @Test
+    public void testBatch() throws Exception {
+        var notificator = createNotificator(50);
+        var message = new NotificationMessage("Subject", "Body");
+        var event = new Event("test", 1);
+
+        User first = createUser(1, "a,invalid1");
+        User second = createUser(2, "b");
+        notificator.send(first, message, event, null);
+        notificator.send(second, message, event, null);
+
+        verify(storage, timeout(5000)).updateObject(any(), any());
+        assertEquals(1, requests.size());
+        assertEquals(List.of("a", "invalid1", "b"), requests.get(0));
+        assertEquals("a", first.getString("notificationTokens"));
+        assertEquals("b", second.getString("notificationTokens"));
+    }
+
+    @Test
+    public void testBatchSize() throws Exception {
+        var notificator = createNotificator(0);
+        StringBuilder tokens = new StringBuilder();
+        for (int i = 0; i < NotificatorFirebase.BATCH_SIZE + 1; i++) {
+            tokens.append("token").append(i).append(',');
+        }
+
+        notificator.send(createUser(1, tokens.toString()), new NotificationMessage("Subject", "Body"), null, null);
+
+        assertEquals(2, requests.size());
+        assertEquals(NotificatorFirebase.BATCH_SIZE, requests.get(0).size());
+        assertEquals(1, requests.get(1).size());
+    }
+
+    @Test
+    public void testResult() throws Exception {
+        var notificator = createNotificator(50);
+        var message = new NotificationMessage("Subject", "Body");
+        var event = new Event("test", 1);
+
+        var delivered = notificator.sendAsync(createUser(1, "a,busy1"), message, event, null);
+        var pruned = notificator.sendAsync(createUser(2, "invalid2"), message, event, null);
+        var failed = notificator.sendAsync(createUser(3, "busy3"), message, event, null);
+
+        delivered.get(5, TimeUnit.SECONDS);
+        pruned.get(5, TimeUnit.SECONDS);
+        assertThrows(ExecutionException.class, () -> failed.get(5, TimeUnit.SECONDS));
+        assertEquals(1, requests.size());
+    }
+
+}
@@ -0,0 +1,96 @@
+package org.traccar.session.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.traccar.broadcast.BroadcastService;
+import org.traccar.config.Config;
+import org.traccar.model.Device;
+import org.traccar.model.Event;
+import org.traccar.model.Notification;
+import org.traccar.model.ObjectOperation;
+import org.traccar.model.Server;
+import org.traccar.storage.Storage;
+import org.traccar.storage.query.Request;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class CacheManagerTest {
+
+    private Storage storage;
+    private CacheManager cacheManager;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        storage = mock(Storage.class);
+        when(storage.getObject(eq(Server.class), any(Request.class))).thenReturn(new Server());
+        Device device = new Device();
+        device.setId(1);
+        when(storage.getObject(eq(Device.class), any(Request.class))).thenReturn(device);
+        cacheManager = new CacheManager(new Config(), storage, mock(BroadcastService.class));
+    }
+
+    @Test
+    public void testRetainRelease() throws Exception {
+        List<Long> removed = new ArrayList<>();
+        cacheManager.addRemovalListener(removed::add);
+
+        assertFalse(cacheManager.retainDevice(1));
+        cacheManager.addDevice(1);
+        assertNotNull(cacheManager.getObject(Device.class, 1));
+
+        assertTrue(cacheManager.retainDevice(1));
+        cacheManager.releaseDevice(1);
+        assertNotNull(cacheManager.getObject(Device.class, 1));
+        assertTrue(removed.isEmpty());
+
+        cacheManager.releaseDevice(1);
+        assertNull(cacheManager.getObject(Device.class, 1));
+        assertEquals(List.of(1L), removed);
+
+        assertFalse(cacheManager.retainDevice(1));
+        verify(storage, times(1)).getObject(eq(Device.class), any(Request.class));
+    }
+
+    @Test
+    public void testNotificationIndex() throws Exception {
+        Notification notification = new Notification();
+        notification.setId(10);
+        notification.setType(Event.TYPE_ALARM);
+        notification.setNotificators("web");
+        notification.set("alarms", "sos");
+        when(storage.getObject(eq(Notification.class), any(Request.class))).thenReturn(notification);
+
+        cacheManager.addDevice(1);
+        assertTrue(cacheManager.getDeviceNotifications(1, Event.TYPE_ALARM).isEmpty());
+
+        cacheManager.invalidatePermission(false, Device.class, 1, Notification.class, 10, true);
+        var notifications = cacheManager.getDeviceNotifications(1, Event.TYPE_ALARM);
+        assertEquals(1, notifications.size());
+        assertEquals(Set.of("sos"), notifications.get(0).alarms());
+        assertSame(notifications, cacheManager.getDeviceNotifications(1, Event.TYPE_ALARM));
+
+        notification.getAttributes().remove("alarms");
+        cacheManager.invalidateObject(false, Notification.class, 10, ObjectOperation.UPDATE);
+        notifications = cacheManager.getDeviceNotifications(1, Event.TYPE_ALARM);
+        assertEquals(Set.of(), notifications.get(0).alarms());
+
+        cacheManager.invalidatePermission(false, Device.class, 1, Notification.class, 10, false);
+        assertTrue(cacheManager.getDeviceNotifications(1, Event.TYPE_ALARM).isEmpty());
+    }
+
+}
@@ -0,0 +1,67 @@
+package org.traccar.speedlimit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.traccar.config.Config;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+public class LocalSpeedLimitProviderTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testLocal() throws Exception {
+        Path file = directory.resolve("roads.tsv");
+        Files.write(file, List.of(
+                "50\t0.0\t0.0\t0.0\t0.01\t0.0\t0.02",
+                "30 mph\t0.0\t0.02\t0.01\t0.02",
+                "none\t0.0\t0.0\t0.01\t0.0"));
+
+        SpeedLimitProvider provider = new LocalSpeedLimitProvider(new Config(), file);
+
+        provider.getSpeedLimit(0.0005, 0.015, new SpeedLimitProvider.SpeedLimitProviderCallback() {
+            @Override
+            public void onSuccess(double speedLimit) {
+                assertEquals(27.0, speedLimit, 0.1);
+            }
+
+            @Override
+            public void onFailure(Throwable e) {
+                fail();
+            }
+        });
+
+        provider.getSpeedLimit(0.005, 0.0205, new SpeedLimitProvider.SpeedLimitProviderCallback() {
+            @Override
+            public void onSuccess(double speedLimit) {
+                assertEquals(26.1, speedLimit, 0.1);
+            }
+
+            @Override
+            public void onFailure(Throwable e) {
+                fail();
+            }
+        });
+
+        provider.getSpeedLimit(0.005, 0.01, new SpeedLimitProvider.SpeedLimitProviderCallback() {
+            @Override
+            public void onSuccess(double speedLimit) {
+                fail();
+            }
+
+            @Override
+            public void onFailure(Throwable e) {
+                assertTrue(e instanceof SpeedLimitException);
+            }
+        });
+    }
+
+}
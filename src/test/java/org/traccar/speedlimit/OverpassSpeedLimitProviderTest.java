@@ -1,22 +1,138 @@
 package org.traccar.speedlimit;
 
-import org.junit.jupiter.api.Disabled;
-import org.junit.jupiter.api.Test;
-
+import jakarta.json.Json;
+import jakarta.json.JsonObject;
+import jakarta.ws.rs.client.AsyncInvoker;
 import jakarta.ws.rs.client.Client;
 import jakarta.ws.rs.client.ClientBuilder;
+import jakarta.ws.rs.client.Invocation;
+import jakarta.ws.rs.client.InvocationCallback;
+import jakarta.ws.rs.client.WebTarget;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
 import org.traccar.config.Config;
+import org.traccar.config.Keys;
+
+import java.util.ArrayList;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 public class OverpassSpeedLimitProviderTest {
 
-    private final Client client = ClientBuilder.newClient();
+    private static class ResultCallback implements SpeedLimitProvider.SpeedLimitProviderCallback {
+
+        private final List<Object> results = new ArrayList<>();
+
+        @Override
+        public void onSuccess(double speedLimit) {
+            results.add(speedLimit);
+        }
+
+        @Override
+        public void onFailure(Throwable e) {
+            results.add(e);
+        }
+
+    }
+
+    private final List<String> urls = new ArrayList<>();
+    private final List<InvocationCallback<JsonObject>> requests = new ArrayList<>();
+
+    @SuppressWarnings("unchecked")
+    private Client mockClient() {
+        Client client = mock(Client.class);
+        WebTarget target = mock(WebTarget.class);
+        Invocation.Builder builder = mock(Invocation.Builder.class);
+        AsyncInvoker invoker = mock(AsyncInvoker.class);
+        when(client.target(anyString())).thenAnswer(invocation -> {
+            urls.add(invocation.getArgument(0));
+            return target;
+        });
+        when(target.request()).thenReturn(builder);
+        when(builder.async()).thenReturn(invoker);
+        when(invoker.get(any(InvocationCallback.class))).thenAnswer(invocation -> {
+            requests.add(invocation.getArgument(0));
+            return null;
+        });
+        return client;
+    }
+
+    private SpeedLimitProvider createCachedProvider() {
+        Config config = new Config();
+        config.setString(Keys.SPEED_LIMIT_CACHE_SIZE, "10");
+        return new OverpassSpeedLimitProvider(config, mockClient(), "http://localhost/api/interpreter");
+    }
+
+    private static JsonObject way(String maxSpeed, double latitude, double longitude) {
+        return Json.createObjectBuilder()
+                .add("tags", Json.createObjectBuilder().add("maxspeed", maxSpeed))
+                .add("geometry", Json.createArrayBuilder()
+                        .add(Json.createObjectBuilder().add("lat", latitude).add("lon", longitude - 0.001))
+                        .add(Json.createObjectBuilder().add("lat", latitude).add("lon", longitude + 0.001)))
+                .build();
+    }
+
+    @Test
+    public void testTileCoalescing() {
+        SpeedLimitProvider provider = createCachedProvider();
+        ResultCallback callback = new ResultCallback();
+
+        provider.getSpeedLimit(51.5055, -0.1255, callback);
+        provider.getSpeedLimit(51.5056, -0.1256, callback);
+        assertEquals(1, requests.size());
+
+        String url = urls.get(0);
+        assertTrue(url.contains("51.499") && url.contains("51.510"), "Tile is not padded by accuracy: " + url);
+
+        requests.get(0).completed(Json.createObjectBuilder()
+                .add("elements", Json.createArrayBuilder()
+                        .add(Json.createObjectBuilder().add("id", 1))
+                        .add(way("50;30", 51.5055, -0.1255))
+                        .add(Json.createObjectBuilder()
+                                .add("tags", Json.createObjectBuilder().add("maxspeed", "60"))
+                                .add("geometry", Json.createArrayBuilder().add("invalid")))
+                        .add(way("abc mph", 51.5055, -0.1255))
+                        .add(way("50", 51.5055, -0.1255)))
+                .build());
+        assertEquals(2, callback.results.size());
+        assertEquals(27.0, (Double) callback.results.get(0), 0.1);
+
+        provider.getSpeedLimit(51.5057, -0.1257, callback);
+        assertEquals(1, requests.size());
+        assertEquals(3, callback.results.size());
+    }
+
+    @Test
+    public void testTileFailure() {
+        SpeedLimitProvider provider = createCachedProvider();
+        ResultCallback callback = new ResultCallback();
+
+        provider.getSpeedLimit(51.5055, -0.1255, callback);
+        provider.getSpeedLimit(51.5056, -0.1256, callback);
+        requests.get(0).completed(Json.createObjectBuilder().add("remark", "runtime error").build());
+        assertEquals(2, callback.results.size());
+        assertTrue(callback.results.stream().allMatch(result -> result instanceof Throwable));
+
+        provider.getSpeedLimit(51.5055, -0.1255, callback);
+        assertEquals(2, requests.size());
+        requests.get(1).failed(new RuntimeException("Timeout"));
+        assertEquals(3, callback.results.size());
+
+        provider.getSpeedLimit(51.5055, -0.1255, callback);
+        assertEquals(3, requests.size());
+    }
 
     @Disabled
     @Test
     public void testOverpass() throws Exception {
+        Client client = ClientBuilder.newClient();
         var config = new Config();
         SpeedLimitProvider provider = new OverpassSpeedLimitProvider(config, client, "http://8.8.8.8/api/interpreter");
 
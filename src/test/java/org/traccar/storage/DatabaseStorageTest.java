@@ -0,0 +1,72 @@
+package org.traccar.storage;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.traccar.config.Config;
+import org.traccar.model.Event;
+import org.traccar.storage.query.Columns;
+import org.traccar.storage.query.Request;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class DatabaseStorageTest {
+
+    private Config config;
+    private JdbcDataSource dataSource;
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        config = new Config();
+        dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        objectMapper = new ObjectMapper();
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE tc_events ("
+                    + "id INT AUTO_INCREMENT PRIMARY KEY, type VARCHAR(128), eventTime TIMESTAMP, deviceId INT, "
+                    + "positionId INT, geofenceId INT, maintenanceId INT, attributes VARCHAR(4000))");
+        }
+    }
+
+    @Test
+    public void testBatch() throws SQLException {
+        QueryBuilder builder = QueryBuilder.create(
+                config, dataSource, objectMapper, "INSERT INTO tc_events (type, deviceId) VALUES (:type, :deviceId)",
+                true);
+        builder.setString("type", "first").setLong("deviceId", 1).addBatch();
+        builder.setString("type", "second").setLong("deviceId", 2).addBatch();
+        List<Long> ids = builder.executeBatch();
+
+        assertEquals(2, ids.size());
+        assertTrue(ids.get(0) < ids.get(1));
+    }
+
+    @Test
+    public void testAddObjects() throws StorageException {
+        Storage storage = new DatabaseStorage(config, dataSource, objectMapper);
+        List<Event> events = List.of(
+                new Event(Event.TYPE_ALARM, 1),
+                new Event(Event.TYPE_DEVICE_ONLINE, 1),
+                new Event(Event.TYPE_DEVICE_MOVING, 2));
+
+        List<Long> ids = storage.addObjects(events, new Request(new Columns.Exclude("id")));
+
+        assertEquals(3, ids.size());
+        List<Event> stored = storage.getObjects(Event.class, new Request(new Columns.All()));
+        assertEquals(ids, stored.stream().map(Event::getId).sorted().collect(Collectors.toList()));
+        for (Event event : stored) {
+            assertEquals(events.get(ids.indexOf(event.getId())).getType(), event.getType());
+        }
+    }
+
+}
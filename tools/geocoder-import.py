@@ -0,0 +1,92 @@
+#!/usr/bin/env python3
+
+# Converts GeoNames dumps or OpenStreetMap address points into the dataset used by the local geocoder.
+#
+# GeoNames:
+#   geocoder-import.py geonames cities1000.txt dataset.tsv [admin1CodesASCII.txt]
+#
+# OpenStreetMap (points exported with "osmium export -f geojsonseq --geometry-types=point"):
+#   geocoder-import.py osm addresses.geojsonseq dataset.tsv
+
+import json
+import os
+import sys
+
+FIELD_COUNT = 8
+
+
+def read_admin1(path):
+    names = {}
+    if path:
+        with open(path, encoding='utf-8') as file:
+            for line in file:
+                values = line.rstrip('\n').split('\t')
+                if len(values) > 1:
+                    names[values[0]] = values[1]
+    return names
+
+
+def read_geonames(path, admin1_path):
+    admin1 = read_admin1(admin1_path)
+    with open(path, encoding='utf-8') as file:
+        for line in file:
+            values = line.rstrip('\n').split('\t')
+            if len(values) < 11 or values[6] != 'P':
+                continue
+            country = values[8]
+            state = admin1.get(country + '.' + values[10], values[10])
+            yield values[4], values[5], ['', '', '', values[1], '', state, country, '']
+
+
+def read_osm(path):
+    with open(path, encoding='utf-8') as file:
+        for line in file:
+            line = line.strip('\x1e \n')
+            if not line:
+                continue
+            feature = json.loads(line)
+            geometry = feature.get('geometry') or {}
+            if geometry.get('type') != 'Point':
+                continue
+            tags = feature.get('properties') or {}
+            if 'addr:street' not in tags and 'addr:housenumber' not in tags:
+                continue
+            longitude, latitude = geometry['coordinates'][:2]
+            yield str(latitude), str(longitude), [
+                tags.get('addr:housenumber', ''),
+                tags.get('addr:street', ''),
+                tags.get('addr:suburb', ''),
+                tags.get('addr:city', ''),
+                tags.get('addr:district', ''),
+                tags.get('addr:state', ''),
+                tags.get('addr:country', ''),
+                tags.get('addr:postcode', '')]
+
+
+if len(sys.argv) < 4:
+    sys.exit('usage: geocoder-import.py <geonames|osm> <input> <output> [admin1CodesASCII.txt]')
+
+source, input_path, output_path = sys.argv[1:4]
+if source == 'geonames':
+    places = read_geonames(input_path, sys.argv[4] if len(sys.argv) > 4 else None)
+elif source == 'osm':
+    places = read_osm(input_path)
+else:
+    sys.exit('unknown source ' + source)
+
+count = 0
+strings = set()
+with open(output_path, 'w', encoding='utf-8') as output:
+    for latitude, longitude, fields in places:
+        fields = [field.replace('\t', ' ').replace('\n', ' ') for field in fields]
+        strings.update(field for field in fields if field)
+        output.write('\t'.join([latitude, longitude] + fields) + '\n')
+        count += 1
+
+# same estimate as LocalGeocoder reports on startup
+memory = count * 4 * (2 + FIELD_COUNT) + sum(40 + len(string) for string in strings)
+
+print('places:          %d' % count)
+print('unique strings:  %d' % len(strings))
+print('file size:       %d KB' % (os.path.getsize(output_path) // 1024))
+print('memory estimate: %d KB (%.1f bytes per place)' % (memory // 1024, memory / count if count else 0))
@@ -0,0 +1,38 @@
+#!/usr/bin/env python3
+
+# Converts OpenStreetMap roads into the dataset used by the local speed limit provider.
+#
+# Roads should be exported with osmium, for example:
+#   osmium tags-filter region.osm.pbf w/maxspeed -o roads.osm.pbf
+#   osmium export -f geojsonseq --geometry-types=linestring roads.osm.pbf -o roads.geojsonseq
+#   speedlimit-import.py roads.geojsonseq dataset.tsv
+
+import json
+import os
+import sys
+
+if len(sys.argv) < 3:
+    sys.exit('usage: speedlimit-import.py <input> <output>')
+
+ways = 0
+points = 0
+with open(sys.argv[1], encoding='utf-8') as file, open(sys.argv[2], 'w', encoding='utf-8') as output:
+    for line in file:
+        line = line.strip('\x1e \n')
+        if not line:
+            continue
+        feature = json.loads(line)
+        geometry = feature.get('geometry') or {}
+        maxspeed = (feature.get('properties') or {}).get('maxspeed')
+        if not maxspeed or geometry.get('type') != 'LineString':
+            continue
+        values = [maxspeed.replace('\t', ' ')]
+        for longitude, latitude in geometry['coordinates']:
+            values += [str(latitude), str(longitude)]
+        output.write('\t'.join(values) + '\n')
+        ways += 1
+        points += len(geometry['coordinates'])
+
+print('ways:      %d' % ways)
+print('points:    %d' % points)
+print('file size: %d KB' % (os.path.getsize(sys.argv[2]) // 1024))